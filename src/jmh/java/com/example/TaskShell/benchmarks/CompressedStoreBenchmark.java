@@ -0,0 +1,105 @@
+package com.example.TaskShell.benchmarks;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.repositories.StoreFormat;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.repositories.TaskStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the pretty-printed tasks.json of earlier versions, the JSON log and the compressed store on a
+ * history created day after day: each invocation opens the store and reads it as a new process would.
+ * The size of the files of every format is printed once the dataset is created.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CompressedStoreBenchmark {
+
+    private static final String TASKS_JSON = "tasks.json";
+
+    @Param({"100000"})
+    int tasks;
+
+    @Param({TASKS_JSON, "json", "compressed"})
+    String format;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private File home;
+    private File tasksJson;
+    private StoreFormat storeFormat;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        boolean legacy = format.equals(TASKS_JSON);
+        storeFormat = legacy ? StoreFormat.JSON : StoreFormat.of(format);
+        home = TaskDataset.createHistory(tasks, storeFormat);
+        long size = storeFormat.getFiles(home).stream().mapToLong(File::length).sum();
+        if (legacy) {
+            tasksJson = new File(home, TASKS_JSON);
+            TaskRepository repository = TaskDataset.open(home);
+            mapper.writerWithDefaultPrettyPrinter().writeValue(tasksJson, repository.findAll());
+            repository.close();
+            size = tasksJson.length();
+        }
+        System.out.printf("%n%s: %,d bytes for %,d tasks%n", format, size, tasks);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        TaskDataset.delete(home);
+    }
+
+    /**
+     * Reads every task.
+     */
+    @Benchmark
+    public List<Task> loadAll() throws IOException {
+        if (tasksJson != null) {
+            return readTasksJson();
+        }
+        try (TaskStore store = storeFormat.open(home, mapper, TaskDataset.SETTINGS)) {
+            return store.loadAll();
+        }
+    }
+
+    /**
+     * Reads the tasks of one day, tasks.json is read whole.
+     */
+    @Benchmark
+    public List<Task> scanDay() throws IOException {
+        String date = TaskDataset.dateOf(next++ % TaskDataset.DAYS);
+        if (tasksJson != null) {
+            return readTasksJson().stream().filter(task -> date.equals(task.getDate())).toList();
+        }
+        try (TaskStore store = storeFormat.open(home, mapper, TaskDataset.SETTINGS)) {
+            return store.scan(date, null, null);
+        }
+    }
+
+    private List<Task> readTasksJson() throws IOException {
+        return mapper.readValue(tasksJson, mapper.getTypeFactory().constructCollectionType(List.class, Task.class));
+    }
+}
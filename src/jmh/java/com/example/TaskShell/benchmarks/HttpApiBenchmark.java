@@ -0,0 +1,110 @@
+package com.example.TaskShell.benchmarks;
+
+import com.example.TaskShell.api.TaskHttpApi;
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.repositories.CategoryRegistry;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.services.CategoryService;
+import com.example.TaskShell.services.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the {@link TaskHttpApi}: requests per second served to 8 concurrent clients, reading
+ * or writing. Run beside the other benchmarks of the class to see how writes slow reads down.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(8)
+@State(Scope.Benchmark)
+public class HttpApiBenchmark {
+
+    @Param({"10000"})
+    int tasks;
+
+    private File home;
+    private TaskRepository repository;
+    private TaskHttpApi api;
+    private HttpClient client;
+    private String baseUri;
+    private List<String> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        home = TaskDataset.create(tasks);
+        repository = TaskDataset.open(home);
+        TaskMetrics metrics = new TaskMetrics();
+        TaskService taskService = new TaskService(repository, new CategoryService(new CategoryRegistry(home), metrics), metrics);
+        api = new TaskHttpApi(taskService, metrics, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        api.start();
+        client = HttpClient.newHttpClient();
+        baseUri = "http://127.0.0.1:" + api.getPort() + "/tasks";
+        ids = repository.findAll().stream().limit(1024).map(task -> task.getId().toString()).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        api.close();
+        repository.close();
+        TaskDataset.delete(home);
+    }
+
+    /**
+     * The tasks of a day, about 30 of them.
+     */
+    @Benchmark
+    public String listDay() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUri + "?date="
+                + TaskDataset.dateOf(ThreadLocalRandom.current().nextInt(TaskDataset.DAYS)))).GET().build());
+    }
+
+    @Benchmark
+    public String getTask() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUri + "/" + randomId())).GET().build());
+    }
+
+    @Benchmark
+    public String markDone() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUri + "/" + randomId() + "/done"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.TaskShell.benchmarks;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.StoreFormat;
+import com.example.TaskShell.repositories.TaskRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks one-shot commands, each opening the store of the home directory as a new process would,
+ * on a single JSON log and on a store partitioned by month.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PartitionedStoreBenchmark {
+
+    @Param({"100000"})
+    int tasks;
+
+    @Param({"json", "partitioned"})
+    String format;
+
+    private File home;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        home = TaskDataset.create(tasks, StoreFormat.of(format));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        TaskDataset.delete(home);
+    }
+
+    /**
+     * list --date: reads the tasks of one day.
+     */
+    @Benchmark
+    public List<Task> listDay() throws IOException {
+        TaskRepository repository = TaskDataset.open(home);
+        try {
+            return repository.find(TaskDataset.dateOf(next++ % TaskDataset.DAYS), null, null);
+        } finally {
+            repository.close();
+        }
+    }
+
+    /**
+     * list --a: reads every task.
+     */
+    @Benchmark
+    public List<Task> listAll() throws IOException {
+        TaskRepository repository = TaskDataset.open(home);
+        try {
+            return repository.findAll();
+        } finally {
+            repository.close();
+        }
+    }
+
+    /**
+     * move-todo of the backlog: the originals stay TODO, so every invocation copies the same tasks.
+     */
+    @Benchmark
+    public int moveTodo() throws IOException {
+        TaskRepository repository = TaskDataset.open(home);
+        try {
+            List<Task> undone = repository.find(TaskDataset.BACKLOG_DATE, TaskStatus.TODO, null);
+            List<Task> copies = undone.stream().map(task -> {
+                Task copy = task.clone();
+                copy.setDate(TaskDataset.dateOf(next++ % TaskDataset.DAYS));
+                copy.setNewId();
+                return copy;
+            }).toList();
+            repository.saveCopies(copies, undone);
+            return copies.size();
+        } finally {
+            repository.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.TaskShell.benchmarks;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.utils.TaskListRenderer;
+import com.example.TaskShell.utils.TaskUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the three {@link TaskUtils} renderers over every task of 1k, 100k and 1M task lists,
+ * and the streaming renderer list uses for comparison.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int tasks;
+
+    private List<Task> list;
+    private TaskListRenderer renderer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File home = TaskDataset.create(tasks);
+        TaskRepository repository = TaskDataset.open(home);
+        list = repository.findAll();
+        repository.close();
+        TaskDataset.delete(home);
+        renderer = new TaskListRenderer(new PrintWriter(Writer.nullWriter()));
+    }
+
+    @Benchmark
+    public int simpleList() {
+        return TaskUtils.displaySimpleList(list, "01/01/2025").length();
+    }
+
+    @Benchmark
+    public int tabularList() {
+        return TaskUtils.displayTabularList(list).length();
+    }
+
+    @Benchmark
+    public int detailedList() {
+        return TaskUtils.displayDetailedList(list).length();
+    }
+
+    @Benchmark
+    public int streamedSimpleList() {
+        return renderer.render(list, TaskListRenderer.Layout.SIMPLE, "Tasks Due 01/01/2025", 0, 0);
+    }
+}
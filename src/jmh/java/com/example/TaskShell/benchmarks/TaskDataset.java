@@ -0,0 +1,134 @@
+package com.example.TaskShell.benchmarks;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.CategoryRegistry;
+import com.example.TaskShell.repositories.FsyncPolicy;
+import com.example.TaskShell.repositories.StoreFormat;
+import com.example.TaskShell.repositories.StoreSettings;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.utils.DateUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generated TaskShell home directories used by the benchmarks.
+ * <p>
+ * Tasks are spread over a year of due dates and a few categories, a third of them DONE. The same
+ * seed always generates the same tasks. A separate date holds a fixed number of TODO tasks to move.
+ */
+final class TaskDataset {
+
+    static final String[] CATEGORIES = {"Work", "Home", "Errands", "Health"};
+    static final int DAYS = 365;
+    static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    /** Holds {@link #BACKLOG_SIZE} TODO tasks whatever the size of the dataset. */
+    static final String BACKLOG_DATE = "01/01/2024";
+    static final int BACKLOG_SIZE = 100;
+
+    private static final int CHUNK_SIZE = 10_000;
+    static final StoreSettings SETTINGS = new StoreSettings(FsyncPolicy.NEVER, 0);
+    private static final String[] WORDS = {"write", "review", "report", "call", "plan", "fix", "buy", "book",
+            "prepare", "quarterly", "budget", "meeting", "groceries", "dentist", "invoice", "release"};
+
+    private TaskDataset() {
+    }
+
+    /**
+     * Creates a home directory holding the given number of tasks and the categories.
+     *
+     * @param size the number of tasks besides the backlog
+     * @return the home directory, to {@link #delete} once done
+     */
+    static File create(int size) throws IOException {
+        return create(size, StoreFormat.JSON);
+    }
+
+    /**
+     * Creates a home directory holding the given number of tasks in a store of the given format.
+     */
+    static File create(int size, StoreFormat format) throws IOException {
+        return create(size, format, false);
+    }
+
+    /**
+     * Creates a home directory whose tasks were created in the order of their due dates, as a long daily use
+     * of the shell leaves them.
+     */
+    static File createHistory(int size, StoreFormat format) throws IOException {
+        return create(size, format, true);
+    }
+
+    private static File create(int size, StoreFormat format, boolean chronological) throws IOException {
+        File directory = Files.createTempDirectory("taskshell-jmh-").toFile();
+        CategoryRegistry categories = new CategoryRegistry(directory);
+        categories.addAll(List.of(CATEGORIES));
+
+        TaskRepository repository = new TaskRepository(directory, format, SETTINGS);
+        Random random = new Random(size);
+        List<Task> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < size; i++) {
+            int day = chronological ? (int) ((long) i * DAYS / size) : random.nextInt(DAYS);
+            Task task = new Task(description(random), dateOf(day));
+            task.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            if (random.nextInt(3) == 0) {
+                task.setStatus(TaskStatus.DONE);
+            }
+            chunk.add(task);
+            if (chunk.size() == CHUNK_SIZE) {
+                repository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        for (int i = 0; i < BACKLOG_SIZE; i++) {
+            chunk.add(new Task(description(random), BACKLOG_DATE));
+        }
+        repository.saveAll(chunk);
+        repository.close();
+        return directory;
+    }
+
+    /**
+     * Opens the tasks of a home directory, without syncing writes so that the disk doesn't dominate.
+     */
+    static TaskRepository open(File directory) throws IOException {
+        return new TaskRepository(directory, StoreFormat.JSON, SETTINGS);
+    }
+
+    /**
+     * @param day the number of days after {@link #FIRST_DAY}
+     * @return the date as typed by users
+     */
+    static String dateOf(int day) {
+        return DateUtils.formatEpochDay((int) FIRST_DAY.toEpochDay() + day);
+    }
+
+    static void delete(File directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static String description(Random random) {
+        int words = 2 + random.nextInt(4);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                description.append(' ');
+            }
+            description.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.TaskShell.benchmarks;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.CategoryRegistry;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.services.CategoryService;
+import com.example.TaskShell.services.TaskService;
+import com.example.TaskShell.utils.TaskListRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the task commands on stores of 1k, 100k and 1M tasks.
+ * <p>
+ * The private steps of {@link TaskService} are measured through the public calls that run them:
+ * readTasksFromFile is {@link TaskRepository#findAll()}, filterTasks is list limited to one row
+ * so that rendering doesn't count, and appendTaskToFile is add.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TaskServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int tasks;
+
+    private File home;
+    private TaskRepository repository;
+    private CategoryService categoryService;
+    private TaskService taskService;
+    private TaskListRenderer renderer;
+    private List<String> ids;
+    private int next;
+
+    /**
+     * Answers yes to the confirmation of move-todo and hides its question.
+     */
+    @State(Scope.Thread)
+    public static class Confirmation {
+
+        private final InputStream standardInput = System.in;
+        private final PrintStream standardOutput = System.out;
+
+        @Setup(Level.Trial)
+        public void hideOutput() {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        @Setup(Level.Invocation)
+        public void answerYes() {
+            System.setIn(new ByteArrayInputStream("y\n".getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @TearDown(Level.Trial)
+        public void restore() {
+            System.setIn(standardInput);
+            System.setOut(standardOutput);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        home = TaskDataset.create(tasks);
+        repository = TaskDataset.open(home);
+        categoryService = new CategoryService(new CategoryRegistry(home));
+        taskService = new TaskService(repository, categoryService);
+        renderer = new TaskListRenderer(new PrintWriter(Writer.nullWriter()));
+        ids = repository.findAll().stream().limit(1024).map(task -> task.getId().toString()).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        TaskDataset.delete(home);
+    }
+
+    /**
+     * What readTasksFromFile does for every list --a: the tasks are cached, only copied.
+     */
+    @Benchmark
+    public List<Task> readTasks() throws IOException {
+        return repository.findAll();
+    }
+
+    /**
+     * Parses the whole store, as the first command of a shell does.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public List<Task> loadStore() throws IOException {
+        TaskRepository cold = TaskDataset.open(home);
+        try {
+            return cold.findAll();
+        } finally {
+            cold.close();
+        }
+    }
+
+    @Benchmark
+    public String filterByDate() {
+        return taskService.listTasks(false, false, false, false, TaskDataset.dateOf(next++ % TaskDataset.DAYS), null,
+                null, null, null, renderer, 0, 1);
+    }
+
+    @Benchmark
+    public String filterByCategory() {
+        return taskService.listTasks(true, false, false, false, "no date",
+                TaskDataset.CATEGORIES[next++ % TaskDataset.CATEGORIES.length], null, null, null, renderer, 0, 1);
+    }
+
+    @Benchmark
+    public void appendTask() {
+        taskService.addNewTask("benchmark task", TaskDataset.dateOf(next++ % TaskDataset.DAYS), "TODO", false, "Work");
+    }
+
+    @Benchmark
+    public String updateTaskStatus() {
+        int index = next++;
+        return taskService.updateTaskStatus(ids.get(index % ids.size()), index % 2 == 0 ? TaskStatus.DONE : TaskStatus.TODO);
+    }
+
+    /**
+     * Copies the same {@link TaskDataset#BACKLOG_SIZE} tasks at every call, after the last date of the dataset.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String moveTodo(Confirmation confirmation) throws IOException {
+        return taskService.moveTodo(TaskDataset.BACKLOG_DATE, TaskDataset.dateOf(TaskDataset.DAYS));
+    }
+
+    @Benchmark
+    public boolean verifyCategory() throws IOException {
+        return categoryService.verifyCategory(TaskDataset.CATEGORIES[next++ % TaskDataset.CATEGORIES.length]);
+    }
+}
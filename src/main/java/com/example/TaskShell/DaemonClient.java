@@ -0,0 +1,80 @@
+package com.example.TaskShell;
+
+import com.example.TaskShell.models.ANSIColors;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Sends a one-shot command to the {@link TaskDaemon} serving a TaskShell directory, see its protocol.
+ */
+final class DaemonClient {
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Runs a command on the daemon, if one is running.
+     *
+     * @param home   the TaskShell directory
+     * @param args   the command name followed by its arguments
+     * @param out    receives the output of the command
+     * @param report marked once connected, null for none
+     * @return the exit code of the command, or -1 if it must run without the daemon
+     */
+    static int forward(File home, String[] args, OutputStream out, StartupReport report) {
+        Path socket = TaskDaemon.socketPath(home);
+        if (!Files.exists(socket)) {
+            return -1;
+        }
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            // Left by a daemon that didn't stop cleanly
+            return -1;
+        }
+        if (report != null) {
+            report.ready();
+        }
+
+        try (channel) {
+            TaskDaemon.writeRequest(new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel))), args);
+            DataInputStream response = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            byte[] buffer = new byte[8192];
+            int length = response.readInt();
+            while (length != TaskDaemon.END_OF_OUTPUT) {
+                while (length > 0) {
+                    int chunk = Math.min(length, buffer.length);
+                    response.readFully(buffer, 0, chunk);
+                    out.write(buffer, 0, chunk);
+                    length -= chunk;
+                }
+                out.flush();
+                length = response.readInt();
+            }
+            return response.readInt();
+        } catch (IOException e) {
+            // The command may have run, running it again could apply it twice
+            try {
+                out.write((ANSIColors.redText("The TaskShell daemon stopped while running the command: " + e)
+                        + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            } catch (IOException ignored) {
+                // Nowhere left to report it
+            }
+            return 1;
+        }
+    }
+}
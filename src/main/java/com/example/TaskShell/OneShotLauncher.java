@@ -0,0 +1,341 @@
+package com.example.TaskShell;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.models.TaskFilter;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.CategoryRegistry;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.services.CategoryService;
+import com.example.TaskShell.services.TaskService;
+import com.example.TaskShell.utils.TaskListRenderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the most common one-shot commands without starting Spring.
+ * <p>
+ * list, add, search, task-history, mark-done, mark-todo and delete, by ID or by filter, given as process arguments are parsed here and
+ * run on a repository opened directly, with the settings of the taskshell.* system properties.
+ * Anything this launcher can't handle as the shell would (another command, an unknown option, a
+ * pager, a setting given as an argument or in the environment) is left to the Spring Shell.
+ * The taskshell.fast-start system property set to false always starts the shell.
+ * <p>
+ * When a {@link TaskDaemon} serves the store, the commands are sent to it instead of reading the store here.
+ */
+final class OneShotLauncher {
+
+    static final String PROPERTY = "taskshell.fast-start";
+
+    /**
+     * The options of a command, as the {@code @ShellOption}s of its method in TaskCommands declare them.
+     *
+     * @param flags       the names of its boolean options
+     * @param options     the names of its options taking a value, by alias
+     * @param positionals the names of the options that can be given by position, in order
+     * @param mandatory   the names of the options without default value
+     * @param defaults    the values of the options that aren't given, by name
+     */
+    record CommandSpec(Set<String> flags, Map<String, String> options, List<String> positionals,
+                       Set<String> mandatory, Map<String, String> defaults) {
+    }
+
+    static final Map<String, CommandSpec> COMMANDS = Map.of(
+            "list", new CommandSpec(
+                    Set.of("--d", "--detailed", "--tab", "--table", "--t", "--a", "--all"),
+                    aliases("--date", "--date", "--c", "--category", "--category", "--category", "--from", "--from",
+                            "--to", "--to", "--as-of", "--as-of", "--offset", "--offset", "--limit", "--limit"),
+                    List.of("--date"),
+                    Set.of(),
+                    Map.of("--date", "no date", "--offset", "0", "--limit", "0")),
+            "add", new CommandSpec(
+                    Set.of("--t"),
+                    aliases("--d", "--date", "--date", "--date", "--s", "--status", "--status", "--status",
+                            "--c", "--category", "--category", "--category", "--description", "--description"),
+                    List.of("--description"),
+                    Set.of("--description"),
+                    Map.of("--date", "no date", "--status", "TODO")),
+            "search", new CommandSpec(
+                    Set.of(),
+                    aliases("--l", "--limit", "--limit", "--limit", "--query", "--query"),
+                    List.of("--query"),
+                    Set.of("--query"),
+                    Map.of("--limit", "20")),
+            "task-history", new CommandSpec(Set.of(), aliases("--taskID", "--taskID"), List.of("--taskID"), Set.of("--taskID"),
+                    Map.of()),
+            "mark-done", idCommand(false),
+            "mark-todo", idCommand(false),
+            "delete", idCommand(true));
+
+    // Read by Spring Boot from the working directory
+    private static final List<String> CONFIGURATION_FILES = List.of("application.properties", "application.yml",
+            "application.yaml", "config/application.properties", "config/application.yml", "config/application.yaml");
+
+    private OneShotLauncher() {
+    }
+
+    /**
+     * Runs a one-shot command.
+     *
+     * @param args   the process arguments
+     * @param report marked once the store is open
+     * @return the exit code of the command, or -1 if it is left to the shell
+     */
+    static int run(String[] args, StartupReport report) {
+        if (args.length == 0 || "false".equalsIgnoreCase(System.getProperty(PROPERTY)) || configuredElsewhere(args)) {
+            return -1;
+        }
+        Map<String, String> options = parse(args);
+        if (options == null) {
+            return -1;
+        }
+        int forwarded = DaemonClient.forward(new File(home()), args, System.out, report);
+        if (forwarded >= 0) {
+            return forwarded;
+        }
+
+        PrintWriter out = new PrintWriter(System.out);
+        TaskMetrics metrics = new TaskMetrics(System.getProperty("taskshell.metrics.dump-file", ""));
+        try {
+            TaskRepository repository = openRepository(new File(home()), metrics);
+            try {
+                TaskService taskService = new TaskService(repository,
+                        new CategoryService(new CategoryRegistry(new File(home())), metrics), metrics);
+                report.ready();
+                return execute(args[0], options, taskService, out);
+            } finally {
+                repository.close();
+                metrics.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            // As the shell reports the failure of a command
+            out.println(ANSIColors.redText(e.toString()));
+            return 1;
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Parses the arguments of a one-shot command.
+     *
+     * @param args the command name followed by its arguments
+     * @return the value of every option taking a value that is given or has a default, by name, "true" for the
+     * given flags, or null if the shell must run the command
+     */
+    static Map<String, String> parse(String[] args) {
+        CommandSpec spec = args.length > 0 ? COMMANDS.get(args[0]) : null;
+        return spec != null ? parse(args, spec) : null;
+    }
+
+    /**
+     * Runs a parsed command.
+     *
+     * @param command     the name of the command
+     * @param options     the options returned by {@link #parse(String[])}
+     * @param taskService runs the command
+     * @param out         receives the output of the command
+     * @return the exit code of the command
+     */
+    static int execute(String command, Map<String, String> options, TaskService taskService, PrintWriter out) {
+        try {
+            String result = runCommand(command, options, taskService, out);
+            if (result != null) {
+                out.println(result);
+            }
+            return 0;
+        } catch (RuntimeException e) {
+            // As the shell reports the failure of a command
+            out.println(ANSIColors.redText(e.toString()));
+            return 1;
+        }
+    }
+
+    static String home() {
+        return System.getProperty("taskshell.home", System.getProperty("user.home") + "/TaskShell");
+    }
+
+    /**
+     * Opens the repository as the shell does, with the defaults of {@link TaskRepository}.
+     *
+     * @throws NumberFormatException if a numeric setting isn't a number, as the shell refuses it
+     */
+    static TaskRepository openRepository(File home, TaskMetrics metrics) throws IOException {
+        return new TaskRepository(home,
+                System.getProperty("taskshell.store.default-format", TaskRepository.DEFAULT_FORMAT),
+                System.getProperty("taskshell.store.fsync", TaskRepository.DEFAULT_FSYNC),
+                Long.parseLong(System.getProperty("taskshell.store.fsync-interval-ms", TaskRepository.DEFAULT_FSYNC_INTERVAL_MS)),
+                Double.parseDouble(System.getProperty("taskshell.store.compaction-ratio", TaskRepository.DEFAULT_COMPACTION_RATIO)),
+                Long.parseLong(System.getProperty("taskshell.store.compaction-min-bytes", TaskRepository.DEFAULT_COMPACTION_MIN_BYTES)),
+                System.getProperty("taskshell.store.partition-by", TaskRepository.DEFAULT_PARTITION_BY),
+                !"false".equalsIgnoreCase(System.getProperty("taskshell.history.enabled", TaskRepository.DEFAULT_HISTORY_ENABLED)),
+                Long.parseLong(System.getProperty("taskshell.history.snapshot-min-bytes",
+                        TaskRepository.DEFAULT_HISTORY_SNAPSHOT_MIN_BYTES)),
+                metrics);
+    }
+
+    // Private Helper Methods
+
+    private static String runCommand(String command, Map<String, String> options, TaskService taskService, PrintWriter out) {
+        switch (command) {
+            case "list" -> {
+                int offset = Integer.parseInt(options.get("--offset"));
+                int limit = Integer.parseInt(options.get("--limit"));
+                if (offset < 0 || limit < 0) {
+                    return ANSIColors.redText("The offset and the limit can't be negative");
+                }
+                return taskService.listTasks(options.containsKey("--a") || options.containsKey("--all"),
+                        options.containsKey("--d") || options.containsKey("--detailed"),
+                        options.containsKey("--tab") || options.containsKey("--table"),
+                        options.containsKey("--t"),
+                        options.get("--date"), options.get("--category"),
+                        options.get("--from"), options.get("--to"), options.get("--as-of"), new TaskListRenderer(out), offset, limit);
+            }
+            case "add" -> {
+                taskService.addNewTask(options.get("--description"), options.get("--date"),
+                        options.get("--status"), options.containsKey("--t"), options.get("--category"));
+                return ANSIColors.greenText("[√] Task created successfully");
+            }
+            case "search" -> {
+                return taskService.searchTasks(options.get("--query"), Integer.parseInt(options.get("--limit")));
+            }
+            case "task-history" -> {
+                return taskService.taskHistory(options.get("--taskID"));
+            }
+            case "mark-done", "mark-todo" -> {
+                TaskStatus status = command.equals("mark-done") ? TaskStatus.DONE : TaskStatus.TODO;
+                if (options.containsKey("--taskID")) {
+                    return taskService.updateTaskStatus(options.get("--taskID"), status);
+                }
+                TaskFilter filter = filter(options);
+                if (filter.isEmpty()) {
+                    return ANSIColors.redText("Please specify a task ID or the tasks to mark as " + status);
+                }
+                return taskService.setStatusWhere(filter, status);
+            }
+            default -> {
+                if (options.containsKey("--taskID")) {
+                    return taskService.deleteTask(options.get("--taskID"));
+                }
+                return taskService.deleteWhere(filter(options));
+            }
+        }
+    }
+
+    /**
+     * Parses the arguments following the command name.
+     *
+     * @return the value of every given option by name, "true" for flags, or null if the shell must parse them
+     */
+    private static Map<String, String> parse(String[] args, CommandSpec spec) {
+        Map<String, String> options = new HashMap<>();
+        List<String> positionals = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (spec.flags().contains(arg)) {
+                if (i + 1 < args.length && (args[i + 1].equals("true") || args[i + 1].equals("false"))) {
+                    if (args[++i].equals("true")) {
+                        options.put(arg, "true");
+                    }
+                } else {
+                    options.put(arg, "true");
+                }
+            } else if (spec.options().containsKey(arg)) {
+                if (i + 1 >= args.length || options.put(spec.options().get(arg), args[++i]) != null) {
+                    return null;
+                }
+            } else if (arg.startsWith("--")) {
+                return null;
+            } else {
+                positionals.add(arg);
+            }
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String name : spec.positionals()) {
+            if (!options.containsKey(name)) {
+                missing.add(name);
+            }
+        }
+        if (positionals.size() > missing.size()) {
+            return null;
+        }
+        for (int i = 0; i < positionals.size(); i++) {
+            options.put(missing.get(i), positionals.get(i));
+        }
+        // Missing parameters and invalid numbers are left to the shell, which reports them
+        if (!options.keySet().containsAll(spec.mandatory())) {
+            return null;
+        }
+        for (String name : List.of("--offset", "--limit")) {
+            if (options.containsKey(name) && !options.get(name).matches("-?\\d{1,9}")) {
+                return null;
+            }
+        }
+        spec.defaults().forEach(options::putIfAbsent);
+        return options;
+    }
+
+    /**
+     * Whether settings could be given by the arguments, the environment or configuration files, which only the shell reads.
+     */
+    private static boolean configuredElsewhere(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                return true;
+            }
+        }
+        for (String name : System.getenv().keySet()) {
+            if (name.startsWith("TASKSHELL_") || name.equals("SPRING_APPLICATION_JSON") || name.startsWith("SPRING_CONFIG_")) {
+                return true;
+            }
+        }
+        for (String file : CONFIGURATION_FILES) {
+            if (new File(file).exists()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A command taking the ID of a task or the filters of the tasks to change, as {@link TaskFilter#of}.
+     */
+    private static CommandSpec idCommand(boolean statusFilter) {
+        List<String> pairs = new ArrayList<>(List.of("--taskID", "--taskID", "--date", "--date", "--from", "--from",
+                "--to", "--to", "--before", "--before", "--after", "--after", "--c", "--category",
+                "--category", "--category", "--match", "--match"));
+        if (statusFilter) {
+            pairs.addAll(List.of("--s", "--status", "--status", "--status"));
+        }
+        return new CommandSpec(Set.of(), aliases(pairs.toArray(String[]::new)), List.of("--taskID"), Set.of(), Map.of());
+    }
+
+    /**
+     * @throws java.time.format.DateTimeParseException if a date isn't valid
+     */
+    private static TaskFilter filter(Map<String, String> options) {
+        String status = options.get("--status");
+        return TaskFilter.of(options.get("--date"), options.get("--from"), options.get("--to"), options.get("--before"),
+                options.get("--after"), status != null ? TaskStatus.valueOf(status) : null, options.get("--category"),
+                options.get("--match"));
+    }
+
+    /**
+     * @param pairs alias, name, alias, name...
+     */
+    private static Map<String, String> aliases(String... pairs) {
+        Map<String, String> aliases = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            aliases.put(pairs[i], pairs[i + 1]);
+        }
+        return aliases;
+    }
+}
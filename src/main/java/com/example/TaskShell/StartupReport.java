@@ -0,0 +1,46 @@
+package com.example.TaskShell;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures how long a run of TaskShell takes to start, printed on the standard error when the
+ * taskshell.startup-report system property is true.
+ * <p>
+ * A run is split at the entry of main, once the command is ready to run (the one-shot launcher
+ * has opened the store, or the Spring context is refreshed) and once the command has run.
+ */
+final class StartupReport {
+
+    static final String PROPERTY = "taskshell.startup-report";
+
+    private final boolean enabled = Boolean.getBoolean(PROPERTY);
+    private final long mainMillis = System.currentTimeMillis();
+    private final long mainNanos = System.nanoTime();
+    private long readyNanos;
+
+    /**
+     * Marks the moment the command is ready to run.
+     */
+    void ready() {
+        readyNanos = System.nanoTime();
+    }
+
+    /**
+     * Prints the report, once the command has run.
+     *
+     * @param path how the command was run
+     */
+    void print(String path) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        long ready = readyNanos != 0 ? readyNanos : now;
+        // Only read when reporting, loading the management classes takes a few tens of ms
+        long jvmMillis = mainMillis - ManagementFactory.getRuntimeMXBean().getStartTime();
+        long mainToReady = (ready - mainNanos) / 1_000_000;
+        long command = (now - ready) / 1_000_000;
+        System.err.printf("[startup] %s: jvm %d ms, ready %d ms, command %d ms, total %d ms%n", path,
+                jvmMillis, mainToReady, command, jvmMillis + (now - mainNanos) / 1_000_000);
+    }
+}
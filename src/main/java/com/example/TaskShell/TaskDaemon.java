@@ -0,0 +1,339 @@
+package com.example.TaskShell;
+
+import com.example.TaskShell.api.TaskHttpApi;
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.repositories.CategoryRegistry;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.services.CategoryService;
+import com.example.TaskShell.services.TaskService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Resident process keeping the task store, the categories and their indexes in memory, running the
+ * one-shot commands sent by {@link DaemonClient}s over the Unix domain socket taskshell.sock of the
+ * TaskShell directory.
+ * <p>
+ * Commands run on a pool of threads, those that only read (list, search, task-history) without the write lock
+ * of the task service, but the task repository still serves them one at a time. Changes are appended to the store as they are made and forced to the disk
+ * as taskshell.store.fsync says, in the background by default. Other sessions keep sharing the store.
+ * A command the daemon can't run without a terminal, such as adding a task to a missing category,
+ * is sent back to the client to run itself.
+ * <p>
+ * With taskshell.http.port set, the daemon also serves the {@link TaskHttpApi}, its writes taking turns
+ * with the ones of the socket clients.
+ * <p>
+ * A request is the number of arguments followed by every argument, as modified UTF-8. The response is
+ * the output of the command in chunks, each preceded by its length, then -1 and the exit code.
+ */
+final class TaskDaemon implements Closeable {
+
+    static final String SOCKET_FILE_NAME = "taskshell.sock";
+    // Exit code sent when the client must run the command itself
+    static final int RUN_LOCALLY = -1;
+    static final int END_OF_OUTPUT = -1;
+
+    private static final Set<String> READ_COMMANDS = Set.of("list", "search", "task-history");
+
+    private final Path socketPath;
+    private final TaskMetrics metrics;
+    private final TaskRepository repository;
+    private final CategoryRegistry categoryRegistry;
+    private final TaskService taskService;
+    private final ServerSocketChannel server;
+    private final ExecutorService executor;
+    private final Lock writeLock;
+    private TaskHttpApi httpApi;
+    private boolean closed;
+
+    private TaskDaemon(File home, TaskMetrics metrics) throws IOException {
+        this.socketPath = socketPath(home);
+        this.metrics = metrics;
+        this.repository = OneShotLauncher.openRepository(home, metrics);
+        this.categoryRegistry = new CategoryRegistry(home);
+        this.taskService = new TaskService(repository, new CategoryService(categoryRegistry, metrics), metrics);
+        this.writeLock = taskService.getWriteLock();
+        // Read everything once, the commands then only touch memory
+        repository.findAll();
+        categoryRegistry.findAll();
+
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // The socket is then as private as the directory holding it
+        } catch (IOException e) {
+            server.close();
+            repository.close();
+            throw e;
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "taskshell-daemon-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the daemon until it is stopped, or stops the running one.
+     *
+     * @param args daemon, optionally followed by stop
+     * @return the exit code of the process
+     */
+    static int run(String[] args) {
+        File home = new File(OneShotLauncher.home());
+        if (args.length == 2 && args[1].equals("stop")) {
+            int exitCode = DaemonClient.forward(home, args, System.out, null);
+            if (exitCode < 0) {
+                System.out.println(ANSIColors.redText("No TaskShell daemon is running in " + home));
+                return 1;
+            }
+            return exitCode;
+        }
+        if (args.length != 1) {
+            System.out.println(ANSIColors.redText("Usage: taskshell daemon [stop]"));
+            return 1;
+        }
+
+        try {
+            if (!removeStaleSocket(home)) {
+                System.out.println(ANSIColors.redText("A TaskShell daemon is already running in " + home));
+                return 1;
+            }
+            TaskDaemon daemon = start(home, new TaskMetrics(System.getProperty("taskshell.metrics.dump-file", "")));
+            Runtime.getRuntime().addShutdownHook(new Thread(daemon::closeQuietly, "taskshell-daemon-shutdown"));
+            System.out.println(ANSIColors.greenText("TaskShell daemon listening on " + daemon.socketPath));
+            int httpPort = Integer.getInteger("taskshell.http.port", 0);
+            if (httpPort > 0) {
+                String address = System.getProperty("taskshell.http.address", "127.0.0.1");
+                int port = daemon.startHttpApi(new InetSocketAddress(address, httpPort));
+                System.out.println(ANSIColors.greenText("HTTP API listening on http://" + address + ":" + port + "/tasks"));
+            }
+            daemon.serve();
+            daemon.close();
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            System.out.println(ANSIColors.redText(e.toString()));
+            return 1;
+        }
+    }
+
+    /**
+     * Opens the store of a TaskShell directory and listens on its socket.
+     */
+    static TaskDaemon start(File home, TaskMetrics metrics) throws IOException {
+        return new TaskDaemon(home, metrics);
+    }
+
+    /**
+     * Serves the HTTP API from the tasks of the daemon.
+     *
+     * @return the port it listens on
+     */
+    synchronized int startHttpApi(InetSocketAddress address) throws IOException {
+        httpApi = new TaskHttpApi(taskService, metrics, address);
+        httpApi.start();
+        return httpApi.getPort();
+    }
+
+    static Path socketPath(File home) {
+        return home.toPath().toAbsolutePath().resolve(SOCKET_FILE_NAME);
+    }
+
+    /**
+     * Accepts clients until the daemon is stopped.
+     */
+    void serve() throws IOException {
+        while (true) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            try {
+                executor.execute(() -> handle(client));
+            } catch (RejectedExecutionException e) {
+                // Closed meanwhile
+                client.close();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops accepting clients, lets the running commands finish and closes the store.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        server.close();
+        if (httpApi != null) {
+            httpApi.close();
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            repository.close();
+            metrics.close();
+        } finally {
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    static void writeRequest(DataOutputStream out, String[] args) throws IOException {
+        out.writeInt(args.length);
+        for (String arg : args) {
+            out.writeUTF(arg);
+        }
+        out.flush();
+    }
+
+    // Private Helper Methods
+
+    private void handle(SocketChannel client) {
+        try (client) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+            String[] args = new String[in.readInt()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = in.readUTF();
+            }
+
+            ResponseStream response = new ResponseStream(new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(client))));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(response, StandardCharsets.UTF_8));
+            int exitCode = runCommand(args, out);
+            out.flush();
+            response.end(exitCode);
+        } catch (IOException e) {
+            // The client went away, a change it asked for is made or not as if it was still there
+        }
+    }
+
+    private int runCommand(String[] args, PrintWriter out) throws IOException {
+        if (args.length == 2 && args[0].equals("daemon") && args[1].equals("stop")) {
+            server.close();
+            return 0;
+        }
+        Map<String, String> options = OneShotLauncher.parse(args);
+        if (options == null) {
+            return RUN_LOCALLY;
+        }
+        if (READ_COMMANDS.contains(args[0])) {
+            return OneShotLauncher.execute(args[0], options, taskService, out);
+        }
+
+        writeLock.lock();
+        try {
+            String category = options.get("--category");
+            if (args[0].equals("add") && category != null && !categoryRegistry.contains(category)) {
+                // Creating it is confirmed on the terminal of the client
+                return RUN_LOCALLY;
+            }
+            return OneShotLauncher.execute(args[0], options, taskService, out);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the socket file left by a daemon that didn't stop cleanly.
+     *
+     * @return false if a daemon still listens on it
+     */
+    private static boolean removeStaleSocket(File home) throws IOException {
+        Path socket = socketPath(home);
+        if (!Files.exists(socket)) {
+            return true;
+        }
+        try (SocketChannel ignored = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            return false;
+        } catch (IOException e) {
+            Files.deleteIfExists(socket);
+            return true;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // Exiting anyway, the log keeps what was written
+        }
+    }
+
+    /**
+     * Sends what is written as length-prefixed chunks.
+     */
+    private static final class ResponseStream extends OutputStream {
+
+        private final DataOutputStream out;
+
+        private ResponseStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length > 0) {
+                out.writeInt(length);
+                out.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        private void end(int exitCode) throws IOException {
+            out.writeInt(END_OF_OUTPUT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+}
@@ -1,16 +1,37 @@
 package com.example.TaskShell;
 
-import com.example.TaskShell.commands.TaskCommands;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.shell.command.annotation.EnableCommand;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
 
 @SpringBootApplication
 public class TaskShellApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(TaskShellApplication.class, args);
+		if (args.length > 0 && args[0].equals("daemon")) {
+			System.exit(TaskDaemon.run(args));
+		}
 
+		StartupReport report = new StartupReport();
+		int exitCode = OneShotLauncher.run(args, report);
+		if (exitCode >= 0) {
+			report.print("one-shot");
+			if (exitCode != 0) {
+				System.exit(exitCode);
+			}
+			return;
+		}
+
+		SpringApplication application = new SpringApplication(TaskShellApplication.class);
+		application.addListeners(event -> {
+			if (event instanceof ApplicationStartedEvent) {
+				report.ready();
+			} else if (event instanceof ApplicationReadyEvent) {
+				report.print("shell");
+			}
+		});
+		application.run(args);
 	}
 
 }
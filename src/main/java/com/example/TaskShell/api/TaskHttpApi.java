@@ -0,0 +1,237 @@
+package com.example.TaskShell.api;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.services.TaskService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JSON API over the task service, for dashboards and scripts.
+ * <ul>
+ *     <li>GET /tasks?date=&amp;from=&amp;to=&amp;status=&amp;category= lists the matching tasks</li>
+ *     <li>GET /tasks/{id} returns a task</li>
+ *     <li>POST /tasks with {"description", "date", "status", "category"} adds a task</li>
+ *     <li>POST /tasks/{id}/done marks a task as done</li>
+ *     <li>POST /tasks/move-todo?from=&amp;to= copies the undone tasks of a day to another</li>
+ * </ul>
+ * Every request runs on its own virtual thread where the JDK has them (21 and later), on a pool of
+ * platform threads before that. Requests are parsed and answered concurrently, but the task repository
+ * serves them one at a time: its reads are synchronized, and writes also take the write lock of the
+ * task service, with the shell or the daemon serving the same service.
+ * An unexpected error is logged and answered with a generic message.
+ * <p>
+ * The API has no authentication: it listens on the loopback interface unless told otherwise.
+ */
+public class TaskHttpApi implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskHttpApi.class);
+    private static final String JSON = "application/json; charset=utf-8";
+
+    static {
+        // The headers and the body of a response are separate writes: with Nagle's algorithm the body
+        // waits for the delayed acknowledgement of the headers, 40 ms on Linux
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TaskService taskService;
+    private final TaskMetrics metrics;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param taskService runs the requests
+     * @param metrics     times the requests
+     * @param address     the address to listen on, port 0 for any free port
+     * @throws IOException if the address can't be bound
+     */
+    public TaskHttpApi(TaskService taskService, TaskMetrics metrics, InetSocketAddress address) throws IOException {
+        this.taskService = taskService;
+        this.metrics = metrics;
+        this.server = HttpServer.create(address, 128);
+        this.executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/tasks", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the API listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and waits a little for the running ones.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Private Helper Methods
+
+    /**
+     * One virtual thread per request, or a pool of platform threads before JDK 21.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 4), runnable -> {
+                Thread thread = new Thread(runnable, "taskshell-http-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = metrics.start();
+        String[] path = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+        String method = exchange.getRequestMethod();
+        String route = "unknown";
+        try {
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            if (path.length == 2 && method.equals("GET")) {
+                route = "list";
+                send(exchange, 200, taskService.findTasks(query.get("date"), query.get("from"), query.get("to"),
+                        status(query.get("status")), query.get("category")));
+            } else if (path.length == 2 && method.equals("POST")) {
+                route = "add";
+                JsonNode body = readBody(exchange);
+                if (!body.hasNonNull("description")) {
+                    sendError(exchange, 400, "The description is missing");
+                    return;
+                }
+                Task task = taskService.addTask(body.get("description").asText(),
+                        body.path("date").asText("no date"), text(body, "status"), text(body, "category"));
+                exchange.getResponseHeaders().set("Location", "/tasks/" + task.getId());
+                send(exchange, 201, task);
+            } else if (path.length == 3 && path[2].equals("move-todo") && method.equals("POST")) {
+                route = "move-todo";
+                if (query.get("from") == null || query.get("to") == null) {
+                    sendError(exchange, 400, "from and to are required");
+                    return;
+                }
+                send(exchange, 200, taskService.moveTodoTasks(query.get("from"), query.get("to")));
+            } else if (path.length == 3 && isId(path[2]) && method.equals("GET")) {
+                route = "get";
+                sendTask(exchange, taskService.getTaskByID(path[2]), path[2]);
+            } else if (path.length == 4 && isId(path[2]) && path[3].equals("done") && method.equals("POST")) {
+                route = "done";
+                sendTask(exchange, taskService.setTaskStatus(path[2], TaskStatus.DONE), path[2]);
+            } else {
+                sendError(exchange, 404, "No such endpoint: " + method + " " + exchange.getRequestURI().getPath());
+            }
+        } catch (JsonProcessingException e) {
+            sendError(exchange, 400, "The body isn't valid JSON");
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("{} {} failed", method, exchange.getRequestURI(), e);
+            sendError(exchange, 500, "An error occurred while processing the request");
+        } finally {
+            exchange.close();
+            metrics.stop("http." + route, start);
+        }
+    }
+
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            JsonNode body = mapper.readTree(in);
+            if (body == null || !body.isObject()) {
+                throw new IllegalArgumentException("The body must be a JSON object");
+            }
+            return body;
+        }
+    }
+
+    private void sendTask(HttpExchange exchange, Task task, String id) throws IOException {
+        if (task == null) {
+            sendError(exchange, 404, "Task with ID " + id + " doesn't exist");
+        } else {
+            send(exchange, 200, task);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, Map.of("error", message != null ? message : "Unknown error"));
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String text(JsonNode body, String field) {
+        return body.hasNonNull(field) ? body.get(field).asText() : null;
+    }
+
+    private static TaskStatus status(String status) {
+        return status != null ? TaskStatus.valueOf(status.toUpperCase()) : null;
+    }
+
+    private static boolean isId(String value) {
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals >= 0 ? pair.substring(0, equals) : pair, StandardCharsets.UTF_8);
+            String value = equals >= 0 ? URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8) : "";
+            parameters.put(name, value);
+        }
+        return parameters;
+    }
+}
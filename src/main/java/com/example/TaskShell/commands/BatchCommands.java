@@ -0,0 +1,124 @@
+package com.example.TaskShell.commands;
+
+import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.repositories.TaskRepository;
+import org.jline.reader.Parser;
+import org.springframework.shell.ExitRequest;
+import org.springframework.shell.Input;
+import org.springframework.shell.InputProvider;
+import org.springframework.shell.context.InteractionMode;
+import org.springframework.shell.context.ShellContext;
+import org.springframework.shell.jline.FileInputProvider;
+import org.springframework.shell.standard.AbstractShellComponent;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Runs scripted commands against the store loaded by the session.
+ */
+@ShellComponent
+public class BatchCommands extends AbstractShellComponent {
+
+    private final Parser parser;
+    private final ShellContext shellContext;
+    private final TaskRepository taskRepository;
+
+    public BatchCommands(Parser parser, ShellContext shellContext, TaskRepository taskRepository) {
+        this.parser = parser;
+        this.shellContext = shellContext;
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Runs the commands of a file, one per line, like the ones typed in the shell.
+     * The store is loaded once and the changes are kept in memory, then written with a single append
+     * at the end, or every given number of commands. A failing command is reported and skipped
+     * like in the interactive shell, an exit command ends the batch.
+     *
+     * @param file       The file holding the commands, - for the standard input.
+     * @param flushEvery Writes the pending changes every given number of commands, 0 to write them at the end only.
+     * @return A summary of the batch or an error message if the changes couldn't be written.
+     */
+    @ShellMethod(key = "batch", value = "Runs the commands of a file, or of the standard input with -, writing the changes once")
+    public String runBatch(
+            @ShellOption(value = {"--f", "--file"}, defaultValue = "-") String file,
+            @ShellOption(value = "--flush-every", defaultValue = "0") int flushEvery
+    ) throws Exception {
+        long start = System.nanoTime();
+        // Commands run and records written so far
+        int[] counts = new int[2];
+        InteractionMode mode = shellContext.getInteractionMode();
+        taskRepository.deferWrites();
+        try {
+            try (Reader reader = open(file); FileInputProvider lines = new FileInputProvider(reader, parser)) {
+                InputProvider provider = () -> {
+                    // Called once the previous command is done
+                    if (flushEvery > 0 && counts[0] > 0 && counts[0] % flushEvery == 0) {
+                        counts[1] += flush();
+                    }
+                    Input input = lines.readInput();
+                    if (input != null && input.words().stream().anyMatch(word -> !word.isBlank())) {
+                        counts[0]++;
+                    }
+                    return input;
+                };
+                // The interactive mode reports a failing command and goes on with the next one
+                shellContext.setInteractionMode(InteractionMode.INTERACTIVE);
+                getShell().run(provider);
+            } catch (ExitRequest e) {
+                // An exit command ends the batch only
+            } catch (NoSuchFileException e) {
+                return ANSIColors.redText("File " + file + " doesn't exist");
+            } finally {
+                shellContext.setInteractionMode(mode);
+            }
+            try {
+                counts[1] += taskRepository.flush();
+            } catch (IOException e) {
+                return ANSIColors.redText("An error occurred while writing the changes of the batch, they are written with the next change: "
+                        + e.getMessage());
+            }
+        } finally {
+            endDeferredWrites();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return ANSIColors.greenText(String.format("[√] %d commands run, %d changes written in %d ms",
+                counts[0], counts[1], elapsedMillis));
+    }
+
+    // Private Helper Methods
+
+    private static Reader open(String file) throws IOException {
+        if ("-".equals(file)) {
+            return new InputStreamReader(System.in, StandardCharsets.UTF_8);
+        }
+        return Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+    }
+
+    private void endDeferredWrites() {
+        try {
+            taskRepository.endDeferredWrites();
+        } catch (IOException e) {
+            // Already reported by the last flush, the changes stay pending
+        }
+    }
+
+    private int flush() {
+        try {
+            return taskRepository.flush();
+        } catch (IOException e) {
+            // The changes stay pending, the next flush writes them
+            System.out.println(ANSIColors.redText("An error occurred while writing the changes: " + e.getMessage()));
+            return 0;
+        }
+    }
+}
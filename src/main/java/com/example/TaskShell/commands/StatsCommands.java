@@ -0,0 +1,85 @@
+package com.example.TaskShell.commands;
+
+import com.example.TaskShell.metrics.LatencyHistogram;
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.ANSIColors;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Commands displaying the operational metrics of the shell.
+ */
+@ShellComponent
+public class StatsCommands {
+
+    private final TaskMetrics metrics;
+
+    public StatsCommands(TaskMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Displays the latency of the commands and the counters of the store since the shell started.
+     *
+     * @param json  whether to write the metrics as JSON
+     * @param reset whether to clear the metrics once displayed
+     * @return the metrics
+     */
+    @ShellMethod(key = "stats", value = "Displays the latency of the commands and the counters of the task store")
+    public String stats(
+            @ShellOption(value = "--json", defaultValue = "false") boolean json,
+            @ShellOption(value = "--reset", defaultValue = "false") boolean reset
+    ) {
+        try {
+            return json ? toJson() : toText();
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while writing the metrics: " + e.getMessage());
+        } finally {
+            if (reset) {
+                metrics.reset();
+            }
+        }
+    }
+
+    // Private Helper Methods
+
+    private String toText() {
+        StringBuilder output = new StringBuilder();
+        output.append(String.format("Since %s%n%n", Instant.ofEpochMilli(metrics.getResetMillis())));
+
+        Map<String, LatencyHistogram.Snapshot> timers = metrics.timers();
+        if (!timers.isEmpty()) {
+            output.append(String.format("%-24s %8s %10s %10s %10s %10s %10s%n",
+                    "Timer (ms)", "count", "mean", "p50", "p90", "p99", "max"));
+            timers.forEach((name, timer) -> output.append(String.format("%-24s %8d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    name, timer.count(), timer.meanMillis(), timer.p50Millis(), timer.p90Millis(), timer.p99Millis(),
+                    timer.maxMillis())));
+            output.append(System.lineSeparator());
+        }
+        appendValues(output, "Counter", metrics.counters());
+        appendValues(output, "Gauge", metrics.gauges());
+        return output.toString().stripTrailing();
+    }
+
+    private static void appendValues(StringBuilder output, String title, Map<String, Long> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        output.append(String.format("%-24s %12s%n", title, "value"));
+        values.forEach((name, value) -> output.append(String.format("%-24s %12d%n", name, value)));
+        output.append(System.lineSeparator());
+    }
+
+    private String toJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        metrics.writeJson(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.TaskShell.commands;
+
+import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.repositories.CompactionResult;
+import com.example.TaskShell.repositories.StoreFormat;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.repositories.TaskStore;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Commands managing the task storage engine.
+ */
+@ShellComponent
+public class StoreCommands {
+
+    private final TaskRepository taskRepository;
+
+    public StoreCommands(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Displays the format and the files of the task store.
+     *
+     * @return a description of the store
+     */
+    @ShellMethod(key = "store info", value = "Displays the format and the files of the task store")
+    public String storeInfo() {
+        try {
+            TaskStore store = taskRepository.getStore();
+            StringBuilder output = new StringBuilder();
+            output.append(String.format("Format: %s%n", store.getFormat().name().toLowerCase()));
+            output.append(String.format("Tasks: %d%n", taskRepository.findAll().size()));
+            for (File file : store.getFiles()) {
+                output.append(String.format("%s: %d bytes%n", file.getName(), file.length()));
+            }
+            return output.toString();
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while reading the task store");
+        }
+    }
+
+    /**
+     * Rewrites the task store without its superseded and deleted records.
+     *
+     * @return the number of bytes reclaimed or an error message if the compaction fails.
+     */
+    @ShellMethod(key = "store compact", value = "Drops the superseded and deleted records of the task store")
+    public String compactStore() {
+        try {
+            CompactionResult result = taskRepository.compact();
+            return ANSIColors.greenText(String.format("[√] %d bytes reclaimed (%d -> %d bytes) in %d ms",
+                    result.bytesReclaimed(), result.bytesBefore(), result.bytesAfter(), result.elapsedMillis()));
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while compacting the task store: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Converts the task store to another format.
+     *
+     * @param format The target format.
+     * @return A success message or an error message if the conversion fails.
+     */
+    @ShellMethod(key = "store convert", value = "Converts the task store to another format (json, columnar, partitioned, compressed)")
+    public String convertStore(
+            @ShellOption(value = "--to") String format
+    ) {
+        StoreFormat target;
+        try {
+            target = StoreFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            return ANSIColors.redText("Unknown store format '" + format + "', use one of " +
+                    Arrays.toString(StoreFormat.values()).toLowerCase());
+        }
+
+        if (taskRepository.getStore().getFormat() == target) {
+            return ANSIColors.greenText("The task store already uses the " + format + " format");
+        }
+
+        try {
+            long start = System.nanoTime();
+            int converted = taskRepository.convertTo(target);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return ANSIColors.greenText(String.format("[√] %d tasks converted to %s in %d ms",
+                    converted, target.name().toLowerCase(), elapsedMillis));
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while converting the task store: " + e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,16 @@
 package com.example.TaskShell.commands;
 
 import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.utils.TaskListRenderer;
 import com.example.TaskShell.utils.TaskUtils;
 import org.jline.reader.LineReader;
 import org.jline.reader.LineReaderBuilder;
 import com.example.TaskShell.models.Category;
-import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskFilter;
 import com.example.TaskShell.models.TaskStatus;
 import com.example.TaskShell.services.CategoryService;
 import com.example.TaskShell.services.TaskService;
 import com.example.TaskShell.utils.DateUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
 import org.jline.utils.InfoCmp;
@@ -32,53 +32,17 @@ import java.util.Objects;
 @ShellComponent
 public class TaskCommands {
 
-    private final String homeDir = System.getProperty("user.home", ".");
-    private final File tasksFile = new File(homeDir + "/TaskShell/tasks.json");
-    private final File categoriesFile = new File(homeDir + "/TaskShell/categories.txt");
-
-
-    private final TaskService taskService = new TaskService();
-    private final CategoryService categoryService = new CategoryService();
-
-    private void initializeStorageDirectory() {
-        File theDir = new File("/" + homeDir + "/TaskShell");
-        if (!theDir.exists()) {
-            theDir.mkdirs();
-
-        }
-
-
-    }
-
-
-
+    private final TaskService taskService;
+    private final CategoryService categoryService;
+    private final Terminal terminal;
 
     /**
-     * Initializes the task commands and ensures the tasks file exists.
+     * Initializes the task commands.
      */
-    public TaskCommands() {
-
-
-        try {
-
-            initializeStorageDirectory();
-            tasksFile.createNewFile();
-            categoriesFile.createNewFile();
-
-            System.out.println(ANSIColors.greenText("[√]") + " Files are ready");
-
-        } catch (IOException e) {
-            System.out.println(ANSIColors.redText("An error occurred while accessing the tasks file" + e.getMessage()));
-        } catch (SecurityException e) {
-            System.out.println(ANSIColors.redText("Access denied when trying to write to file"));
-        }
-
-        System.out.println(" _____         _     ____  _          _ _ \n" +
-                "|_   _|_ _ ___| | __/ ___|| |__   ___| | |\n" +
-                "  | |/ _` / __| |/ /\\___ \\| '_ \\ / _ \\ | |\n" +
-                "  | | (_| \\__ \\   <  ___) | | | |  __/ | |\n" +
-                "  |_|\\__,_|___/_|\\_\\|____/|_| |_|\\___|_|_|\n" +
-                "\n");
+    public TaskCommands(TaskService taskService, CategoryService categoryService, Terminal terminal) {
+        this.taskService = taskService;
+        this.categoryService = categoryService;
+        this.terminal = terminal;
     }
 
     /**
@@ -88,7 +52,14 @@ public class TaskCommands {
      * @param table    Whether to display tasks in a table format.
      * @param date     Filter tasks by a specific date.
      * @param all      Whether to list all tasks.
-     * @return A string representation of the tasks.
+     * @param category Filter tasks by category.
+     * @param from     List the tasks due from this date, alone it lists every later task.
+     * @param to       List the tasks due until this date, alone it lists every earlier task.
+     * @param asOf     List the tasks as they were at the end of this day, or minute with day/month/year hours:minutes.
+     * @param offset   The number of matching tasks to skip.
+     * @param limit    The maximum number of tasks to display, 0 for every task.
+     * @param page     Whether to wait for a key after every screen.
+     * @return An error message, or which tasks were displayed when some were left out.
      */
     @ShellMethod(key = "list", value = "List tasks, if no argument is specified it lists today's tasks")
     public String listTasks(
@@ -96,9 +67,20 @@ public class TaskCommands {
             @ShellOption(value = {"--tab", "--table"}, defaultValue = "false") Boolean table,
             @ShellOption(defaultValue = "no date") String date,
             @ShellOption(value = "--t", defaultValue = "false") boolean tomorrow,
-            @ShellOption(value = {"--a", "--all"}, defaultValue = "false") Boolean all
+            @ShellOption(value = {"--a", "--all"}, defaultValue = "false") Boolean all,
+            @ShellOption(value = {"--c", "--category"}, defaultValue = ShellOption.NULL) String category,
+            @ShellOption(value = "--from", defaultValue = ShellOption.NULL) String from,
+            @ShellOption(value = "--to", defaultValue = ShellOption.NULL) String to,
+            @ShellOption(value = "--as-of", defaultValue = ShellOption.NULL) String asOf,
+            @ShellOption(value = "--offset", defaultValue = "0") int offset,
+            @ShellOption(value = "--limit", defaultValue = "0") int limit,
+            @ShellOption(value = {"--p", "--page"}, defaultValue = "false") boolean page
     ) {
-        return taskService.listTasks(all, detailed, table, tomorrow, date, tasksFile);
+        if (offset < 0 || limit < 0) {
+            return ANSIColors.redText("The offset and the limit can't be negative");
+        }
+        return taskService.listTasks(all, detailed, table, tomorrow, date, category, from, to, asOf,
+                TaskListRenderer.forTerminal(terminal, page), offset, limit);
     }
 
     /**
@@ -118,10 +100,36 @@ public class TaskCommands {
             @ShellOption(value = {"--c", "--category"}, help = "Category associated with the task") String category
     )
     {
-        taskService.addNewTask(tasksFile, categoriesFile, description, date, status, tomorrow, category);
+        taskService.addNewTask(description, date, status, tomorrow, category);
         return ANSIColors.greenText("[√] Task created successfully");
     }
 
+    /**
+     * Searches tasks by the words of their description.
+     *
+     * @param query The words to look for, all of them must match.
+     * @param limit The maximum number of tasks to display.
+     * @return The matching tasks, best first.
+     */
+    @ShellMethod(key = "search", value = "Search tasks by the words of their description, 'word*' matches the start of words")
+    public String searchTasks(
+            String query,
+            @ShellOption(value = {"--l", "--limit"}, defaultValue = "20") int limit
+    ) {
+        return taskService.searchTasks(query, limit);
+    }
+
+    /**
+     * Shows every change of a task, including the ones of the task it was moved from.
+     *
+     * @param taskID The ID of the task.
+     * @return The changes, oldest first, or an error message.
+     */
+    @ShellMethod(key = "task-history", value = "Show every change of a task by ID, including the task it was moved from")
+    public String taskHistory(String taskID) {
+        return taskService.taskHistory(taskID);
+    }
+
     /**
      * Updates an existing task by its ID.
      *
@@ -136,74 +144,114 @@ public class TaskCommands {
             String newDescription,
             @ShellOption(value = "d", defaultValue = "no date") String date
     ) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            List<Task> tasks = mapper.readValue(tasksFile, mapper.getTypeFactory().constructCollectionType(List.class, Task.class));
-
-            Task taskToUpdate = tasks.stream()
-                    .filter(task -> Objects.equals(task.getId().toString(), taskID))
-                    .findFirst()
-                    .orElse(null);
-
-            if (taskToUpdate == null) {
-                return "Task with ID " + taskID + " doesn't exist";
-            }
-
-            if (newDescription != null) {
-                taskToUpdate.setDescription(newDescription);
-            }
-            if (!Objects.equals(date, "no date")) {
-                taskToUpdate.setDate(date);
-            }
-
-            mapper.writerWithDefaultPrettyPrinter().writeValue(tasksFile, tasks);
-            return "Task modified successfully";
-        } catch (IOException e) {
-            return "An error occurred while updating the task";
-        }
+        return taskService.updateTask(taskID, newDescription, date);
     }
 
     /**
-     * Marks a task as DONE.
+     * Marks a task, or every task matching the given filters, as DONE.
      *
-     * @param taskID The ID of the task to mark as DONE.
+     * @param taskID   The ID of the task to mark as DONE, null to use the filters.
+     * @param date     Only the tasks due on this date.
+     * @param from     Only the tasks due from this date.
+     * @param to       Only the tasks due until this date.
+     * @param before   Only the tasks due before this date.
+     * @param after    Only the tasks due after this date.
+     * @param category Only the tasks of this category.
+     * @param match    Only the tasks whose description contains this text.
      * @return A success message or an error message if the task is not found.
      */
-    @ShellMethod(key = "mark-done", value = "Mark a task by ID as DONE")
-    public String markAsDone(String taskID) {
-        return taskService.updateTaskStatus(tasksFile, taskID, TaskStatus.DONE);
+    @ShellMethod(key = "mark-done", value = "Mark a task by ID, or the tasks matching the filters, as DONE")
+    public String markAsDone(
+            @ShellOption(defaultValue = ShellOption.NULL) String taskID,
+            @ShellOption(value = "--date", defaultValue = ShellOption.NULL) String date,
+            @ShellOption(value = "--from", defaultValue = ShellOption.NULL) String from,
+            @ShellOption(value = "--to", defaultValue = ShellOption.NULL) String to,
+            @ShellOption(value = "--before", defaultValue = ShellOption.NULL) String before,
+            @ShellOption(value = "--after", defaultValue = ShellOption.NULL) String after,
+            @ShellOption(value = {"--c", "--category"}, defaultValue = ShellOption.NULL) String category,
+            @ShellOption(value = "--match", defaultValue = ShellOption.NULL) String match
+    ) {
+        return setStatus(TaskStatus.DONE, taskID, date, from, to, before, after, category, match);
     }
 
     /**
-     * Marks a task as TODO.
+     * Marks a task, or every task matching the given filters, as TODO.
      *
-     * @param taskID The ID of the task to mark as TODO.
+     * @param taskID The ID of the task to mark as TODO, null to use the filters.
      * @return A success message or an error message if the task is not found.
+     * @see #markAsDone
      */
-    @ShellMethod(key = "mark-todo", value = "Mark a task by ID as TODO")
-    public String markAsTodo(String taskID) {
-        return taskService.updateTaskStatus(tasksFile, taskID, TaskStatus.TODO);
+    @ShellMethod(key = "mark-todo", value = "Mark a task by ID, or the tasks matching the filters, as TODO")
+    public String markAsTodo(
+            @ShellOption(defaultValue = ShellOption.NULL) String taskID,
+            @ShellOption(value = "--date", defaultValue = ShellOption.NULL) String date,
+            @ShellOption(value = "--from", defaultValue = ShellOption.NULL) String from,
+            @ShellOption(value = "--to", defaultValue = ShellOption.NULL) String to,
+            @ShellOption(value = "--before", defaultValue = ShellOption.NULL) String before,
+            @ShellOption(value = "--after", defaultValue = ShellOption.NULL) String after,
+            @ShellOption(value = {"--c", "--category"}, defaultValue = ShellOption.NULL) String category,
+            @ShellOption(value = "--match", defaultValue = ShellOption.NULL) String match
+    ) {
+        return setStatus(TaskStatus.TODO, taskID, date, from, to, before, after, category, match);
     }
 
     /**
-     * Deletes a task by its ID.
+     * Deletes a task by its ID, or every task matching the given filters.
      *
-     * @param taskID The ID of the task to delete.
+     * @param taskID The ID of the task to delete, null to use the filters.
+     * @param status Only the tasks with this status.
      * @return A success message or an error message if the task is not found.
+     * @see #markAsDone
      */
-    @ShellMethod(key = "delete", value = "Delete a task by ID")
-    public String deleteTask(String taskID) {
+    @ShellMethod(key = "delete", value = "Delete a task by ID, or the tasks matching the filters")
+    public String deleteTask(
+            @ShellOption(defaultValue = ShellOption.NULL) String taskID,
+            @ShellOption(value = "--date", defaultValue = ShellOption.NULL) String date,
+            @ShellOption(value = "--from", defaultValue = ShellOption.NULL) String from,
+            @ShellOption(value = "--to", defaultValue = ShellOption.NULL) String to,
+            @ShellOption(value = "--before", defaultValue = ShellOption.NULL) String before,
+            @ShellOption(value = "--after", defaultValue = ShellOption.NULL) String after,
+            @ShellOption(value = {"--s", "--status"}, defaultValue = ShellOption.NULL) TaskStatus status,
+            @ShellOption(value = {"--c", "--category"}, defaultValue = ShellOption.NULL) String category,
+            @ShellOption(value = "--match", defaultValue = ShellOption.NULL) String match
+    ) {
+        if (taskID != null) {
+            return taskService.deleteTask(taskID);
+        }
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            List<Task> tasks = mapper.readValue(tasksFile, mapper.getTypeFactory().constructCollectionType(List.class, Task.class));
-            List<Task> updatedTasks = tasks.stream()
-                    .filter(task -> !Objects.equals(task.getId().toString(), taskID))
-                    .toList();
-
-            mapper.writerWithDefaultPrettyPrinter().writeValue(tasksFile, updatedTasks);
-            return "Task deleted successfully";
+            return taskService.deleteWhere(TaskFilter.of(date, from, to, before, after, status, category, match));
+        } catch (DateTimeParseException e) {
+            return ANSIColors.redText("Please specify a valid date with format day/month/year");
+        }
+    }
+
+    /**
+     * Moves every task of a category, or the ones of it matching the given filters, to another category.
+     *
+     * @param from The category of the tasks to move.
+     * @param to   The category to move them to, created once confirmed if it doesn't exist.
+     * @return The number of moved tasks, or an error message.
+     */
+    @ShellMethod(key = "recategorize", value = "Move the tasks of a category, or the ones matching the filters, to another category")
+    public String recategorize(
+            @ShellOption(value = "--from") String from,
+            @ShellOption(value = "--to") String to,
+            @ShellOption(value = "--date", defaultValue = ShellOption.NULL) String date,
+            @ShellOption(value = "--before", defaultValue = ShellOption.NULL) String before,
+            @ShellOption(value = "--after", defaultValue = ShellOption.NULL) String after,
+            @ShellOption(value = {"--s", "--status"}, defaultValue = ShellOption.NULL) TaskStatus status,
+            @ShellOption(value = "--match", defaultValue = ShellOption.NULL) String match
+    ) {
+        try {
+            TaskFilter filter = TaskFilter.of(date, null, null, before, after, status, from, match);
+            if (!categoryService.verifyCategory(to)) {
+                return ANSIColors.redText("Aborted");
+            }
+            return taskService.setCategoryWhere(filter, to);
+        } catch (DateTimeParseException e) {
+            return ANSIColors.redText("Please specify a valid date with format day/month/year");
         } catch (IOException e) {
-            return "An error occurred while deleting the task";
+            return ANSIColors.redText("An error occurred while updating category!");
         }
     }
 
@@ -224,7 +272,6 @@ public class TaskCommands {
 
         try {
             return ANSIColors.greenText(taskService.moveTodo(
-                    tasksFile,
                     fromDate,
                     toDate)
             );
@@ -246,7 +293,7 @@ public class TaskCommands {
             String name
     ) {
         try {
-            return categoryService.createAndInsertCategory(categoriesFile, name);
+            return categoryService.createAndInsertCategory(name);
         } catch (IOException e) {
             return ANSIColors.redText("An error occurred while creating a new category !");
         }
@@ -261,7 +308,7 @@ public class TaskCommands {
         LineReader lineReader = LineReaderBuilder.builder().terminal(terminal).build();
 
         try {
-            List<String> categoryList =  categoryService.displayCategories(categoriesFile);
+            List<String> categoryList =  categoryService.displayCategories();
             if(categoryList.isEmpty()) {
                 System.out.println(ANSIColors.greenText("No categories are created yet ! \n" +
                         "Create a new category using `category add`"));
@@ -308,13 +355,13 @@ public class TaskCommands {
 
             }
 
-            boolean categoryVerified = categoryService.verifyCategory(categoriesFile, newCategory);
+            boolean categoryVerified = categoryService.verifyCategory(newCategory);
 
             if(!categoryVerified) {
                 return ANSIColors.redText("Aborted");
             }
 
-            return taskService.updateTaskCategory(tasksFile, taskID, newCategory);
+            return taskService.updateTaskCategory(taskID, newCategory);
 
         } catch(IOException e) {
             return ANSIColors.redText("An error occurred while updating category!");
@@ -326,7 +373,7 @@ public class TaskCommands {
             String category
     )  {
         try {
-            boolean categoryDeleted = categoryService.deleteCategory(categoriesFile, category);
+            boolean categoryDeleted = categoryService.deleteCategory(category);
             if(categoryDeleted) {
                 return ANSIColors.greenText("Category deleted successfully!");
             }
@@ -338,7 +385,21 @@ public class TaskCommands {
         }
     }
 
+    // Private Helper Methods
 
-
-
+    private String setStatus(TaskStatus status, String taskID, String date, String from, String to, String before,
+                             String after, String category, String match) {
+        if (taskID != null) {
+            return taskService.updateTaskStatus(taskID, status);
+        }
+        try {
+            TaskFilter filter = TaskFilter.of(date, from, to, before, after, null, category, match);
+            if (filter.isEmpty()) {
+                return ANSIColors.redText("Please specify a task ID or the tasks to mark as " + status);
+            }
+            return taskService.setStatusWhere(filter, status);
+        } catch (DateTimeParseException e) {
+            return ANSIColors.redText("Please specify a valid date with format day/month/year");
+        }
+    }
 }
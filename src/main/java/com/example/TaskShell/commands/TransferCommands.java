@@ -0,0 +1,106 @@
+package com.example.TaskShell.commands;
+
+import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.services.TransferService;
+import com.example.TaskShell.services.TransferService.ImportReport;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Commands moving tasks in and out of TaskShell.
+ */
+@ShellComponent
+public class TransferCommands {
+
+    private final TransferService transferService;
+
+    public TransferCommands(TransferService transferService) {
+        this.transferService = transferService;
+    }
+
+    /**
+     * Exports every task.
+     *
+     * @param format The format, ndjson for one task per line or json for an array of tasks.
+     * @param file   The file to write, - for the standard output.
+     * @return A success message or an error message if the export fails.
+     */
+    @ShellMethod(key = "export", value = "Exports every task as one JSON task per line (ndjson) or as a JSON array (json)")
+    public String exportTasks(
+            @ShellOption(value = "--format", defaultValue = "ndjson") String format,
+            @ShellOption(value = {"--f", "--file"}, defaultValue = "-") String file
+    ) {
+        if (!format.equalsIgnoreCase("ndjson") && !format.equalsIgnoreCase("json")) {
+            return ANSIColors.redText("Unknown export format '" + format + "', use ndjson or json");
+        }
+
+        boolean toStandardOutput = "-".equals(file);
+        try {
+            long start = System.nanoTime();
+            long exported;
+            OutputStream out = new BufferedOutputStream(toStandardOutput ? System.out : Files.newOutputStream(Path.of(file)));
+            try {
+                exported = format.equalsIgnoreCase("ndjson") ? transferService.exportNdjson(out) : transferService.exportJson(out);
+                out.flush();
+            } finally {
+                if (!toStandardOutput) {
+                    out.close();
+                }
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return toStandardOutput ? "" : ANSIColors.greenText(String.format("[√] %d tasks exported to %s in %d ms",
+                    exported, file, elapsedMillis));
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while exporting tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imports the tasks of a file holding one JSON task per line, as written by export.
+     *
+     * @param file             The file to read, - for the standard input.
+     * @param chunkSize        The number of lines parsed in parallel and saved at once.
+     * @param createCategories Whether unknown categories are created instead of skipping their tasks.
+     * @return A summary of the import or an error message if the import fails.
+     */
+    @ShellMethod(key = "import", value = "Imports the tasks of a file holding one JSON task per line")
+    public String importTasks(
+            String file,
+            @ShellOption(value = "--chunk-size", defaultValue = "10000") int chunkSize,
+            @ShellOption(value = "--create-categories", defaultValue = "false") boolean createCategories
+    ) {
+        if (chunkSize <= 0) {
+            return ANSIColors.redText("The chunk size must be positive");
+        }
+
+        ImportReport report;
+        try (BufferedReader reader = "-".equals(file)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+            report = transferService.importNdjson(reader, chunkSize, createCategories);
+        } catch (NoSuchFileException e) {
+            return ANSIColors.redText("File " + file + " doesn't exist");
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while importing tasks: " + e.getMessage());
+        }
+
+        StringBuilder output = new StringBuilder(ANSIColors.greenText(String.format(
+                "[√] %d tasks imported, %d lines skipped in %d ms (%d records/s)",
+                report.imported(), report.skipped(), report.elapsedMillis(), report.recordsPerSecond())));
+        for (String error : report.errors()) {
+            output.append(System.lineSeparator()).append(ANSIColors.redText(error));
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.TaskShell.config;
+
+import com.example.TaskShell.api.TaskHttpApi;
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.services.TaskService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Starts the HTTP API beside the shell when taskshell.http.port is set, see {@link TaskHttpApi}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class HttpApiRunner implements ApplicationRunner {
+
+    private final int port;
+    private final String address;
+    private final ObjectProvider<TaskService> taskService;
+    private final ObjectProvider<TaskMetrics> metrics;
+    private TaskHttpApi api;
+
+    public HttpApiRunner(@Value("${taskshell.http.port:0}") int port,
+                         @Value("${taskshell.http.address:127.0.0.1}") String address,
+                         ObjectProvider<TaskService> taskService, ObjectProvider<TaskMetrics> metrics) {
+        this.port = port;
+        this.address = address;
+        this.taskService = taskService;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (port <= 0) {
+            return;
+        }
+        api = new TaskHttpApi(taskService.getObject(), metrics.getObject(), new InetSocketAddress(address, port));
+        api.start();
+        System.out.println(ANSIColors.greenText("[√]") + " HTTP API listening on http://" + address + ":" + api.getPort() + "/tasks");
+    }
+
+    @PreDestroy
+    public void close() {
+        if (api != null) {
+            api.close();
+        }
+    }
+}
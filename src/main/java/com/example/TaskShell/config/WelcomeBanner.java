@@ -0,0 +1,37 @@
+package com.example.TaskShell.config;
+
+import com.example.TaskShell.models.ANSIColors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Greets the user when the interactive shell starts, one-shot commands print their result only.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WelcomeBanner implements ApplicationRunner {
+
+    private final boolean interactive;
+
+    public WelcomeBanner(@Value("${spring.shell.interactive.enabled:true}") boolean interactive) {
+        this.interactive = interactive;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!interactive || args.getSourceArgs().length > 0) {
+            return;
+        }
+        System.out.println(ANSIColors.greenText("[√]") + " Files are ready");
+        System.out.println(" _____         _     ____  _          _ _ \n" +
+                "|_   _|_ _ ___| | __/ ___|| |__   ___| | |\n" +
+                "  | |/ _` / __| |/ /\\___ \\| '_ \\ / _ \\ | |\n" +
+                "  | | (_| \\__ \\   <  ___) | | | |  __/ | |\n" +
+                "  |_|\\__,_|___/_|\\_\\|____/|_| |_|\\___|_|_|\n" +
+                "\n");
+    }
+}
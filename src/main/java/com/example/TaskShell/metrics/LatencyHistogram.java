@@ -0,0 +1,104 @@
+package com.example.TaskShell.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations, recorded without locks.
+ * <p>
+ * Durations are counted in buckets of logarithmic width: every power of two of nanoseconds is split
+ * in {@value #SUB_BUCKETS} buckets, so a percentile is known within 12.5% whatever the duration.
+ * Recording one value is a few atomic increments.
+ */
+public class LatencyHistogram {
+
+    /**
+     * A consistent view of a histogram, in milliseconds.
+     */
+    public record Snapshot(long count, double meanMillis, double p50Millis, double p90Millis, double p99Millis,
+                           double maxMillis) {
+    }
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param nanos a duration in nanoseconds, negative ones count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.incrementAndGet(bucketOf(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0);
+        }
+        long maxNanos = max.get();
+        return new Snapshot(total, millis(sum.sum() / (double) total),
+                millis(Math.min(percentile(counts, total, 0.50), maxNanos)),
+                millis(Math.min(percentile(counts, total, 0.90), maxNanos)),
+                millis(Math.min(percentile(counts, total, 0.99), maxNanos)),
+                millis(maxNanos));
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    // Private Helper Methods
+
+    /**
+     * @return the upper bound of the bucket holding the given share of the values
+     */
+    private static long percentile(long[] counts, long total, double share) {
+        long rank = (long) Math.ceil(total * share);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | mantissa;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.TaskShell.metrics;
+
+import com.example.TaskShell.utils.FileUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Operational metrics of a TaskShell process: latency histograms of the commands and of their steps,
+ * counters of the tasks and bytes they went through, and gauges of the store.
+ * <p>
+ * Timers and counters are created on first use and updated without locks, so that measuring costs
+ * two calls to {@link System#nanoTime()} and a few atomic increments. When taskshell.metrics.dump-file
+ * is set, the metrics are written there as JSON when the process exits.
+ */
+@Component
+public class TaskMetrics {
+
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final File dumpFile;
+    private volatile long resetMillis = System.currentTimeMillis();
+
+    public TaskMetrics() {
+        this((File) null);
+    }
+
+    @Autowired
+    public TaskMetrics(@Value("${taskshell.metrics.dump-file:}") String dumpFile) {
+        this(dumpFile == null || dumpFile.isBlank() ? null : new File(dumpFile));
+    }
+
+    /**
+     * @param dumpFile the file to write the metrics to when closed, null for none
+     */
+    public TaskMetrics(File dumpFile) {
+        this.dumpFile = dumpFile;
+    }
+
+    /**
+     * @return the start of a duration to {@link #stop}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the duration elapsed since a {@link #start()}.
+     *
+     * @param timer      the name of the timer
+     * @param startNanos the value returned by start
+     */
+    public void stop(String timer, long startNanos) {
+        timers.computeIfAbsent(timer, name -> new LatencyHistogram()).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @param counter the name of the counter
+     * @param delta   the amount to add
+     */
+    public void add(String counter, long delta) {
+        counters.computeIfAbsent(counter, name -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Registers a value read when the metrics are displayed.
+     *
+     * @param gauge the name of the gauge
+     * @param value reads the current value
+     */
+    public void gauge(String gauge, LongSupplier value) {
+        gauges.put(gauge, value);
+    }
+
+    /**
+     * @return the timers, by name
+     */
+    public Map<String, LatencyHistogram.Snapshot> timers() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        timers.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * @return the counters, by name
+     */
+    public Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    /**
+     * @return the current value of the gauges, by name
+     */
+    public Map<String, Long> gauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    /**
+     * @return when the metrics started to be collected, in epoch milliseconds
+     */
+    public long getResetMillis() {
+        return resetMillis;
+    }
+
+    /**
+     * Clears the timers and the counters.
+     */
+    public void reset() {
+        timers.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(LongAdder::reset);
+        resetMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes every metric as a JSON object.
+     *
+     * @param out the stream to write to, left open
+     * @throws IOException if the metrics can't be written
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("since", resetMillis);
+        metrics.put("timers", timers());
+        metrics.put("counters", counters());
+        metrics.put("gauges", gauges());
+        new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writerWithDefaultPrettyPrinter().writeValue(out, metrics);
+    }
+
+    /**
+     * Writes the metrics to the dump file, if any.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (dumpFile != null) {
+            if (dumpFile.getAbsoluteFile().getParentFile() != null) {
+                dumpFile.getAbsoluteFile().getParentFile().mkdirs();
+            }
+            FileUtils.writeAtomically(dumpFile, this::writeJson);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.TaskShell.models;
 
+import com.example.TaskShell.utils.DateUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.Formatter;
 import java.util.UUID;
@@ -12,6 +14,8 @@ public class Task implements Cloneable {
     private String description;
     private TaskStatus status;
     private String date;
+    // The date parsed once, so that comparing and sorting dates doesn't parse them again
+    private int epochDay = DateUtils.NO_EPOCH_DAY;
     private String category;
 
     public Task() {
@@ -22,8 +26,7 @@ public class Task implements Cloneable {
         this.id = UUID.randomUUID();
         this.description = description;
         this.status = TaskStatus.TODO;
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        this.date = LocalDate.now().format(formatter);
+        setEpochDay((int) LocalDate.now().toEpochDay());
         this.category = "Other";
     }
 
@@ -31,7 +34,7 @@ public class Task implements Cloneable {
     public Task(String description, String date) {
         this.id = UUID.randomUUID();
         this.description = description;
-        this.date = date;
+        setDate(date);
         this.status = TaskStatus.TODO;
         this.category = "Other";
 
@@ -63,6 +66,21 @@ public class Task implements Cloneable {
 
     public void setDate(String date) {
         this.date = date;
+        this.epochDay = DateUtils.toEpochDay(date);
+    }
+
+    /**
+     * @return the date as a number of days since 01/01/1970, {@link DateUtils#NO_EPOCH_DAY} if it is missing or invalid
+     */
+    @JsonIgnore
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    @JsonIgnore
+    public void setEpochDay(int epochDay) {
+        this.epochDay = epochDay;
+        this.date = DateUtils.formatEpochDay(epochDay);
     }
 
     public TaskStatus getStatus() {
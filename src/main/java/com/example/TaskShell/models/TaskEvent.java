@@ -0,0 +1,109 @@
+package com.example.TaskShell.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * A change of the task history: a {@link TaskRecord} with the time it was written and a link to the
+ * previous change of the same task.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskEvent {
+
+    private long time;
+    private TaskRecord.Operation op;
+    private UUID id;
+    private Task task;
+    private UUID origin;
+    private long prev = -1;
+    // Where the event is in the history, not stored
+    private long offset = -1;
+
+    public TaskEvent() {
+    }
+
+    public TaskEvent(long time, TaskRecord record, long prev) {
+        this.time = time;
+        this.op = record.getOp();
+        this.id = record.taskId();
+        this.task = record.getTask();
+        this.origin = record.getOrigin();
+        this.prev = prev;
+    }
+
+    /**
+     * @return when the change was written, in milliseconds since 01/01/1970 UTC
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public TaskRecord.Operation getOp() {
+        return op;
+    }
+
+    public void setOp(TaskRecord.Operation op) {
+        this.op = op;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the new state of the task, null for a deletion
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    public void setTask(Task task) {
+        this.task = task;
+    }
+
+    /**
+     * @return the ID of the task this new task was copied from, e.g. by move-todo, null otherwise
+     */
+    public UUID getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(UUID origin) {
+        this.origin = origin;
+    }
+
+    /**
+     * @return the offset of the previous event of the task, or of the last event of its origin for a copy, -1 for none
+     */
+    public long getPrev() {
+        return prev;
+    }
+
+    public void setPrev(long prev) {
+        this.prev = prev;
+    }
+
+    @JsonIgnore
+    public long getOffset() {
+        return offset;
+    }
+
+    @JsonIgnore
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public TaskRecord toRecord() {
+        return op == TaskRecord.Operation.DELETE ? TaskRecord.delete(id) : TaskRecord.put(task);
+    }
+}
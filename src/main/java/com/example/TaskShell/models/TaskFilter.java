@@ -0,0 +1,80 @@
+package com.example.TaskShell.models;
+
+import com.example.TaskShell.utils.DateUtils;
+
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * The criteria selecting the tasks of a bulk command, all of them must match.
+ *
+ * @param fromEpochDay the first due day, {@link Integer#MIN_VALUE} for no lower bound
+ * @param toEpochDay   the last due day, {@link Integer#MAX_VALUE} for no upper bound
+ * @param status       the status, null for any status
+ * @param category     the category, null for any category
+ * @param match        a text the description contains, ignoring case, null for any description
+ */
+public record TaskFilter(int fromEpochDay, int toEpochDay, TaskStatus status, String category, String match) {
+
+    /**
+     * Builds a filter from the options of a command, the dates bounding the same range.
+     *
+     * @param date     the due date
+     * @param from     the first due date, included
+     * @param to       the last due date, included
+     * @param before   the due dates must be earlier
+     * @param after    the due dates must be later
+     * @param status   the status
+     * @param category the category
+     * @param match    a text the description contains
+     * @return the filter, null options matching every task
+     * @throws DateTimeParseException if a date isn't a day/month/year date
+     */
+    public static TaskFilter of(String date, String from, String to, String before, String after,
+                                TaskStatus status, String category, String match) {
+        int first = Integer.MIN_VALUE;
+        int last = Integer.MAX_VALUE;
+        if (date != null) {
+            first = DateUtils.parseEpochDay(date);
+            last = first;
+        }
+        if (from != null) {
+            first = Math.max(first, DateUtils.parseEpochDay(from));
+        }
+        if (after != null) {
+            first = Math.max(first, DateUtils.parseEpochDay(after) + 1);
+        }
+        if (to != null) {
+            last = Math.min(last, DateUtils.parseEpochDay(to));
+        }
+        if (before != null) {
+            last = Math.min(last, DateUtils.parseEpochDay(before) - 1);
+        }
+        return new TaskFilter(first, last, status, category, match != null && !match.isEmpty() ? match : null);
+    }
+
+    /**
+     * @return whether the due dates are bounded, tasks without a valid date then never match
+     */
+    public boolean hasDateRange() {
+        return fromEpochDay != Integer.MIN_VALUE || toEpochDay != Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return whether the filter matches every task
+     */
+    public boolean isEmpty() {
+        return !hasDateRange() && status == null && category == null && match == null;
+    }
+
+    public boolean matches(Task task) {
+        if (hasDateRange() && (task.getEpochDay() == DateUtils.NO_EPOCH_DAY
+                || task.getEpochDay() < fromEpochDay || task.getEpochDay() > toEpochDay)) {
+            return false;
+        }
+        return (status == null || status == task.getStatus())
+                && (category == null || category.equals(task.getCategory()))
+                && (match == null || task.getDescription() != null
+                        && task.getDescription().toLowerCase(Locale.ROOT).contains(match.toLowerCase(Locale.ROOT)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.TaskShell.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * A single entry of the append-only task log.
+ * A PUT record carries the full new state of a task, a DELETE record only its ID.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskRecord {
+
+    public enum Operation {
+        PUT, DELETE
+    }
+
+    private Operation op;
+    private UUID id;
+    private Task task;
+    // The task a new task was copied from, kept in its history only
+    @JsonIgnore
+    private UUID origin;
+
+    public TaskRecord() {
+    }
+
+    public TaskRecord(Operation op, UUID id, Task task) {
+        this.op = op;
+        this.id = id;
+        this.task = task;
+    }
+
+    public static TaskRecord put(Task task) {
+        return new TaskRecord(Operation.PUT, null, task);
+    }
+
+    /**
+     * @param task   a new task
+     * @param origin the ID of the task it was copied from
+     */
+    public static TaskRecord copy(Task task, UUID origin) {
+        TaskRecord record = put(task);
+        record.origin = origin;
+        return record;
+    }
+
+    public static TaskRecord delete(UUID id) {
+        return new TaskRecord(Operation.DELETE, id, null);
+    }
+
+    public Operation getOp() {
+        return op;
+    }
+
+    public void setOp(Operation op) {
+        this.op = op;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public void setTask(Task task) {
+        this.task = task;
+    }
+
+    @JsonIgnore
+    public UUID getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return the ID of the task this record applies to, whatever the operation
+     */
+    public UUID taskId() {
+        return task != null ? task.getId() : id;
+    }
+}
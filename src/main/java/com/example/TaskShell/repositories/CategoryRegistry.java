@@ -0,0 +1,267 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.utils.FileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shared in-memory set of categories, persisted in categories.txt.
+ * <p>
+ * The file is read once and kept in an insertion-ordered hash set, so membership checks don't
+ * touch the disk. Changes are appended: a new category as a line holding its name, a deleted one
+ * as a line holding its name after a '-'. Names starting with '-' or '\' are escaped with a '\'.
+ * Once deletions make up most of the file, it is rewritten with the live categories only.
+ * The file is read again only when it was changed by someone else.
+ * <p>
+ * Those files start with a {@link #FORMAT_HEADER} line. A file without it was written by a previous
+ * version, one name per line, and its lines are read as they are. New categories are appended to it
+ * the same way, the first deletion rewrites it in the new format. Previous versions read the header,
+ * the deletion and the escaped lines as categories of their own.
+ * <p>
+ * Changes hold the {@link StoreLock} of the directory, from reading the file again to writing it, so that
+ * sessions sharing the directory don't drop each other's changes.
+ */
+@Repository
+public class CategoryRegistry {
+
+    public static final String FILE_NAME = "categories.txt";
+    /**
+     * First line of the files holding deletions and escaped names.
+     */
+    public static final String FORMAT_HEADER = "#TaskShell categories v2";
+
+    private static final char TOMBSTONE = '-';
+    private static final char ESCAPE = '\\';
+    private static final int MIN_LINES_TO_COMPACT = 128;
+
+    private final File file;
+    private final StoreLock lock;
+
+    private Set<String> categories;
+    private long lines;
+    // Whether the file was written by a previous version, without the header
+    private boolean legacy;
+    private long loadedLastModified;
+    private long loadedLength;
+
+    @Autowired
+    public CategoryRegistry(@Value("${taskshell.home:${user.home}/TaskShell}") File directory) {
+        this.file = new File(directory, FILE_NAME);
+        this.lock = new StoreLock(directory);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @param name the name of the category
+     * @return true if the category exists
+     * @throws IOException if the file can't be read
+     */
+    public synchronized boolean contains(String name) throws IOException {
+        return categories().contains(name);
+    }
+
+    /**
+     * @return every category, in creation order
+     * @throws IOException if the file can't be read
+     */
+    public synchronized List<String> findAll() throws IOException {
+        return List.copyOf(categories());
+    }
+
+    /**
+     * Creates a category.
+     *
+     * @param name the name of the category
+     * @return false if the category already exists
+     * @throws IOException if the file can't be written
+     */
+    public synchronized boolean add(String name) throws IOException {
+        return lock.locked(() -> {
+            if (!categories().add(name)) {
+                return false;
+            }
+            appendLine(legacy ? name : escape(name));
+            return true;
+        });
+    }
+
+    /**
+     * @param names category names
+     * @return the given names that aren't categories, in the given order
+     * @throws IOException if the file can't be read
+     */
+    public synchronized Set<String> findMissing(Collection<String> names) throws IOException {
+        Set<String> current = categories();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : names) {
+            if (!current.contains(name)) {
+                missing.add(name);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Creates several categories with a single write.
+     *
+     * @param names the names of the categories, existing ones are ignored
+     * @return the number of created categories
+     * @throws IOException if the file can't be written
+     */
+    public synchronized int addAll(Collection<String> names) throws IOException {
+        return lock.locked(() -> {
+            Set<String> current = categories();
+            StringBuilder content = new StringBuilder();
+            int added = 0;
+            for (String name : names) {
+                if (current.add(name)) {
+                    if (added++ > 0) {
+                        content.append('\n');
+                    }
+                    content.append(legacy ? name : escape(name));
+                }
+            }
+            if (added > 0) {
+                appendLine(content.toString());
+                lines += added - 1;
+            }
+            return added;
+        });
+    }
+
+    /**
+     * Deletes a category.
+     *
+     * @param name the name of the category
+     * @return false if the category doesn't exist
+     * @throws IOException if the file can't be written
+     */
+    public synchronized boolean remove(String name) throws IOException {
+        return lock.locked(() -> {
+            if (!categories().remove(name)) {
+                return false;
+            }
+            if (legacy || lines + 1 >= MIN_LINES_TO_COMPACT && lines + 1 > 2L * categories.size()) {
+                rewrite();
+            } else {
+                appendLine(TOMBSTONE + escape(name));
+            }
+            return true;
+        });
+    }
+
+    // Private Helper Methods
+
+    /**
+     * Returns the cached categories, reading the file again if it changed since it was last read.
+     */
+    private Set<String> categories() throws IOException {
+        if (categories == null || file.lastModified() != loadedLastModified || file.length() != loadedLength) {
+            load();
+        }
+        return categories;
+    }
+
+    private void load() throws IOException {
+        categories = new LinkedHashSet<>();
+        lines = 0;
+        legacy = false;
+        if (file.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line = reader.readLine();
+                legacy = line != null && !line.equals(FORMAT_HEADER);
+                if (!legacy) {
+                    line = reader.readLine();
+                }
+                while (line != null) {
+                    if (!line.isEmpty()) {
+                        if (legacy) {
+                            categories.add(line);
+                        } else if (line.charAt(0) == TOMBSTONE) {
+                            categories.remove(unescape(line.substring(1)));
+                        } else {
+                            categories.add(unescape(line));
+                        }
+                        lines++;
+                    }
+                    line = reader.readLine();
+                }
+            }
+        }
+        markLoaded();
+    }
+
+    /**
+     * Appends lines to the file, to be called holding the lock.
+     */
+    private void appendLine(String line) throws IOException {
+        file.getParentFile().mkdirs();
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            long length = out.length();
+            StringBuilder content = new StringBuilder();
+            if (length == 0) {
+                content.append(FORMAT_HEADER).append('\n');
+            } else {
+                // Files written by previous versions don't end with a new line
+                out.seek(length - 1);
+                if (out.read() != '\n') {
+                    content.append('\n');
+                }
+            }
+            content.append(line).append('\n');
+            out.seek(length);
+            out.write(content.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        lines++;
+        markLoaded();
+    }
+
+    /**
+     * Replaces the file with the live categories only, to be called holding the lock.
+     */
+    private void rewrite() throws IOException {
+        FileUtils.writeAtomically(file, out -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(FORMAT_HEADER);
+            writer.write('\n');
+            for (String category : categories) {
+                writer.write(escape(category));
+                writer.write('\n');
+            }
+            writer.flush();
+        });
+        lines = categories.size();
+        legacy = false;
+        markLoaded();
+    }
+
+    private void markLoaded() {
+        loadedLastModified = file.lastModified();
+        loadedLength = file.length();
+    }
+
+    private static String escape(String name) {
+        return !name.isEmpty() && (name.charAt(0) == TOMBSTONE || name.charAt(0) == ESCAPE) ? ESCAPE + name : name;
+    }
+
+    private static String unescape(String line) {
+        return !line.isEmpty() && line.charAt(0) == ESCAPE ? line.substring(1) : line;
+    }
+}
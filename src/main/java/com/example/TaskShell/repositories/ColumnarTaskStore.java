@@ -0,0 +1,522 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.utils.DateUtils;
+import com.example.TaskShell.utils.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Binary, memory-mapped, column oriented task store.
+ * <p>
+ * tasks.col holds a header followed by one fixed-width array per column, each sized to the
+ * capacity of the file: the UUID as two longs, the date as an epoch-day int, the status as a byte,
+ * the category as an id in the tasks.dict dictionary and the position of the description in the
+ * tasks.heap string heap. Filters compare the mapped columns directly and only build a {@link Task}
+ * for matching rows, updates patch the row of the task in place. Deleted rows are flagged, never moved.
+ * <p>
+ * The file doubles its capacity when full, by copying the columns to a new file renamed over the old one.
+ */
+public class ColumnarTaskStore implements TaskStore {
+
+    public static final String FILE_NAME = "tasks.col";
+    public static final String HEAP_FILE_NAME = "tasks.heap";
+    public static final String DICTIONARY_FILE_NAME = "tasks.dict";
+
+    private static final int MAGIC = 0x54534B43; // "TSKC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_POSITION = 0;
+    private static final int FORMAT_VERSION_POSITION = 4;
+    private static final int CAPACITY_POSITION = 8;
+    private static final int COUNT_POSITION = 12;
+    private static final int MUTATIONS_POSITION = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int NO_DATE = DateUtils.NO_EPOCH_DAY;
+    private static final int NO_CATEGORY = -1;
+    private static final int NO_DESCRIPTION = -1;
+    private static final byte NO_STATUS = -1;
+    private static final byte LIVE = 0;
+    private static final byte DELETED = 1;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    /**
+     * Columns in file order, the widest first so that every value stays aligned.
+     */
+    private enum Column {
+        ID_MSB(8), ID_LSB(8), DESCRIPTION_OFFSET(8), DATE(4), CATEGORY(4), DESCRIPTION_LENGTH(4), STATUS(1), FLAGS(1);
+
+        private final int width;
+
+        Column(int width) {
+            this.width = width;
+        }
+    }
+
+    private static final int ROW_WIDTH = Arrays.stream(Column.values()).mapToInt(column -> column.width).sum();
+
+    private final Path path;
+    private final Path heapPath;
+    private final Path dictionaryPath;
+    private final FsyncPolicy fsyncPolicy;
+    private final PeriodicSync periodicSync;
+
+    private FileChannel channel;
+    private FileChannel heapChannel;
+    private MappedByteBuffer columns;
+    private Object fileKey;
+    private int capacity;
+    private final int[] columnStarts = new int[Column.values().length];
+
+    // Open addressing table of row + 1 by ID hash, 0 marks a free slot
+    private int[] rowIndex = new int[INITIAL_CAPACITY * 2];
+    private int indexedRows;
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+
+    public ColumnarTaskStore(File directory) throws IOException {
+        this(directory, StoreSettings.DEFAULT);
+    }
+
+    public ColumnarTaskStore(File directory, StoreSettings settings) throws IOException {
+        this.path = new File(directory, FILE_NAME).toPath();
+        this.heapPath = new File(directory, HEAP_FILE_NAME).toPath();
+        this.dictionaryPath = new File(directory, DICTIONARY_FILE_NAME).toPath();
+        Files.createDirectories(path.getParent());
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            createFile(path, INITIAL_CAPACITY);
+        }
+        this.heapChannel = FileChannel.open(heapPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map();
+        this.fsyncPolicy = settings.fsyncPolicy();
+        this.periodicSync = fsyncPolicy == FsyncPolicy.INTERVAL
+                ? new PeriodicSync(FILE_NAME, settings.fsyncIntervalMillis(), this::sync)
+                : null;
+    }
+
+    @Override
+    public StoreFormat getFormat() {
+        return StoreFormat.COLUMNAR;
+    }
+
+    @Override
+    public File getFile() {
+        return path.toFile();
+    }
+
+    @Override
+    public List<File> getFiles() {
+        return List.of(path.toFile(), heapPath.toFile(), dictionaryPath.toFile());
+    }
+
+    @Override
+    public synchronized boolean isEmpty() throws IOException {
+        remapIfReplaced();
+        return count() == 0;
+    }
+
+    @Override
+    public synchronized StoreStamp stamp() throws IOException {
+        remapIfReplaced();
+        File file = path.toFile();
+        return new StoreStamp(file.lastModified(), file.length(), columns.getLong(MUTATIONS_POSITION));
+    }
+
+    @Override
+    public synchronized List<Task> loadAll() throws IOException {
+        remapIfReplaced();
+        int count = count();
+        List<Task> tasks = new ArrayList<>(count);
+        for (int row = 0; row < count; row++) {
+            if (columns.get(position(Column.FLAGS, row)) == LIVE) {
+                tasks.add(readTask(row));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Compares the mapped date, status and category columns in place, only matching rows are read
+     * from the heap and turned into tasks.
+     */
+    @Override
+    public synchronized List<Task> scan(String date, TaskStatus status, String category) throws IOException {
+        remapIfReplaced();
+        int epochDay = NO_DATE;
+        if (date != null) {
+            epochDay = DateUtils.toEpochDay(date);
+            if (epochDay == NO_DATE) {
+                return new ArrayList<>();
+            }
+        }
+        int categoryId = NO_CATEGORY;
+        if (category != null) {
+            categoryId = categoryId(category, false);
+            if (categoryId == NO_CATEGORY) {
+                return new ArrayList<>();
+            }
+        }
+        byte statusValue = status != null ? (byte) status.ordinal() : NO_STATUS;
+
+        List<Task> tasks = new ArrayList<>();
+        int count = count();
+        for (int row = 0; row < count; row++) {
+            if (columns.get(position(Column.FLAGS, row)) != LIVE
+                    || (date != null && columns.getInt(position(Column.DATE, row)) != epochDay)
+                    || (status != null && columns.get(position(Column.STATUS, row)) != statusValue)
+                    || (category != null && columns.getInt(position(Column.CATEGORY, row)) != categoryId)) {
+                continue;
+            }
+            tasks.add(readTask(row));
+        }
+        return tasks;
+    }
+
+    @Override
+    public synchronized void append(List<TaskRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        remapIfReplaced();
+        for (TaskRecord record : records) {
+            switch (record.getOp()) {
+                case PUT -> put(record.getTask());
+                case DELETE -> {
+                    int row = rowOf(record.getId());
+                    if (row >= 0) {
+                        columns.put(position(Column.FLAGS, row), DELETED);
+                    }
+                }
+            }
+        }
+        columns.putLong(MUTATIONS_POSITION, columns.getLong(MUTATIONS_POSITION) + 1);
+
+        switch (fsyncPolicy) {
+            case ALWAYS -> sync();
+            case INTERVAL -> periodicSync.markDirty();
+            case NEVER -> {
+            }
+        }
+    }
+
+    /**
+     * Forces the heap, then the mapped columns pointing into it, to the disk.
+     */
+    public synchronized void sync() throws IOException {
+        heapChannel.force(false);
+        columns.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Outside of the lock, the last periodic sync may still be running
+        if (periodicSync != null) {
+            periodicSync.close();
+        }
+        synchronized (this) {
+            channel.close();
+            heapChannel.close();
+        }
+    }
+
+    // Private Helper Methods
+
+    private int count() {
+        return columns.getInt(COUNT_POSITION);
+    }
+
+    private int position(Column column, int row) {
+        return columnStarts[column.ordinal()] + row * column.width;
+    }
+
+    /**
+     * Writes the new state of a task over its row, or in a new row for a new task.
+     */
+    private void put(Task task) throws IOException {
+        int epochDay = toEpochDay(task);
+        int row = rowOf(task.getId());
+        boolean newRow = row < 0;
+        if (newRow) {
+            if (count() == capacity) {
+                grow();
+            }
+            row = count();
+            columns.putLong(position(Column.ID_MSB, row), task.getId().getMostSignificantBits());
+            columns.putLong(position(Column.ID_LSB, row), task.getId().getLeastSignificantBits());
+        }
+
+        columns.putInt(position(Column.DATE, row), epochDay);
+        columns.put(position(Column.STATUS, row), task.getStatus() != null ? (byte) task.getStatus().ordinal() : NO_STATUS);
+        columns.putInt(position(Column.CATEGORY, row), task.getCategory() != null ? categoryId(task.getCategory(), true) : NO_CATEGORY);
+        writeDescription(row, task.getDescription(), newRow);
+        columns.put(position(Column.FLAGS, row), LIVE);
+
+        if (newRow) {
+            // Publish the row only once it is complete
+            columns.putInt(COUNT_POSITION, row + 1);
+        }
+    }
+
+    private int toEpochDay(Task task) throws IOException {
+        if (task.getDate() != null && task.getEpochDay() == NO_DATE) {
+            throw new IOException(String.format("Task %s has an invalid date '%s', expected day/month/year",
+                    task.getId(), task.getDate()));
+        }
+        return task.getEpochDay();
+    }
+
+    /**
+     * Finds the row of a task through the row index, first indexing the rows appended since the last lookup,
+     * including the ones appended by another session.
+     */
+    private int rowOf(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int count = count();
+        while (indexedRows < count) {
+            indexRow(indexedRows++);
+        }
+        int mask = rowIndex.length - 1;
+        for (int slot = hash(msb, lsb) & mask; rowIndex[slot] != 0; slot = (slot + 1) & mask) {
+            int row = rowIndex[slot] - 1;
+            if (columns.getLong(position(Column.ID_MSB, row)) == msb && columns.getLong(position(Column.ID_LSB, row)) == lsb) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private void indexRow(int row) {
+        if ((row + 1) * 2 > rowIndex.length) {
+            int[] previous = rowIndex;
+            rowIndex = new int[previous.length * 2];
+            for (int entry : previous) {
+                if (entry != 0) {
+                    insertRow(entry - 1);
+                }
+            }
+        }
+        insertRow(row);
+    }
+
+    private void insertRow(int row) {
+        int mask = rowIndex.length - 1;
+        int slot = hash(columns.getLong(position(Column.ID_MSB, row)), columns.getLong(position(Column.ID_LSB, row))) & mask;
+        while (rowIndex[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        rowIndex[slot] = row + 1;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long bits = msb ^ lsb;
+        int hash = (int) (bits ^ (bits >>> 32));
+        return hash ^ (hash >>> 16);
+    }
+
+    private Task readTask(int row) throws IOException {
+        Task task = new Task();
+        task.setId(new UUID(columns.getLong(position(Column.ID_MSB, row)), columns.getLong(position(Column.ID_LSB, row))));
+        task.setDescription(readDescription(row));
+        byte status = columns.get(position(Column.STATUS, row));
+        task.setStatus(status != NO_STATUS ? STATUSES[status] : null);
+        int epochDay = columns.getInt(position(Column.DATE, row));
+        task.setEpochDay(epochDay);
+        int categoryId = columns.getInt(position(Column.CATEGORY, row));
+        task.setCategory(categoryId != NO_CATEGORY ? categoryName(categoryId) : null);
+        return task;
+    }
+
+    // Description heap
+
+    private String readDescription(int row) throws IOException {
+        int length = columns.getInt(position(Column.DESCRIPTION_LENGTH, row));
+        if (length == NO_DESCRIPTION) {
+            return null;
+        }
+        return new String(readHeap(columns.getLong(position(Column.DESCRIPTION_OFFSET, row)), length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends the description to the heap unless the row already points to the same bytes.
+     */
+    private void writeDescription(int row, String description, boolean newRow) throws IOException {
+        if (description == null) {
+            columns.putInt(position(Column.DESCRIPTION_LENGTH, row), NO_DESCRIPTION);
+            return;
+        }
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        if (!newRow && columns.getInt(position(Column.DESCRIPTION_LENGTH, row)) == bytes.length
+                && Arrays.equals(readHeap(columns.getLong(position(Column.DESCRIPTION_OFFSET, row)), bytes.length), bytes)) {
+            return;
+        }
+        long offset = heapChannel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            heapChannel.write(buffer, offset + buffer.position());
+        }
+        columns.putLong(position(Column.DESCRIPTION_OFFSET, row), offset);
+        columns.putInt(position(Column.DESCRIPTION_LENGTH, row), bytes.length);
+    }
+
+    private byte[] readHeap(long offset, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (heapChannel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("The description heap " + heapPath + " is truncated");
+            }
+        }
+        return bytes;
+    }
+
+    // Category dictionary
+
+    private int categoryId(String category, boolean create) throws IOException {
+        Integer id = categoryIds.get(category);
+        if (id == null) {
+            // Another session may have added it
+            loadDictionary();
+            id = categoryIds.get(category);
+        }
+        if (id != null) {
+            return id;
+        }
+        if (!create) {
+            return NO_CATEGORY;
+        }
+        Files.writeString(dictionaryPath, category + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        categoryIds.put(category, categoryNames.size());
+        categoryNames.add(category);
+        return categoryNames.size() - 1;
+    }
+
+    private String categoryName(int id) throws IOException {
+        if (id >= categoryNames.size()) {
+            loadDictionary();
+        }
+        return id < categoryNames.size() ? categoryNames.get(id) : null;
+    }
+
+    private void loadDictionary() throws IOException {
+        categoryNames.clear();
+        categoryIds.clear();
+        if (Files.exists(dictionaryPath)) {
+            for (String name : Files.readAllLines(dictionaryPath, StandardCharsets.UTF_8)) {
+                categoryIds.putIfAbsent(name, categoryNames.size());
+                categoryNames.add(name);
+            }
+        }
+    }
+
+    // Mapping
+
+    private void map() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        columns = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (columns.getInt(MAGIC_POSITION) != MAGIC || columns.getInt(FORMAT_VERSION_POSITION) != FORMAT_VERSION) {
+            throw new IOException(path + " is not a TaskShell columnar store");
+        }
+        capacity = columns.getInt(CAPACITY_POSITION);
+        computeColumnStarts(columnStarts, capacity);
+        if (count() < indexedRows) {
+            // Rows never move, only a store rewritten from scratch has fewer of them
+            Arrays.fill(rowIndex, 0);
+            indexedRows = 0;
+        }
+        fileKey = fileKey();
+        loadDictionary();
+    }
+
+    /**
+     * Maps the file again if another session replaced it, e.g. when growing it.
+     */
+    private void remapIfReplaced() throws IOException {
+        if (!Objects.equals(fileKey, fileKey()) || channel.size() != Files.size(path)) {
+            map();
+        }
+    }
+
+    private Object fileKey() throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    }
+
+    /**
+     * Doubles the capacity, copying every column to a new file that replaces the current one.
+     */
+    private void grow() throws IOException {
+        int newCapacity = Math.multiplyExact(capacity, 2);
+        Path temporary = path.resolveSibling(FILE_NAME + ".tmp");
+        createFile(temporary, newCapacity);
+        int[] newStarts = new int[columnStarts.length];
+        computeColumnStarts(newStarts, newCapacity);
+
+        try (FileChannel target = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer targetColumns = target.map(FileChannel.MapMode.READ_WRITE, 0, target.size());
+            targetColumns.putInt(COUNT_POSITION, count());
+            targetColumns.putLong(MUTATIONS_POSITION, columns.getLong(MUTATIONS_POSITION));
+            for (Column column : Column.values()) {
+                int start = columnStarts[column.ordinal()];
+                ByteBuffer source = columns.duplicate();
+                source.position(start).limit(start + count() * column.width);
+                targetColumns.position(newStarts[column.ordinal()]);
+                targetColumns.put(source);
+            }
+            targetColumns.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        FileUtils.syncDirectory(path.getParent());
+        map();
+    }
+
+    private static void createFile(Path target, int capacity) throws IOException {
+        long size = HEADER_SIZE + (long) ROW_WIDTH * capacity;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The columnar store can't grow to " + capacity + " tasks");
+        }
+        try (FileChannel created = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC_POSITION, MAGIC);
+            header.putInt(FORMAT_VERSION_POSITION, FORMAT_VERSION);
+            header.putInt(CAPACITY_POSITION, capacity);
+            header.putInt(COUNT_POSITION, 0);
+            header.putLong(MUTATIONS_POSITION, 0);
+            created.write(header, 0);
+            // Extend the file to its full size, the columns start zeroed
+            created.write(ByteBuffer.allocate(1), size - 1);
+        }
+    }
+
+    private static void computeColumnStarts(int[] starts, int capacity) {
+        int start = HEADER_SIZE;
+        for (Column column : Column.values()) {
+            starts[column.ordinal()] = start;
+            start += column.width * capacity;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.TaskShell.repositories;
+
+/**
+ * Outcome of a {@link TaskStore#compact()}.
+ *
+ * @param bytesBefore    size of the store right before the compacted copy replaced it
+ * @param bytesAfter     size of the store right after
+ * @param elapsedMillis  duration of the whole compaction
+ * @param replacedStamp  stamp of the store right before it was replaced
+ * @param compactedStamp stamp of the store right after it was replaced
+ */
+public record CompactionResult(long bytesBefore, long bytesAfter, long elapsedMillis,
+                               StoreStamp replacedStamp, StoreStamp compactedStamp) {
+
+    public long bytesReclaimed() {
+        return bytesBefore - bytesAfter;
+    }
+}
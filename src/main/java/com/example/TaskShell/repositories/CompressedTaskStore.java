@@ -0,0 +1,942 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.utils.DateUtils;
+import com.example.TaskShell.utils.FileUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Task store made of independently compressed blocks, for large histories.
+ * <p>
+ * The records are the JSON lines of a {@link TaskLog}, replayed the same way. New records are appended to the
+ * uncompressed tasks.tail, and once it holds a block worth of records they are deflated into a block appended to
+ * tasks.blocks. The header of a block holds the range of due dates of its tasks. tasks.blocks.idx keeps a copy of
+ * every header with the sorted 32-bit fingerprints of the IDs of the block, so that the store is opened without
+ * walking the blocks. A block missing from the index is inflated once to find its fingerprints.
+ * <p>
+ * A scan by date inflates only the blocks whose range holds the date, then the later blocks holding the
+ * fingerprint of one of the tasks found, which may change it. Tasks are mostly created close to their due date, so the ranges are narrow and
+ * a day of a long history reads a few blocks.
+ * <p>
+ * tasks.tail starts with the generation of tasks.blocks and the length of its committed blocks: replacing tail
+ * is the commit point of a block, bytes past that length are the trace of an interrupted write and are truncated
+ * before the next one. The compaction writes a fresh tasks.blocks with a new generation holding the lock, so a
+ * tail of another generation only holds records that were compacted into the blocks.
+ */
+public class CompressedTaskStore implements TaskStore {
+
+    public static final String FILE_NAME = "tasks.blocks";
+    public static final String INDEX_FILE_NAME = "tasks.blocks.idx";
+    public static final String TAIL_FILE_NAME = "tasks.tail";
+
+    // Uncompressed size of a block: larger blocks compress better, a scan by date inflates more
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    private static final int FILE_MAGIC = 0x54534B42;
+    private static final int BLOCK_MAGIC = 0x424C4B31;
+    private static final int FILE_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int BLOCK_HEADER_SIZE = 7 * Integer.BYTES + 1;
+    private static final int TAIL_HEADER_SIZE = 2 * Long.BYTES;
+    private static final byte NEW_LINE = '\n';
+    private static final String COMPACTION_SUFFIX = ".compact";
+
+    private interface BlockReader<T> {
+        T read(FileChannel channel, List<Block> blocks, List<TaskRecord> tail) throws IOException;
+    }
+
+    /**
+     * Header of a block, the block index keeps one per block.
+     *
+     * @param offset           position of the block in tasks.blocks
+     * @param rawLength        length of its JSON lines
+     * @param compressedLength length of the deflated lines
+     * @param records          number of records
+     * @param minEpochDay      first due date of its tasks
+     * @param maxEpochDay      last due date of its tasks
+     * @param undated          whether it holds tasks without a valid date
+     * @param checksum         CRC32 of the deflated lines
+     * @param fingerprints     sorted fingerprints of the IDs of its records, kept in the block index only
+     */
+    private record Block(long offset, int rawLength, int compressedLength, int records, int minEpochDay,
+                         int maxEpochDay, boolean undated, int checksum, int[] fingerprints) {
+
+        long dataOffset() {
+            return offset + BLOCK_HEADER_SIZE;
+        }
+
+        long end() {
+            return dataOffset() + compressedLength;
+        }
+
+        boolean mayContain(int epochDay) {
+            return epochDay == DateUtils.NO_EPOCH_DAY ? undated : epochDay >= minEpochDay && epochDay <= maxEpochDay;
+        }
+
+        boolean mayContain(UUID id) {
+            return Arrays.binarySearch(fingerprints, fingerprint(id)) >= 0;
+        }
+
+        Block withFingerprints(int[] fingerprints) {
+            return new Block(offset, rawLength, compressedLength, records, minEpochDay, maxEpochDay, undated, checksum,
+                    fingerprints);
+        }
+
+        int indexEntrySize() {
+            return Long.BYTES + BLOCK_HEADER_SIZE + Integer.BYTES + fingerprints.length * Integer.BYTES;
+        }
+
+        void writeHeader(ByteBuffer buffer) {
+            buffer.putInt(BLOCK_MAGIC).putInt(rawLength).putInt(compressedLength).putInt(records)
+                    .putInt(minEpochDay).putInt(maxEpochDay).put((byte) (undated ? 1 : 0)).putInt(checksum);
+        }
+
+        void writeIndexEntry(ByteBuffer buffer) {
+            buffer.putLong(offset);
+            writeHeader(buffer);
+            buffer.putInt(fingerprints.length);
+            for (int fingerprint : fingerprints) {
+                buffer.putInt(fingerprint);
+            }
+        }
+
+        /**
+         * @return the header read from the buffer, without fingerprints, null if it isn't a block header
+         */
+        static Block readHeader(long offset, ByteBuffer buffer) {
+            if (buffer.remaining() < BLOCK_HEADER_SIZE || buffer.getInt() != BLOCK_MAGIC) {
+                return null;
+            }
+            int rawLength = buffer.getInt();
+            int compressedLength = buffer.getInt();
+            int records = buffer.getInt();
+            int minEpochDay = buffer.getInt();
+            int maxEpochDay = buffer.getInt();
+            boolean undated = buffer.get() != 0;
+            int checksum = buffer.getInt();
+            if (rawLength < 0 || compressedLength < 0 || records < 0) {
+                return null;
+            }
+            return new Block(offset, rawLength, compressedLength, records, minEpochDay, maxEpochDay, undated, checksum,
+                    new int[0]);
+        }
+
+        /**
+         * @return the entry read from the buffer, null if it isn't a complete entry
+         */
+        static Block readIndexEntry(ByteBuffer buffer) {
+            if (buffer.remaining() < Long.BYTES) {
+                return null;
+            }
+            Block block = readHeader(buffer.getLong(), buffer);
+            if (block == null || buffer.remaining() < Integer.BYTES) {
+                return null;
+            }
+            int count = buffer.getInt();
+            if (count < 0 || buffer.remaining() < (long) count * Integer.BYTES) {
+                return null;
+            }
+            int[] fingerprints = new int[count];
+            buffer.asIntBuffer().get(fingerprints);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            return block.withFingerprints(fingerprints);
+        }
+    }
+
+    /**
+     * Content of tasks.tail.
+     *
+     * @param generation      the generation of the tasks.blocks it follows
+     * @param committedLength the length of the committed blocks
+     * @param lines           the records not compressed yet
+     */
+    private record Tail(long generation, long committedLength, byte[] lines) {
+    }
+
+    /**
+     * @param blocks the blocks written
+     * @param end    the position after the last one
+     * @param rest   the lines of the records left for the tail
+     */
+    private record Sealed(List<Block> blocks, long end, byte[] rest) {
+    }
+
+    private final File file;
+    private final File indexFile;
+    private final File tailFile;
+    private final ObjectMapper mapper;
+    private final StoreSettings settings;
+    private final StoreLock lock;
+    private final PeriodicSync periodicSync;
+    private final AtomicLong inflatedBlocks = new AtomicLong();
+
+    // Headers of the committed blocks of one generation of tasks.blocks, up to indexedLength
+    private List<Block> indexedBlocks = new ArrayList<>();
+    private long indexedGeneration;
+    private long indexedLength;
+
+    // Known once the store was replayed, used to estimate the garbage ratio
+    private final Object statsLock = new Object();
+    private final Set<UUID> liveIds = new HashSet<>();
+    private long recordCount = -1;
+
+    /**
+     * Opens the store of a TaskShell directory, creating its files if needed.
+     *
+     * @param directory the TaskShell directory
+     * @param mapper    reads and writes the records
+     * @param settings  the fsync policy
+     * @throws IOException if the files can't be created or aren't a compressed store
+     */
+    public CompressedTaskStore(File directory, ObjectMapper mapper, StoreSettings settings) throws IOException {
+        this.file = new File(directory, FILE_NAME);
+        this.indexFile = new File(directory, INDEX_FILE_NAME);
+        this.tailFile = new File(directory, TAIL_FILE_NAME);
+        this.mapper = mapper;
+        this.settings = settings;
+        this.lock = new StoreLock(directory);
+        this.periodicSync = settings.fsyncPolicy() == FsyncPolicy.INTERVAL
+                ? new PeriodicSync(FILE_NAME, settings.fsyncIntervalMillis(), this::sync)
+                : null;
+        if (file.length() < FILE_HEADER_SIZE) {
+            lock.locked(() -> {
+                if (file.length() < FILE_HEADER_SIZE) {
+                    create();
+                }
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public StoreFormat getFormat() {
+        return StoreFormat.COMPRESSED;
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public List<File> getFiles() {
+        return List.of(file, indexFile, tailFile);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return file.length() <= FILE_HEADER_SIZE && tailFile.length() <= TAIL_HEADER_SIZE;
+    }
+
+    @Override
+    public StoreStamp stamp() {
+        return new StoreStamp(Math.max(file.lastModified(), tailFile.lastModified()), file.length() + tailFile.length(), 0);
+    }
+
+    /**
+     * Inflates every block in parallel, then replays them in order.
+     */
+    @Override
+    public List<Task> loadAll() throws IOException {
+        return read((channel, blocks, tail) -> {
+            Map<UUID, Task> tasks = new LinkedHashMap<>();
+            long records = 0;
+            for (List<TaskRecord> block : inflate(channel, blocks)) {
+                block.forEach(record -> apply(tasks, record));
+                records += block.size();
+            }
+            tail.forEach(record -> apply(tasks, record));
+            records += tail.size();
+            synchronized (statsLock) {
+                recordCount = records;
+                liveIds.clear();
+                liveIds.addAll(tasks.keySet());
+            }
+            return new ArrayList<>(tasks.values());
+        });
+    }
+
+    /**
+     * Inflates the blocks whose dates hold the date, and the later blocks that may change the tasks found there.
+     */
+    @Override
+    public List<Task> scan(String date, TaskStatus status, String category) throws IOException {
+        if (date == null) {
+            List<Task> tasks = loadAll();
+            tasks.removeIf(task -> !matches(task, null, status, category));
+            return tasks;
+        }
+        int epochDay = DateUtils.toEpochDay(date);
+        return read((channel, blocks, tail) -> {
+            TreeMap<Integer, List<TaskRecord>> inflated = new TreeMap<>();
+            List<Integer> selected = new ArrayList<>();
+            for (int i = 0; i < blocks.size(); i++) {
+                if (blocks.get(i).mayContain(epochDay)) {
+                    selected.add(i);
+                }
+            }
+
+            Map<UUID, Task> tasks = new LinkedHashMap<>();
+            while (!selected.isEmpty()) {
+                List<List<TaskRecord>> read = inflate(channel, selected.stream().map(blocks::get).toList());
+                for (int i = 0; i < selected.size(); i++) {
+                    inflated.put(selected.get(i), read.get(i));
+                }
+
+                // A task due that day may have been moved or deleted by a block not read yet
+                tasks.clear();
+                Map<UUID, Integer> lastBlocks = new HashMap<>();
+                inflated.forEach((index, records) -> records.forEach(record -> {
+                    apply(tasks, record);
+                    lastBlocks.put(record.taskId(), index);
+                }));
+                Set<Integer> later = new HashSet<>();
+                tasks.forEach((id, task) -> {
+                    if (date.equals(task.getDate())) {
+                        for (int i = lastBlocks.get(id) + 1; i < blocks.size(); i++) {
+                            if (!inflated.containsKey(i) && blocks.get(i).mayContain(id)) {
+                                later.add(i);
+                            }
+                        }
+                    }
+                });
+                selected = later.stream().sorted().toList();
+            }
+            tail.forEach(record -> apply(tasks, record));
+            List<Task> matches = new ArrayList<>(tasks.values());
+            matches.removeIf(task -> !matches(task, date, status, category));
+            return matches;
+        });
+    }
+
+    /**
+     * @return the compressed size of the blocks that may hold the date, and the size of the tail
+     */
+    @Override
+    public long scanLength(String date) throws IOException {
+        if (date == null) {
+            return stamp().length();
+        }
+        int epochDay = DateUtils.toEpochDay(date);
+        return read((channel, blocks, tail) -> blocks.stream()
+                .filter(block -> block.mayContain(epochDay))
+                .mapToLong(Block::compressedLength)
+                .sum() + tailFile.length());
+    }
+
+    /**
+     * Appends the records to the tail, or compresses the tail and the records into blocks once they fill one.
+     */
+    @Override
+    public void append(List<TaskRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        lock.locked(() -> {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long generation = recover(channel);
+                Tail tail = readTail();
+                byte[] lines = encode(records);
+                if (tail.lines().length + lines.length < BLOCK_SIZE) {
+                    appendToTail(lines);
+                    return null;
+                }
+                List<TaskRecord> pending = parse(tail.lines());
+                pending.addAll(records);
+                List<Block> committed = blocks(channel, generation, tail.committedLength());
+                Sealed sealed = writeBlocks(channel, tail.committedLength(), pending);
+                if (settings.fsyncPolicy() == FsyncPolicy.ALWAYS) {
+                    channel.force(false);
+                }
+                writeTail(new Tail(generation, sealed.end(), sealed.rest()));
+                appendIndex(generation, committed, sealed.blocks());
+                indexed(generation, tail.committedLength(), sealed.blocks());
+            }
+            return null;
+        });
+        count(records);
+    }
+
+    /**
+     * @return the share of superseded and deleted records, 0 until the store was replayed once
+     */
+    @Override
+    public double garbageRatio() {
+        synchronized (statsLock) {
+            return recordCount > 0 ? 1 - (double) liveIds.size() / recordCount : 0;
+        }
+    }
+
+    /**
+     * Compresses the live tasks into a fresh tasks.blocks, holding the lock: writers wait for it.
+     */
+    @Override
+    public CompactionResult compact() throws IOException {
+        long start = System.nanoTime();
+        return lock.locked(() -> {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                recover(channel);
+            }
+            StoreStamp replacedStamp = stamp();
+            long bytesBefore = size();
+            List<Task> tasks = loadAll();
+
+            long generation = newGeneration();
+            Path compacted = file.toPath().resolveSibling(FILE_NAME + COMPACTION_SUFFIX);
+            try {
+                Sealed sealed;
+                try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    writeFully(channel, fileHeader(generation), 0);
+                    sealed = writeBlocks(channel, FILE_HEADER_SIZE, tasks.stream().map(TaskRecord::put).toList());
+                    channel.force(false);
+                }
+                Files.move(compacted, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                FileUtils.syncDirectory(file.toPath().toAbsolutePath().getParent());
+                writeTail(new Tail(generation, sealed.end(), sealed.rest()));
+                appendIndex(generation, List.of(), sealed.blocks());
+            } finally {
+                Files.deleteIfExists(compacted);
+            }
+            synchronized (statsLock) {
+                recordCount = tasks.size();
+            }
+            return new CompactionResult(bytesBefore, size(), (System.nanoTime() - start) / 1_000_000, replacedStamp, stamp());
+        });
+    }
+
+    /**
+     * Forces the blocks and the tail to the disk, whatever the fsync policy.
+     */
+    public void sync() throws IOException {
+        for (File written : List.of(file, tailFile)) {
+            if (written.exists()) {
+                try (FileChannel channel = FileChannel.open(written.toPath(), StandardOpenOption.WRITE)) {
+                    channel.force(false);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (periodicSync != null) {
+            periodicSync.close();
+        }
+    }
+
+    /**
+     * @return the number of blocks inflated by this instance so far
+     */
+    long inflatedBlocks() {
+        return inflatedBlocks.get();
+    }
+
+    // Private Helper Methods
+
+    /**
+     * Reads the committed blocks and the tail of the same generation of tasks.blocks.
+     * The tail is read after opening the blocks: a block sealed meanwhile is past the length it commits,
+     * a compaction meanwhile leaves a tail of another generation, whose records are in the blocks opened.
+     */
+    private <T> T read(BlockReader<T> reader) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long generation = readGeneration(channel);
+            Tail tail = readTail();
+            if (tail.generation() != generation) {
+                return reader.read(channel, blocks(channel, generation, channel.size()), List.of());
+            }
+            return reader.read(channel, blocks(channel, generation, tail.committedLength()), parse(tail.lines()));
+        }
+    }
+
+    /**
+     * @return the headers of the blocks up to the committed length, from the block index and the blocks past it
+     */
+    private synchronized List<Block> blocks(FileChannel channel, long generation, long committedLength) throws IOException {
+        if (generation != indexedGeneration || committedLength < indexedLength) {
+            indexedBlocks = readIndex(generation, committedLength);
+            indexedGeneration = generation;
+            indexedLength = indexedBlocks.isEmpty() ? FILE_HEADER_SIZE : indexedBlocks.get(indexedBlocks.size() - 1).end();
+        }
+        while (indexedLength < committedLength) {
+            Block block = readBlockHeader(channel, indexedLength, committedLength);
+            if (block == null) {
+                break;
+            }
+            indexedBlocks.add(block.withFingerprints(fingerprints(inflate(channel, block))));
+            indexedLength = block.end();
+        }
+        return new ArrayList<>(indexedBlocks);
+    }
+
+    /**
+     * Adds blocks just written to the headers known, when they follow them.
+     */
+    private synchronized void indexed(long generation, long offset, List<Block> blocks) {
+        if (generation != indexedGeneration || offset != indexedLength) {
+            // Read from the block index again on the next read
+            indexedGeneration = 0;
+            return;
+        }
+        indexedBlocks.addAll(blocks);
+        if (!blocks.isEmpty()) {
+            indexedLength = blocks.get(blocks.size() - 1).end();
+        }
+    }
+
+    /**
+     * @return the headers of tasks.blocks.idx that follow each other up to the committed length, if it is of that generation
+     */
+    private List<Block> readIndex(long generation, long committedLength) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        if (!indexFile.exists()) {
+            return blocks;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexFile.toPath()));
+        if (buffer.remaining() < FILE_HEADER_SIZE || buffer.getInt() != FILE_MAGIC || buffer.getLong() != generation) {
+            return blocks;
+        }
+        long expected = FILE_HEADER_SIZE;
+        while (buffer.hasRemaining()) {
+            Block block = Block.readIndexEntry(buffer);
+            if (block == null || block.offset() != expected || block.end() > committedLength) {
+                break;
+            }
+            blocks.add(block);
+            expected = block.end();
+        }
+        return blocks;
+    }
+
+    /**
+     * Adds the headers of new blocks to tasks.blocks.idx, holding the lock.
+     * The index is rewritten when it doesn't end with the blocks before them.
+     */
+    private void appendIndex(long generation, List<Block> before, List<Block> added) throws IOException {
+        if (added.isEmpty() && !before.isEmpty()) {
+            return;
+        }
+        long expected = FILE_HEADER_SIZE + before.stream().mapToLong(Block::indexEntrySize).sum();
+        boolean current = false;
+        if (indexFile.length() == expected) {
+            try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+                current = readGeneration(channel) == generation;
+            } catch (IOException e) {
+                current = false;
+            }
+        }
+
+        List<Block> entries = current ? added : new ArrayList<>(before);
+        if (!current) {
+            entries.addAll(added);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entries.stream().mapToInt(Block::indexEntrySize).sum());
+        entries.forEach(block -> block.writeIndexEntry(buffer));
+        buffer.flip();
+        if (current) {
+            try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.WRITE)) {
+                writeFully(channel, buffer, expected);
+            }
+        } else {
+            Path temporary = Path.of(indexFile + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(channel, fileHeader(generation), 0);
+                writeFully(channel, buffer, FILE_HEADER_SIZE);
+            }
+            Files.move(temporary, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * @return the header of the block at the position, null if it isn't a complete committed block
+     */
+    private static Block readBlockHeader(FileChannel channel, long position, long committedLength) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        if (!readFully(channel, header, position)) {
+            return null;
+        }
+        Block block = Block.readHeader(position, header);
+        return block != null && block.end() <= committedLength ? block : null;
+    }
+
+    /**
+     * Inflates the blocks in parallel.
+     *
+     * @return the records of every block, in the order of the blocks
+     */
+    private List<List<TaskRecord>> inflate(FileChannel channel, List<Block> blocks) throws IOException {
+        try {
+            return blocks.parallelStream().map(block -> {
+                try {
+                    return inflate(channel, block);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private List<TaskRecord> inflate(FileChannel channel, Block block) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate(block.compressedLength());
+        if (!readFully(channel, compressed, block.dataOffset())) {
+            throw new IOException("Truncated block at " + block.offset() + " of " + file);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(compressed.array());
+        if ((int) checksum.getValue() != block.checksum()) {
+            throw new IOException("Corrupted block at " + block.offset() + " of " + file);
+        }
+
+        byte[] lines = new byte[block.rawLength()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array());
+            int length = 0;
+            while (length < lines.length && !inflater.finished()) {
+                int inflated = inflater.inflate(lines, length, lines.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != lines.length) {
+                throw new IOException("Corrupted block at " + block.offset() + " of " + file);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted block at " + block.offset() + " of " + file, e);
+        } finally {
+            inflater.end();
+        }
+        inflatedBlocks.incrementAndGet();
+
+        List<TaskRecord> records = new ArrayList<>(block.records());
+        try (MappingIterator<TaskRecord> iterator = mapper.readerFor(TaskRecord.class).readValues(lines)) {
+            while (iterator.hasNext()) {
+                records.add(iterator.next());
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Compresses the records into blocks written from the position, the records that don't fill a block are left over.
+     */
+    private Sealed writeBlocks(FileChannel channel, long position, List<TaskRecord> records) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(BLOCK_SIZE + 1024);
+        List<TaskRecord> pending = new ArrayList<>();
+        for (TaskRecord record : records) {
+            lines.write(mapper.writeValueAsBytes(record));
+            lines.write(NEW_LINE);
+            pending.add(record);
+            if (lines.size() >= BLOCK_SIZE) {
+                Block block = writeBlock(channel, position, lines.toByteArray(), pending);
+                blocks.add(block);
+                position = block.end();
+                lines.reset();
+                pending.clear();
+            }
+        }
+        return new Sealed(blocks, position, lines.toByteArray());
+    }
+
+    private Block writeBlock(FileChannel channel, long position, byte[] lines, List<TaskRecord> records) throws IOException {
+        Deflater deflater = new Deflater();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(lines.length / 4);
+        try {
+            deflater.setInput(lines);
+            deflater.finish();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+        byte[] data = compressed.toByteArray();
+        CRC32 checksum = new CRC32();
+        checksum.update(data);
+
+        int minEpochDay = Integer.MAX_VALUE;
+        int maxEpochDay = Integer.MIN_VALUE;
+        boolean undated = false;
+        for (TaskRecord record : records) {
+            if (record.getOp() == TaskRecord.Operation.PUT) {
+                int epochDay = record.getTask().getEpochDay();
+                if (epochDay == DateUtils.NO_EPOCH_DAY) {
+                    undated = true;
+                } else {
+                    minEpochDay = Math.min(minEpochDay, epochDay);
+                    maxEpochDay = Math.max(maxEpochDay, epochDay);
+                }
+            }
+        }
+
+        Block block = new Block(position, lines.length, data.length, records.size(), minEpochDay, maxEpochDay, undated,
+                (int) checksum.getValue(), fingerprints(records));
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_SIZE + data.length);
+        block.writeHeader(buffer);
+        buffer.put(data).flip();
+        writeFully(channel, buffer, position);
+        return block;
+    }
+
+    private static int[] fingerprints(List<TaskRecord> records) {
+        return records.stream().mapToInt(record -> fingerprint(record.taskId())).sorted().distinct().toArray();
+    }
+
+    /**
+     * @return 32 bits of an ID, another ID matches one of the fingerprints of a block once in millions of lookups
+     */
+    private static int fingerprint(UUID id) {
+        return (int) mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreads the bits of a value.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Truncates what an interrupted write left past the committed blocks and the last complete line of the tail,
+     * holding the lock.
+     *
+     * @return the generation of tasks.blocks
+     */
+    private long recover(FileChannel channel) throws IOException {
+        long generation = readGeneration(channel);
+        Tail tail = readTail();
+        if (tail.generation() != generation) {
+            // An interrupted compaction, the blocks hold every record of the tail
+            writeTail(new Tail(generation, channel.size(), new byte[0]));
+            return generation;
+        }
+        if (channel.size() > tail.committedLength()) {
+            channel.truncate(tail.committedLength());
+        }
+        byte[] lines = tail.lines();
+        int end = lines.length;
+        while (end > 0 && lines[end - 1] != NEW_LINE) {
+            end--;
+        }
+        if (end < lines.length) {
+            try (FileChannel tailChannel = FileChannel.open(tailFile.toPath(), StandardOpenOption.WRITE)) {
+                tailChannel.truncate(TAIL_HEADER_SIZE + end);
+            }
+        }
+        return generation;
+    }
+
+    /**
+     * Writes an empty store, holding the lock.
+     */
+    private void create() throws IOException {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        long generation = newGeneration();
+        FileUtils.writeAtomically(file, out -> out.write(fileHeader(generation).array()));
+        writeTail(new Tail(generation, FILE_HEADER_SIZE, new byte[0]));
+        appendIndex(generation, List.of(), List.of());
+    }
+
+    /**
+     * @return the tail, of generation 0 if it is missing
+     */
+    private Tail readTail() throws IOException {
+        if (!tailFile.exists()) {
+            return new Tail(0, 0, new byte[0]);
+        }
+        byte[] content = Files.readAllBytes(tailFile.toPath());
+        if (content.length < TAIL_HEADER_SIZE) {
+            return new Tail(0, 0, new byte[0]);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        long generation = buffer.getLong();
+        long committedLength = buffer.getLong();
+        byte[] lines = new byte[buffer.remaining()];
+        buffer.get(lines);
+        return new Tail(generation, committedLength, lines);
+    }
+
+    /**
+     * Replaces the tail, forcing it to the disk only with the {@link FsyncPolicy#ALWAYS} policy.
+     */
+    private void writeTail(Tail tail) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(TAIL_HEADER_SIZE).putLong(tail.generation()).putLong(tail.committedLength());
+        if (settings.fsyncPolicy() == FsyncPolicy.ALWAYS) {
+            FileUtils.writeAtomically(tailFile, out -> {
+                out.write(header.array());
+                out.write(tail.lines());
+            });
+            return;
+        }
+        Path temporary = Path.of(tailFile + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header.flip(), 0);
+            writeFully(channel, ByteBuffer.wrap(tail.lines()), TAIL_HEADER_SIZE);
+        }
+        Files.move(temporary, tailFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (periodicSync != null) {
+            periodicSync.markDirty();
+        }
+    }
+
+    private void appendToTail(byte[] lines) throws IOException {
+        try (FileChannel channel = FileChannel.open(tailFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (settings.fsyncPolicy() == FsyncPolicy.ALWAYS) {
+                channel.force(false);
+            }
+        }
+        if (periodicSync != null) {
+            periodicSync.markDirty();
+        }
+    }
+
+    private byte[] encode(List<TaskRecord> records) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * records.size());
+        for (TaskRecord record : records) {
+            buffer.write(mapper.writeValueAsBytes(record));
+            buffer.write(NEW_LINE);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Parses the lines of the tail, skipping a line left by an interrupted write, see {@link TaskLog}.
+     */
+    private List<TaskRecord> parse(byte[] lines) {
+        List<TaskRecord> records = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= lines.length; i++) {
+            if (i == lines.length || lines[i] == NEW_LINE) {
+                if (i > start) {
+                    try {
+                        records.add(mapper.readValue(new String(lines, start, i - start, StandardCharsets.UTF_8), TaskRecord.class));
+                    } catch (JsonProcessingException e) {
+                        // Trace of an interrupted write
+                    }
+                }
+                start = i + 1;
+            }
+        }
+        return records;
+    }
+
+    private long readGeneration(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        if (!readFully(channel, header, 0) || header.getInt(0) != FILE_MAGIC) {
+            throw new IOException("Not a compressed task store: " + file);
+        }
+        return header.getLong(Integer.BYTES);
+    }
+
+    private static ByteBuffer fileHeader(long generation) {
+        return ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(FILE_MAGIC).putLong(generation).flip();
+    }
+
+    private static long newGeneration() {
+        long generation = 0;
+        while (generation == 0) {
+            generation = ThreadLocalRandom.current().nextLong();
+        }
+        return generation;
+    }
+
+    private long size() {
+        return getFiles().stream().mapToLong(File::length).sum();
+    }
+
+    /**
+     * @return false if the channel ends before the buffer is full
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+    }
+
+    private void count(List<TaskRecord> records) {
+        synchronized (statsLock) {
+            if (recordCount < 0) {
+                return;
+            }
+            recordCount += records.size();
+            for (TaskRecord record : records) {
+                switch (record.getOp()) {
+                    case PUT -> liveIds.add(record.taskId());
+                    case DELETE -> liveIds.remove(record.getId());
+                }
+            }
+        }
+    }
+
+    private static boolean matches(Task task, String date, TaskStatus status, String category) {
+        return (date == null || date.equals(task.getDate()))
+                && (status == null || status == task.getStatus())
+                && (category == null || Objects.equals(category, task.getCategory()));
+    }
+
+    private static void apply(Map<UUID, Task> tasks, TaskRecord record) {
+        switch (record.getOp()) {
+            case PUT -> tasks.put(record.getTask().getId(), record.getTask());
+            case DELETE -> tasks.remove(record.getId());
+        }
+    }
+}
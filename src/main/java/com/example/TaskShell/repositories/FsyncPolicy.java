@@ -0,0 +1,31 @@
+package com.example.TaskShell.repositories;
+
+/**
+ * When the task store forces its writes to the disk.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * After every commit, nothing acknowledged is ever lost.
+     */
+    ALWAYS,
+
+    /**
+     * At most once per interval and when the store is closed, a crash loses at most one interval.
+     */
+    INTERVAL,
+
+    /**
+     * Left to the operating system.
+     */
+    NEVER;
+
+    /**
+     * Parses a policy name, case insensitive.
+     *
+     * @throws IllegalArgumentException if the name isn't a known policy
+     */
+    public static FsyncPolicy of(String name) {
+        return FsyncPolicy.valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.TaskShell.repositories;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Appends lines to the end of a file and forces them to the disk as the {@link FsyncPolicy} says.
+ * <p>
+ * Appends and {@link #exclusive} actions run one at a time. Before writing, the writer checks that the file
+ * wasn't replaced, e.g. by the compaction of another process, and opens the new one if so.
+ */
+class LogWriter implements Closeable {
+
+    interface ExclusiveAction<T> {
+        T run() throws IOException;
+    }
+
+    private static final byte NEW_LINE = '\n';
+
+    private final Path path;
+    private volatile FileChannel channel;
+    private volatile Object fileKey;
+    private final FsyncPolicy fsyncPolicy;
+    private final PeriodicSync periodicSync;
+
+    private final Object lock = new Object();
+
+    LogWriter(Path path, StoreSettings settings) throws IOException {
+        this.path = path;
+        this.channel = open(path);
+        this.fileKey = fileKey(path);
+        this.fsyncPolicy = settings.fsyncPolicy();
+        this.periodicSync = fsyncPolicy == FsyncPolicy.INTERVAL
+                ? new PeriodicSync(path.getFileName().toString(), settings.fsyncIntervalMillis(), () -> channel.force(false))
+                : null;
+    }
+
+    /**
+     * Appends the given bytes and returns once they were written, and forced if the policy says so.
+     *
+     * @param bytes complete lines
+     * @throws IOException if the bytes couldn't be written
+     */
+    void append(byte[] bytes) throws IOException {
+        synchronized (lock) {
+            write(bytes);
+        }
+    }
+
+    /**
+     * Runs an action while nothing is being appended, e.g. to replace the file.
+     */
+    <T> T exclusive(ExclusiveAction<T> action) throws IOException {
+        synchronized (lock) {
+            return action.run();
+        }
+    }
+
+    /**
+     * @return the size of the file, to be called from an {@link #exclusive} action
+     */
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Opens the file again after it was replaced, to be called from an {@link #exclusive} action.
+     */
+    void reopen() throws IOException {
+        channel.close();
+        channel = open(path);
+        fileKey = fileKey(path);
+    }
+
+    /**
+     * @return true if the file was replaced since it was opened, to be called from an {@link #exclusive} action
+     */
+    boolean replaced() throws IOException {
+        Object current;
+        try {
+            current = fileKey(path);
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+        // Without file keys, a replaced file can't be told apart
+        return current != null && !Objects.equals(current, fileKey);
+    }
+
+    /**
+     * Forces everything written so far to the disk, whatever the policy.
+     */
+    void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (periodicSync != null) {
+            periodicSync.close();
+        }
+        channel.close();
+    }
+
+    // Private Helper Methods
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static Object fileKey(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (replaced()) {
+            reopen();
+        }
+        long length = channel.size();
+        boolean separate = false;
+        if (length > 0) {
+            // An interrupted write may have left a partial line, never glue a record to it
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, length - 1);
+            separate = last.get(0) != NEW_LINE;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + (separate ? 1 : 0));
+        if (separate) {
+            buffer.put(NEW_LINE);
+        }
+        buffer.put(bytes);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, length + buffer.position());
+        }
+
+        switch (fsyncPolicy) {
+            case ALWAYS -> channel.force(false);
+            case INTERVAL -> periodicSync.markDirty();
+            case NEVER -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.TaskShell.repositories;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * How much of the calendar a partition of the {@link PartitionedTaskStore} covers.
+ */
+public enum PartitionGranularity {
+
+    /**
+     * One partition per due day, for stores with many tasks a day.
+     */
+    DAY,
+
+    /**
+     * One partition per due month, the default.
+     */
+    MONTH,
+
+    /**
+     * One partition per due year, for small stores.
+     */
+    YEAR;
+
+    /**
+     * @return the name of the partition holding the tasks due that day, sorting like the dates
+     */
+    public String key(LocalDate date) {
+        return switch (this) {
+            case DAY -> date.toString();
+            case MONTH -> YearMonth.from(date).toString();
+            case YEAR -> String.format("%04d", date.getYear());
+        };
+    }
+
+    /**
+     * Parses a granularity name, case insensitive.
+     *
+     * @throws IllegalArgumentException if the name isn't a known granularity
+     */
+    public static PartitionGranularity of(String name) {
+        return PartitionGranularity.valueOf(name.trim().toUpperCase());
+    }
+}
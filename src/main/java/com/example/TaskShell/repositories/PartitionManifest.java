@@ -0,0 +1,46 @@
+package com.example.TaskShell.repositories;
+
+import java.util.List;
+
+/**
+ * Content of the manifest.json of a {@link PartitionedTaskStore}, the state of the store as of its last committed write.
+ *
+ * @param granularity   what a partition covers, fixed when the store is created
+ * @param version       number of committed writes and compactions
+ * @param partitions    the partitions, a partition is known by its position in the list
+ * @param idsLength     committed length of tasks.ids
+ * @param idsGeneration number of times tasks.ids was rewritten by a compaction
+ */
+record PartitionManifest(PartitionGranularity granularity, long version, List<Partition> partitions,
+                         long idsLength, long idsGeneration) {
+
+    /**
+     * @param key    the name of the partition, see {@link PartitionGranularity#key}
+     * @param length committed length of its log
+     */
+    record Partition(String key, long length) {
+    }
+
+    static PartitionManifest empty(PartitionGranularity granularity) {
+        return new PartitionManifest(granularity, 0, List.of(), 0, 0);
+    }
+
+    /**
+     * @return the position of a partition, -1 if it doesn't exist
+     */
+    int indexOf(String key) {
+        for (int i = 0; i < partitions.size(); i++) {
+            if (partitions.get(i).key().equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the committed length of every partition and of tasks.ids
+     */
+    long length() {
+        return partitions.stream().mapToLong(Partition::length).sum() + idsLength;
+    }
+}
@@ -0,0 +1,492 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.PartitionManifest.Partition;
+import com.example.TaskShell.utils.DateUtils;
+import com.example.TaskShell.utils.FileUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Task store split by due date, so that a command about a day reads and writes only the partition of that day.
+ * <p>
+ * The partitions directory holds one {@link TaskLog} per month, or per day or year as taskshell.store.partition-by
+ * says when the store is created, and undated.log for the tasks without a valid date. manifest.json lists the
+ * partitions with their committed length. tasks.ids locates every task: fixed-width entries of an ID and the
+ * position of its partition in the manifest, -1 once deleted, the last entry of an ID wins. A change that moves
+ * a task to another partition, or deletes it, finds the record it replaces there without reading the other partitions.
+ * <p>
+ * A write appends to the partitions and to tasks.ids, then replaces the manifest: the manifest is the commit point.
+ * Bytes past the committed lengths are the trace of an interrupted write and are truncated when the store is opened
+ * and before the next write, so a task moved by a write that didn't finish never shows up in two partitions.
+ * <p>
+ * Reading every task loads the partitions in parallel. Tasks are in creation order within a partition, by
+ * partition across them, the undated ones last.
+ */
+public class PartitionedTaskStore implements TaskStore {
+
+    public static final String DIRECTORY_NAME = "partitions";
+    public static final String MANIFEST_FILE_NAME = "manifest.json";
+    public static final String IDS_FILE_NAME = "tasks.ids";
+    public static final String UNDATED = "undated";
+
+    private static final String PARTITION_SUFFIX = ".log";
+    private static final int ID_ENTRY_SIZE = 2 * Long.BYTES + Integer.BYTES;
+    private static final int DELETED = -1;
+
+    private interface PartitionReader {
+        List<Task> read(TaskLog partition) throws IOException;
+    }
+
+    private final File directory;
+    private final File manifestFile;
+    private final File idsFile;
+    private final ObjectMapper mapper;
+    private final StoreSettings settings;
+    private final StoreLock lock;
+    // The partitions read or written so far
+    private final Map<String, TaskLog> partitions = new ConcurrentHashMap<>();
+
+    // Partition of every live task as of the first locatedLength bytes of tasks.ids, null until a write needs it
+    private Map<UUID, Integer> locations;
+    private long locatedLength;
+    private long locatedGeneration;
+
+    /**
+     * Opens the store of a TaskShell directory, rolling back a write that was interrupted.
+     *
+     * @param home     the TaskShell directory, the partitions are kept in its partitions directory
+     * @param mapper   reads and writes the records
+     * @param settings the granularity of a new store and the fsync policy
+     * @throws IOException if the manifest can't be read
+     */
+    public PartitionedTaskStore(File home, ObjectMapper mapper, StoreSettings settings) throws IOException {
+        this.directory = new File(home, DIRECTORY_NAME);
+        this.manifestFile = new File(directory, MANIFEST_FILE_NAME);
+        this.idsFile = new File(directory, IDS_FILE_NAME);
+        this.mapper = mapper;
+        this.settings = settings;
+        this.lock = new StoreLock(home);
+        if (isInterrupted(readManifest())) {
+            lock.locked(this::recover);
+        }
+    }
+
+    /**
+     * @return every file a partitioned store keeps in a TaskShell directory
+     */
+    public static List<File> files(File home) {
+        File directory = new File(home, DIRECTORY_NAME);
+        List<File> files = new ArrayList<>(List.of(new File(directory, MANIFEST_FILE_NAME), new File(directory, IDS_FILE_NAME)));
+        File[] partitionFiles = directory.listFiles((dir, name) -> name.endsWith(PARTITION_SUFFIX));
+        if (partitionFiles != null) {
+            files.addAll(List.of(partitionFiles));
+        }
+        return files;
+    }
+
+    @Override
+    public StoreFormat getFormat() {
+        return StoreFormat.PARTITIONED;
+    }
+
+    @Override
+    public File getFile() {
+        return manifestFile;
+    }
+
+    @Override
+    public List<File> getFiles() {
+        return files(directory.getParentFile());
+    }
+
+    @Override
+    public boolean isPartitioned() {
+        return true;
+    }
+
+    /**
+     * @return what a partition covers, the granularity of the store on disk once it exists
+     */
+    public PartitionGranularity getGranularity() throws IOException {
+        return readManifest().granularity();
+    }
+
+    @Override
+    public boolean isEmpty() throws IOException {
+        return readManifest().length() == 0;
+    }
+
+    @Override
+    public StoreStamp stamp() throws IOException {
+        PartitionManifest manifest = readManifest();
+        return new StoreStamp(manifestFile.lastModified(), manifest.length(), manifest.version());
+    }
+
+    @Override
+    public List<Task> loadAll() throws IOException {
+        return read(readManifest(), TaskLog::loadAll);
+    }
+
+    /**
+     * Streams the partitions one after the other, dated ones by date then the undated one.
+     */
+    @Override
+    public long forEach(TaskVisitor visitor) throws IOException {
+        long visited = 0;
+        for (String key : keys(readManifest())) {
+            visited += partition(key).forEach(visitor);
+        }
+        return visited;
+    }
+
+    /**
+     * Scans the partition of the date only, every partition in parallel without a date.
+     */
+    @Override
+    public List<Task> scan(String date, TaskStatus status, String category) throws IOException {
+        PartitionManifest manifest = readManifest();
+        if (date == null) {
+            return read(manifest, partition -> partition.scan(null, status, category));
+        }
+        String key = key(manifest.granularity(), DateUtils.toEpochDay(date));
+        return manifest.indexOf(key) >= 0 ? partition(key).scan(date, status, category) : new ArrayList<>();
+    }
+
+    @Override
+    public long scanLength(String date) throws IOException {
+        PartitionManifest manifest = readManifest();
+        if (date == null) {
+            return manifest.length() - manifest.idsLength();
+        }
+        int index = manifest.indexOf(key(manifest.granularity(), DateUtils.toEpochDay(date)));
+        return index >= 0 ? manifest.partitions().get(index).length() : 0;
+    }
+
+    /**
+     * Appends every record to the partition of its task, and a deletion to the partition a task moved from.
+     */
+    @Override
+    public void append(List<TaskRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        lock.locked(() -> {
+            PartitionManifest manifest = recover();
+            try {
+                commit(manifest, records);
+            } catch (IOException | RuntimeException e) {
+                // Read tasks.ids again, it may not hold what was just located
+                locations = null;
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @return the highest share of superseded and deleted records of the partitions replayed so far
+     */
+    @Override
+    public double garbageRatio() {
+        return partitions.values().stream().mapToDouble(TaskLog::garbageRatio).max().orElse(0);
+    }
+
+    /**
+     * Compacts every partition and rewrites tasks.ids with the entries of the live tasks only.
+     * Partitions are small, so they are compacted holding the lock.
+     */
+    @Override
+    public CompactionResult compact() throws IOException {
+        long start = System.nanoTime();
+        return lock.locked(() -> {
+            PartitionManifest manifest = recover();
+            StoreStamp replacedStamp = stamp();
+            List<Partition> compacted = new ArrayList<>(manifest.partitions().size());
+            for (Partition partition : manifest.partitions()) {
+                if (partition.length() == 0) {
+                    compacted.add(partition);
+                    continue;
+                }
+                TaskLog log = partition(partition.key());
+                log.compact();
+                compacted.add(new Partition(partition.key(), log.getFile().length()));
+            }
+
+            Map<UUID, Integer> live = locations(manifest);
+            ByteBuffer entries = ByteBuffer.allocate(live.size() * ID_ENTRY_SIZE);
+            live.forEach((id, index) -> putEntry(entries, id, index));
+            FileUtils.writeAtomically(idsFile, out -> out.write(entries.array()));
+            PartitionManifest written = new PartitionManifest(manifest.granularity(), manifest.version() + 1, compacted,
+                    entries.capacity(), manifest.idsGeneration() + 1);
+            writeManifest(written);
+            locatedLength = written.idsLength();
+            locatedGeneration = written.idsGeneration();
+            return new CompactionResult(replacedStamp.length(), written.length(), (System.nanoTime() - start) / 1_000_000,
+                    replacedStamp, stamp());
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (TaskLog partition : partitions.values()) {
+            try {
+                partition.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        partitions.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Private Helper Methods
+
+    /**
+     * Routes the records to their partitions and commits them, holding the lock.
+     */
+    private void commit(PartitionManifest manifest, List<TaskRecord> records) throws IOException {
+        Map<UUID, Integer> located = locations(manifest);
+        List<String> keys = new ArrayList<>(manifest.partitions().stream().map(Partition::key).toList());
+        Map<Integer, List<TaskRecord>> routed = new TreeMap<>();
+        ByteBuffer entries = ByteBuffer.allocate(records.size() * ID_ENTRY_SIZE);
+        for (TaskRecord record : records) {
+            UUID id = record.taskId();
+            Integer current = located.get(id);
+            int target = DELETED;
+            if (record.getOp() == TaskRecord.Operation.PUT) {
+                String key = key(manifest.granularity(), record.getTask().getEpochDay());
+                target = keys.indexOf(key);
+                if (target < 0) {
+                    keys.add(key);
+                    target = keys.size() - 1;
+                }
+                routed.computeIfAbsent(target, index -> new ArrayList<>()).add(record);
+            }
+            if (current != null && current != target) {
+                routed.computeIfAbsent(current, index -> new ArrayList<>()).add(TaskRecord.delete(id));
+            }
+            if (current == null ? target != DELETED : current != target) {
+                putEntry(entries, id, target);
+            }
+            if (target == DELETED) {
+                located.remove(id);
+            } else {
+                located.put(id, target);
+            }
+        }
+
+        List<Partition> written = new ArrayList<>(manifest.partitions());
+        for (int i = written.size(); i < keys.size(); i++) {
+            written.add(new Partition(keys.get(i), 0));
+        }
+        for (Map.Entry<Integer, List<TaskRecord>> partitionRecords : routed.entrySet()) {
+            TaskLog partition = partition(keys.get(partitionRecords.getKey()));
+            partition.append(partitionRecords.getValue());
+            written.set(partitionRecords.getKey(), new Partition(keys.get(partitionRecords.getKey()), partition.getFile().length()));
+        }
+
+        long idsLength = manifest.idsLength();
+        if (entries.position() > 0) {
+            entries.flip();
+            try (FileChannel channel = FileChannel.open(idsFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                while (entries.hasRemaining()) {
+                    channel.write(entries, idsLength + entries.position());
+                }
+                if (settings.fsyncPolicy() == FsyncPolicy.ALWAYS) {
+                    channel.force(false);
+                }
+            }
+            idsLength += entries.limit();
+        }
+        writeManifest(new PartitionManifest(manifest.granularity(), manifest.version() + 1, written,
+                idsLength, manifest.idsGeneration()));
+        locatedLength = idsLength;
+    }
+
+    /**
+     * Returns the partition of every live task, reading the entries of tasks.ids written since the last call.
+     */
+    private Map<UUID, Integer> locations(PartitionManifest manifest) throws IOException {
+        if (locations == null || locatedGeneration != manifest.idsGeneration() || locatedLength > manifest.idsLength()) {
+            locations = new HashMap<>();
+            locatedLength = 0;
+            locatedGeneration = manifest.idsGeneration();
+        }
+        if (locatedLength == manifest.idsLength()) {
+            return locations;
+        }
+        try (FileChannel channel = FileChannel.open(idsFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(ID_ENTRY_SIZE * 4096);
+            long position = locatedLength;
+            while (position < manifest.idsLength()) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), manifest.idsLength() - position));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        throw new IOException(idsFile + " is shorter than its committed length");
+                    }
+                }
+                buffer.flip();
+                while (buffer.remaining() >= ID_ENTRY_SIZE) {
+                    UUID id = new UUID(buffer.getLong(), buffer.getLong());
+                    int index = buffer.getInt();
+                    if (index == DELETED) {
+                        locations.remove(id);
+                    } else {
+                        locations.put(id, index);
+                    }
+                }
+                position += buffer.limit();
+            }
+        }
+        locatedLength = manifest.idsLength();
+        return locations;
+    }
+
+    /**
+     * Reads the partitions in parallel, dated ones by date then the undated one.
+     */
+    private List<Task> read(PartitionManifest manifest, PartitionReader reader) throws IOException {
+        try {
+            return keys(manifest).parallelStream()
+                    .map(key -> {
+                        try {
+                            return reader.read(partition(key));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .flatMap(List::stream)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return the keys of the partitions holding records, dated ones by date then the undated one
+     */
+    private static List<String> keys(PartitionManifest manifest) {
+        return manifest.partitions().stream()
+                .filter(partition -> partition.length() > 0)
+                .map(Partition::key)
+                .sorted(Comparator.comparing((String key) -> key.equals(UNDATED)).thenComparing(Comparator.naturalOrder()))
+                .toList();
+    }
+
+    private TaskLog partition(String key) {
+        return partitions.computeIfAbsent(key, name -> new TaskLog(partitionFile(name), mapper, settings, lock));
+    }
+
+    private File partitionFile(String key) {
+        return new File(directory, key + PARTITION_SUFFIX);
+    }
+
+    private static String key(PartitionGranularity granularity, int epochDay) {
+        return epochDay == DateUtils.NO_EPOCH_DAY ? UNDATED : granularity.key(LocalDate.ofEpochDay(epochDay));
+    }
+
+    private static void putEntry(ByteBuffer entries, UUID id, int index) {
+        entries.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).putInt(index);
+    }
+
+    /**
+     * @return the last committed manifest, an empty one with the configured granularity before the first write
+     */
+    private PartitionManifest readManifest() throws IOException {
+        if (!manifestFile.exists()) {
+            return PartitionManifest.empty(settings.partitionGranularity());
+        }
+        return mapper.readValue(manifestFile, PartitionManifest.class);
+    }
+
+    /**
+     * Replaces the manifest, forcing it to the disk only with the {@link FsyncPolicy#ALWAYS} policy:
+     * otherwise a crash loses the last writes, as it does with the other policies.
+     */
+    private void writeManifest(PartitionManifest manifest) throws IOException {
+        if (settings.fsyncPolicy() == FsyncPolicy.ALWAYS) {
+            FileUtils.writeAtomically(manifestFile, out -> mapper.writeValue(out, manifest));
+            return;
+        }
+        Path temporary = Path.of(manifestFile + ".tmp");
+        mapper.writeValue(temporary.toFile(), manifest);
+        Files.move(temporary, manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return whether a file holds more than the manifest committed, checked without the lock
+     */
+    private boolean isInterrupted(PartitionManifest manifest) {
+        if (idsFile.length() > manifest.idsLength()) {
+            return true;
+        }
+        Map<String, Long> committed = new LinkedHashMap<>();
+        manifest.partitions().forEach(partition -> committed.put(partition.key() + PARTITION_SUFFIX, partition.length()));
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(PARTITION_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                if (file.length() > committed.getOrDefault(file.getName(), 0L)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Truncates what an interrupted write left past the committed lengths, holding the lock.
+     *
+     * @return the committed manifest
+     */
+    private PartitionManifest recover() throws IOException {
+        directory.mkdirs();
+        PartitionManifest manifest = readManifest();
+        if (!isInterrupted(manifest)) {
+            return manifest;
+        }
+        Map<String, Long> committed = new HashMap<>();
+        manifest.partitions().forEach(partition -> committed.put(partition.key() + PARTITION_SUFFIX, partition.length()));
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(PARTITION_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                truncate(file, committed.getOrDefault(file.getName(), 0L));
+            }
+        }
+        truncate(idsFile, manifest.idsLength());
+        return manifest;
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        if (file.length() > length) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.TaskShell.repositories;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Forces the writes of a store to the disk at most once per interval, on a background thread.
+ * Writers only mark the store dirty, the pending writes are also forced when it is closed.
+ */
+class PeriodicSync implements Closeable {
+
+    interface SyncAction {
+        void sync() throws IOException;
+    }
+
+    private final SyncAction action;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+
+    PeriodicSync(String name, long intervalMillis, SyncAction action) {
+        this.action = action;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "taskshell-fsync-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncIfDirty, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void markDirty() {
+        dirty.set(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dirty.getAndSet(false)) {
+            action.sync();
+        }
+    }
+
+    private void syncIfDirty() {
+        if (dirty.getAndSet(false)) {
+            try {
+                action.sync();
+            } catch (IOException e) {
+                // Try again on the next tick
+                dirty.set(true);
+            }
+        }
+    }
+}
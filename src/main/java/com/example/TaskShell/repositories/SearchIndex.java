@@ -0,0 +1,313 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.utils.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Full-text index over the descriptions of the tasks held by the {@link TaskRepository}.
+ * <p>
+ * Descriptions are split into lower-case tokens of letters and digits. Every token maps to the
+ * tasks holding it with its number of occurrences, in a sorted map so that a prefix is a range of
+ * tokens. Every trigram of a token maps to the tokens holding it, so that a substring of a token
+ * is found from the few tokens sharing its trigrams instead of from every token.
+ * <p>
+ * The index is updated with every change of a task. It is saved in tasks.search with the
+ * {@link StoreStamp} of the store it matches, and read back instead of rebuilt while the stamp matches.
+ */
+class SearchIndex {
+
+    static final String FILE_NAME = "tasks.search";
+
+    private static final int MAGIC = 0x54534B53; // "TSKS"
+    private static final int FORMAT_VERSION = 1;
+
+    // Weights of a query term matching a whole token, the start of a token, or a substring of a token
+    private static final double EXACT_WEIGHT = 1.0;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final double SUBSTRING_WEIGHT = 0.25;
+    // Longer tokens are cut, they are almost never searched for whole
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private final NavigableMap<String, Map<UUID, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+    void clear() {
+        postings.clear();
+        trigrams.clear();
+    }
+
+    /**
+     * Indexes the description of a task.
+     *
+     * @param task a task that isn't indexed yet, or the new state of one that was removed
+     */
+    void add(Task task) {
+        for (Map.Entry<String, Integer> token : countTokens(task.getDescription()).entrySet()) {
+            Map<UUID, Integer> tasks = postings.get(token.getKey());
+            if (tasks == null) {
+                tasks = new HashMap<>();
+                postings.put(token.getKey(), tasks);
+                addTrigrams(token.getKey());
+            }
+            tasks.put(task.getId(), token.getValue());
+        }
+    }
+
+    /**
+     * Removes the postings of a task.
+     *
+     * @param task the indexed state of the task
+     */
+    void remove(Task task) {
+        for (String token : countTokens(task.getDescription()).keySet()) {
+            Map<UUID, Integer> tasks = postings.get(token);
+            if (tasks != null) {
+                tasks.remove(task.getId());
+                if (tasks.isEmpty()) {
+                    postings.remove(token);
+                    removeTrigrams(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the tasks matching every term of a query, best first.
+     * A term matches a whole token, the start of a token, or for three characters or more, any part of a token.
+     * A term ending with '*' only matches whole tokens and their starts. Tasks are ranked by the sum of
+     * the TF-IDF of their matching tokens, weighted by how they matched, then by creation order.
+     *
+     * @param query the terms to look for
+     * @param tasks the indexed tasks, in creation order
+     * @param limit the maximum number of results
+     * @return the matching tasks, best first
+     */
+    List<Task> search(String query, Map<UUID, Task> tasks, int limit) {
+        List<String> terms = new ArrayList<>();
+        for (String word : query.split("\\s+")) {
+            List<String> tokens = tokenize(word);
+            if (!tokens.isEmpty() && word.endsWith("*")) {
+                tokens.set(tokens.size() - 1, tokens.get(tokens.size() - 1) + "*");
+            }
+            terms.addAll(tokens);
+        }
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<UUID, Double> scores = null;
+        for (String term : terms) {
+            Map<UUID, Double> termScores = score(term, tasks.size());
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<UUID, Double> both = new HashMap<>();
+                for (Map.Entry<UUID, Double> entry : scores.entrySet()) {
+                    Double termScore = termScores.get(entry.getKey());
+                    if (termScore != null) {
+                        both.put(entry.getKey(), entry.getValue() + termScore);
+                    }
+                }
+                scores = both;
+            }
+            if (scores.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+
+        Map<UUID, Integer> positions = new HashMap<>();
+        Map<UUID, Double> finalScores = scores;
+        List<Task> result = new ArrayList<>();
+        int position = 0;
+        for (Task task : tasks.values()) {
+            if (finalScores.containsKey(task.getId())) {
+                positions.put(task.getId(), position);
+                result.add(task);
+            }
+            position++;
+        }
+        result.sort(Comparator.<Task>comparingDouble(task -> -finalScores.get(task.getId()))
+                .thenComparingInt(task -> positions.get(task.getId())));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Reads the index saved for the given state of the store.
+     *
+     * @return false if there is no saved index or it was saved for another state of the store
+     */
+    boolean load(File file, StoreStamp stamp) throws IOException {
+        if (!file.exists()) {
+            return false;
+        }
+        clear();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                    || !new StoreStamp(in.readLong(), in.readLong(), in.readLong()).equals(stamp)) {
+                return false;
+            }
+            int tokenCount = in.readInt();
+            for (int i = 0; i < tokenCount; i++) {
+                String token = in.readUTF();
+                int taskCount = in.readInt();
+                Map<UUID, Integer> tasks = new HashMap<>(taskCount * 2);
+                for (int j = 0; j < taskCount; j++) {
+                    tasks.put(new UUID(in.readLong(), in.readLong()), in.readInt());
+                }
+                postings.put(token, tasks);
+                addTrigrams(token);
+            }
+            return true;
+        } catch (EOFException e) {
+            // Interrupted while saved
+            clear();
+            return false;
+        }
+    }
+
+    /**
+     * Saves the index as matching the given state of the store.
+     */
+    void save(File file, StoreStamp stamp) throws IOException {
+        FileUtils.writeAtomically(file, stream -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(stamp.lastModified());
+            out.writeLong(stamp.length());
+            out.writeLong(stamp.version());
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Map<UUID, Integer>> token : postings.entrySet()) {
+                out.writeUTF(token.getKey());
+                out.writeInt(token.getValue().size());
+                for (Map.Entry<UUID, Integer> task : token.getValue().entrySet()) {
+                    out.writeLong(task.getKey().getMostSignificantBits());
+                    out.writeLong(task.getKey().getLeastSignificantBits());
+                    out.writeInt(task.getValue());
+                }
+            }
+            out.flush();
+        });
+    }
+
+    // Private Helper Methods
+
+    /**
+     * Scores the tasks matching one query term, see {@link #search}.
+     */
+    private Map<UUID, Double> score(String term, int taskCount) {
+        boolean prefixOnly = term.endsWith("*");
+        String text = prefixOnly ? term.substring(0, term.length() - 1) : term;
+
+        Map<String, Double> matchingTokens = new LinkedHashMap<>();
+        for (String token : postings.subMap(text, true, text + Character.MAX_VALUE, false).keySet()) {
+            matchingTokens.put(token, token.equals(text) ? EXACT_WEIGHT : PREFIX_WEIGHT);
+        }
+        if (!prefixOnly && text.length() >= 3) {
+            for (String token : tokensContaining(text)) {
+                matchingTokens.putIfAbsent(token, SUBSTRING_WEIGHT);
+            }
+        }
+
+        Map<UUID, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Double> token : matchingTokens.entrySet()) {
+            Map<UUID, Integer> tasks = postings.get(token.getKey());
+            double idf = Math.log(1 + (double) taskCount / tasks.size());
+            for (Map.Entry<UUID, Integer> task : tasks.entrySet()) {
+                double score = token.getValue() * task.getValue() * idf;
+                scores.merge(task.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Finds the tokens holding a text from the tokens holding all of its trigrams.
+     */
+    private Set<String> tokensContaining(String text) {
+        Set<String> candidates = null;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            Set<String> tokens = trigrams.getOrDefault(text.substring(i, i + 3), Set.of());
+            if (candidates == null || tokens.size() < candidates.size()) {
+                candidates = tokens;
+            }
+        }
+        Set<String> result = new HashSet<>();
+        for (String token : candidates) {
+            if (token.contains(text)) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private void addTrigrams(String token) {
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            trigrams.computeIfAbsent(token.substring(i, i + 3), trigram -> new HashSet<>()).add(token);
+        }
+    }
+
+    private void removeTrigrams(String token) {
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            String trigram = token.substring(i, i + 3);
+            Set<String> tokens = trigrams.get(trigram);
+            if (tokens != null) {
+                tokens.remove(token);
+                if (tokens.isEmpty()) {
+                    trigrams.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Integer> countTokens(String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String token : tokenize(text)) {
+            counts.merge(token, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Splits a text into lower-case runs of letters and digits, cut to {@link #MAX_TOKEN_LENGTH}.
+     */
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean letterOrDigit = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                tokens.add(lowerCase.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
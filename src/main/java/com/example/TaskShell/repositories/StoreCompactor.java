@@ -0,0 +1,67 @@
+package com.example.TaskShell.repositories;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compacts the task store on a background thread once enough of it is garbage.
+ * At most one compaction runs at a time, checks made meanwhile are ignored.
+ */
+class StoreCompactor implements Closeable {
+
+    interface CompactAction {
+        void compact() throws IOException;
+    }
+
+    private final double ratio;
+    private final long minBytes;
+    private final CompactAction action;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor;
+
+    StoreCompactor(StoreSettings settings, CompactAction action) {
+        this.ratio = settings.compactionRatio();
+        this.minBytes = settings.compactionMinBytes();
+        this.action = action;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "taskshell-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a compaction if the store is large enough and its garbage ratio passed the threshold.
+     */
+    void maybeCompact(TaskStore store) throws IOException {
+        if (running.get() || store.getFiles().stream().mapToLong(File::length).sum() < minBytes || store.garbageRatio() < ratio) {
+            return;
+        }
+        if (running.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    action.compact();
+                } catch (IOException e) {
+                    // The garbage stays until the next attempt
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.TaskShell.repositories;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The available task storage engines.
+ */
+public enum StoreFormat {
+
+    /**
+     * Append-only JSON log, the default.
+     */
+    JSON(TaskLog.FILE_NAME),
+
+    /**
+     * Memory-mapped binary columns, for very large histories.
+     */
+    COLUMNAR(ColumnarTaskStore.FILE_NAME, ColumnarTaskStore.HEAP_FILE_NAME, ColumnarTaskStore.DICTIONARY_FILE_NAME),
+
+    /**
+     * One JSON log per month of due dates, for commands that only touch a few days.
+     */
+    PARTITIONED(PartitionedTaskStore.DIRECTORY_NAME + "/" + PartitionedTaskStore.MANIFEST_FILE_NAME),
+
+    /**
+     * JSON log compressed by blocks, for large histories kept on a small disk.
+     */
+    COMPRESSED(CompressedTaskStore.FILE_NAME, CompressedTaskStore.INDEX_FILE_NAME, CompressedTaskStore.TAIL_FILE_NAME);
+
+    private final String fileName;
+    private final List<String> fileNames;
+
+    StoreFormat(String fileName, String... otherFileNames) {
+        this.fileName = fileName;
+        this.fileNames = new ArrayList<>(List.of(fileName));
+        this.fileNames.addAll(List.of(otherFileNames));
+    }
+
+    /**
+     * @return every file a store of this format keeps in the directory
+     */
+    public List<File> getFiles(File directory) {
+        if (this == PARTITIONED) {
+            return PartitionedTaskStore.files(directory);
+        }
+        return fileNames.stream().map(name -> new File(directory, name)).toList();
+    }
+
+    public TaskStore open(File directory, ObjectMapper mapper, StoreSettings settings) throws IOException {
+        return switch (this) {
+            case JSON -> new TaskLog(new File(directory, fileName), mapper, settings);
+            case COLUMNAR -> new ColumnarTaskStore(directory, settings);
+            case PARTITIONED -> new PartitionedTaskStore(directory, mapper, settings);
+            case COMPRESSED -> new CompressedTaskStore(directory, mapper, settings);
+        };
+    }
+
+    /**
+     * Parses a format name, case insensitive.
+     *
+     * @throws IllegalArgumentException if the name isn't a known format
+     */
+    public static StoreFormat of(String name) {
+        return StoreFormat.valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * Finds the format of the store kept in a directory.
+     * The store found on disk wins, the default format is only used to create a new store.
+     *
+     * @param directory     the TaskShell directory
+     * @param defaultFormat the format of a new store
+     */
+    public static StoreFormat detect(File directory, StoreFormat defaultFormat) {
+        for (StoreFormat format : values()) {
+            if (format != JSON && new File(directory, format.fileName).exists()) {
+                return format;
+            }
+        }
+        if (new File(directory, JSON.fileName).exists()) {
+            return JSON;
+        }
+        return defaultFormat;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.TaskShell.repositories;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the writers of a task store, across threads and processes.
+ * <p>
+ * The lock is an exclusive {@link FileLock} on tasks.lock in the store directory, taken after an
+ * in-process lock since file locks are held on behalf of the whole JVM. The lock can be taken again
+ * by the thread holding it. tasks.lock also holds the sequence number of the store, advanced by every
+ * write: a session that finds a different sequence than the one it read the store at knows its
+ * cached tasks are stale.
+ * <p>
+ * The lock file of a directory is opened once and stays open for the life of the process: closing
+ * any descriptor of a file drops the POSIX locks the process holds on it.
+ * <p>
+ * Every process with an open session of the store also holds a shared lock on tasks.sessions, so that
+ * a change of the files of the store, such as a conversion, can wait to be the only session left.
+ */
+final class StoreLock {
+
+    static final String FILE_NAME = "tasks.lock";
+    static final String SESSIONS_FILE_NAME = "tasks.sessions";
+
+    interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    private static final Map<Path, Shared> SHARED = new ConcurrentHashMap<>();
+
+    /**
+     * The lock and the open lock file of a directory, shared by every store of the process.
+     */
+    private static final class Shared {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Path path;
+        private FileChannel channel;
+        private FileLock fileLock;
+        // Open sessions of the process, which holds the shared lock on the sessions file while there are some
+        private int sessions;
+        private FileChannel sessionsChannel;
+        private FileLock sessionsLock;
+
+        private Shared(Path path) {
+            this.path = path;
+        }
+
+        private synchronized FileChannel channel() throws IOException {
+            if (channel == null) {
+                Files.createDirectories(path.getParent());
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return channel;
+        }
+
+        private synchronized FileChannel sessionsChannel() throws IOException {
+            if (sessionsChannel == null) {
+                Files.createDirectories(path.getParent());
+                sessionsChannel = FileChannel.open(path.resolveSibling(SESSIONS_FILE_NAME),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return sessionsChannel;
+        }
+    }
+
+    private final Shared shared;
+    private boolean session;
+
+    StoreLock(File directory) {
+        Path path = directory.toPath().toAbsolutePath().normalize().resolve(FILE_NAME);
+        this.shared = SHARED.computeIfAbsent(path, Shared::new);
+    }
+
+    /**
+     * Runs an action holding the lock.
+     *
+     * @param action the critical section, keep it short: other processes wait for it to write
+     * @return what the action returned
+     * @throws IOException if the lock can't be taken or the action failed
+     */
+    <T> T locked(LockedAction<T> action) throws IOException {
+        shared.lock.lock();
+        try {
+            if (shared.lock.getHoldCount() == 1) {
+                shared.fileLock = shared.channel().lock();
+            }
+            try {
+                return action.run();
+            } finally {
+                if (shared.lock.getHoldCount() == 1) {
+                    shared.fileLock.release();
+                    shared.fileLock = null;
+                }
+            }
+        } finally {
+            shared.lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action holding the lock, once no other session of the store is open.
+     *
+     * @param action the critical section, which can change the files of the store
+     * @return what the action returned
+     * @throws IOException if another session is open, the lock can't be taken or the action failed
+     */
+    <T> T exclusive(LockedAction<T> action) throws IOException {
+        return locked(() -> {
+            synchronized (shared) {
+                if (shared.sessions > (session ? 1 : 0)) {
+                    throw new IOException("Another TaskShell session has the store open, close it first");
+                }
+                FileChannel channel = shared.sessionsChannel();
+                if (shared.sessionsLock != null) {
+                    shared.sessionsLock.release();
+                    shared.sessionsLock = null;
+                }
+                FileLock sessionsLock = null;
+                try {
+                    sessionsLock = channel.tryLock();
+                    if (sessionsLock == null) {
+                        throw new IOException("Another TaskShell process has the store open, close it first");
+                    }
+                    return action.run();
+                } finally {
+                    if (sessionsLock != null) {
+                        sessionsLock.release();
+                    }
+                    if (shared.sessions > 0) {
+                        shared.sessionsLock = channel.lock(0, Long.MAX_VALUE, true);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers a session of the store until {@link #closeSession()}, see {@link #exclusive}.
+     */
+    void openSession() throws IOException {
+        synchronized (shared) {
+            if (session) {
+                return;
+            }
+            if (shared.sessions == 0) {
+                shared.sessionsLock = shared.sessionsChannel().lock(0, Long.MAX_VALUE, true);
+            }
+            shared.sessions++;
+            session = true;
+        }
+    }
+
+    void closeSession() throws IOException {
+        synchronized (shared) {
+            if (!session) {
+                return;
+            }
+            session = false;
+            if (--shared.sessions == 0 && shared.sessionsLock != null) {
+                shared.sessionsLock.release();
+                shared.sessionsLock = null;
+            }
+        }
+    }
+
+    /**
+     * Reads the sequence number of the store, 0 until it was first written.
+     * Read without the lock, a value torn by a concurrent write only costs a needless replay.
+     */
+    long sequence() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        FileChannel channel = shared.channel();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                return 0;
+            }
+        }
+        return buffer.getLong(0);
+    }
+
+    /**
+     * Advances the sequence number of the store, to be called holding the lock once the store was written.
+     *
+     * @return the new sequence number
+     */
+    long advance() throws IOException {
+        if (!shared.lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("The store lock isn't held");
+        }
+        long sequence = sequence() + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, sequence);
+        FileChannel channel = shared.channel();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+        return sequence;
+    }
+}
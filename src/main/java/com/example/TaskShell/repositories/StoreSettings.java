@@ -0,0 +1,32 @@
+package com.example.TaskShell.repositories;
+
+/**
+ * Tuning of the task stores, see the taskshell.store.* and taskshell.history.* properties.
+ *
+ * @param fsyncPolicy             when writes are forced to the disk
+ * @param fsyncIntervalMillis     the interval of the {@link FsyncPolicy#INTERVAL} policy
+ * @param compactionRatio         share of superseded or deleted records that triggers a background compaction
+ * @param compactionMinBytes      size below which the store is never compacted in the background
+ * @param history                 whether every change is also kept in the {@link TaskHistory}
+ * @param historySnapshotMinBytes size of the events written since the last snapshot below which no snapshot is taken
+ * @param partitionGranularity    what a partition of a new {@link PartitionedTaskStore} covers
+ */
+public record StoreSettings(FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, double compactionRatio, long compactionMinBytes,
+                            boolean history, long historySnapshotMinBytes, PartitionGranularity partitionGranularity) {
+
+    public static final StoreSettings DEFAULT = new StoreSettings(FsyncPolicy.INTERVAL, 1000);
+
+    public StoreSettings(FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, double compactionRatio, long compactionMinBytes,
+                         boolean history, long historySnapshotMinBytes) {
+        this(fsyncPolicy, fsyncIntervalMillis, compactionRatio, compactionMinBytes, history, historySnapshotMinBytes,
+                PartitionGranularity.MONTH);
+    }
+
+    public StoreSettings(FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, double compactionRatio, long compactionMinBytes) {
+        this(fsyncPolicy, fsyncIntervalMillis, compactionRatio, compactionMinBytes, true, 1024 * 1024);
+    }
+
+    public StoreSettings(FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        this(fsyncPolicy, fsyncIntervalMillis, 0.5, 1024 * 1024);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.TaskShell.repositories;
+
+/**
+ * State of a {@link TaskStore} on disk as last seen by a session.
+ *
+ * @param lastModified modification time of the main file
+ * @param length       length of the main file
+ * @param version      mutation counter kept by stores that patch records in place, 0 otherwise
+ */
+public record StoreStamp(long lastModified, long length, long version) {
+}
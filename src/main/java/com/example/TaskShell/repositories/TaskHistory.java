@@ -0,0 +1,469 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskEvent;
+import com.example.TaskShell.models.TaskRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Every change ever written to the task store, to rebuild the tasks as they were at a given time.
+ * <p>
+ * Each record committed to the store is also appended to history/events.log as a {@link TaskEvent}
+ * holding the time of the commit and the offset of the previous event of its task. The first event of
+ * a copy made by move-todo points to the last event of the task it was copied from, so following the
+ * offsets back from the last event of a task gives its whole lineage.
+ * <p>
+ * Once the events written since the last snapshot outweigh it, the state of every task is saved as
+ * history/snapshot-&lt;offset&gt;-&lt;time&gt;.json, with the offset of the last event of every task in the
+ * matching .heads file. The tasks at a given time are then the nearest earlier snapshot and the
+ * events following it, never more than the size of a snapshot, instead of the whole history; the
+ * snapshots take at most as much space as the events.
+ * <p>
+ * Events are appended by the session committing them, under the {@link StoreLock} of the directory.
+ * The time of an event comes from the clock of that session, the state at a given time assumes it
+ * doesn't go back. A store that already held tasks when its history started gets a first snapshot at
+ * offset 0, nothing earlier is known.
+ */
+public class TaskHistory implements Closeable {
+
+    public static final String DIRECTORY_NAME = "history";
+    static final String EVENTS_FILE_NAME = "events.log";
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".json";
+    private static final String HEADS_SUFFIX = ".heads";
+    private static final byte NEW_LINE = '\n';
+
+    /**
+     * Reads the tasks to save in a snapshot, only when one is due.
+     */
+    public interface TaskSource {
+        Collection<Task> tasks() throws IOException;
+    }
+
+    /**
+     * The state of every task once the events before offset were applied.
+     */
+    private record Snapshot(File file, long offset, long time) {
+
+        File headsFile() {
+            return new File(file.getPath().replace(SNAPSHOT_SUFFIX, HEADS_SUFFIX));
+        }
+    }
+
+    private interface EventVisitor {
+        /**
+         * @return false to stop reading
+         */
+        boolean visit(TaskEvent event);
+    }
+
+    private final File directory;
+    private final File eventsFile;
+    private final ObjectMapper mapper;
+    private final StoreSettings settings;
+    private final TaskMetrics metrics;
+    private FileChannel channel;
+    private PeriodicSync periodicSync;
+
+    // Offset of the last event of every task, valid up to headsOffset, -1 until read
+    private final Map<UUID, Long> heads = new HashMap<>();
+    private long headsOffset = -1;
+    private long lastSnapshotOffset;
+    private long lastSnapshotBytes;
+    // Whether the history holds anything, once checked
+    private boolean started;
+
+    public TaskHistory(File storeDirectory, ObjectMapper mapper, StoreSettings settings, TaskMetrics metrics) {
+        this.directory = new File(storeDirectory, DIRECTORY_NAME);
+        this.eventsFile = new File(directory, EVENTS_FILE_NAME);
+        this.mapper = mapper;
+        this.settings = settings;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Saves the tasks of a store whose history starts now, to be called under the lock before its first change.
+     *
+     * @param store the store about to be changed
+     */
+    public synchronized void prepare(TaskStore store) throws IOException {
+        if (started) {
+            return;
+        }
+        if (eventsFile.length() == 0 && !store.isEmpty() && snapshots().isEmpty()) {
+            writeSnapshot(0, System.currentTimeMillis(), store.loadAll());
+        }
+        started = true;
+    }
+
+    /**
+     * Appends the records just committed to the store, to be called under the lock.
+     *
+     * @param records the committed records
+     * @param time    when they were committed
+     * @param tasks   reads every task once they are applied, saved if a snapshot is due
+     * @throws IOException if the history can't be written
+     */
+    public synchronized void append(List<TaskRecord> records, long time, TaskSource tasks) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        long start = metrics.start();
+        try {
+            readHeads();
+            FileChannel events = channel();
+            long length = events.size();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * records.size());
+            if (length > 0) {
+                // An interrupted write may have left a partial line, never glue an event to it
+                ByteBuffer last = ByteBuffer.allocate(1);
+                events.read(last, length - 1);
+                if (last.get(0) != NEW_LINE) {
+                    buffer.write(NEW_LINE);
+                }
+            }
+            Map<UUID, Long> written = new HashMap<>();
+            for (TaskRecord record : records) {
+                Long prev = written.containsKey(record.taskId()) ? written.get(record.taskId()) : heads.get(record.taskId());
+                if (prev == null && record.getOrigin() != null) {
+                    prev = heads.get(record.getOrigin());
+                }
+                written.put(record.taskId(), length + buffer.size());
+                buffer.write(mapper.writeValueAsBytes(new TaskEvent(time, record, prev != null ? prev : -1)));
+                buffer.write(NEW_LINE);
+            }
+
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                events.write(bytes, length + bytes.position());
+            }
+            switch (settings.fsyncPolicy()) {
+                case ALWAYS -> events.force(false);
+                case INTERVAL -> periodicSync.markDirty();
+                case NEVER -> {
+                }
+            }
+            heads.putAll(written);
+            headsOffset = length + buffer.size();
+        } catch (IOException | RuntimeException e) {
+            // Read again from the file next time
+            headsOffset = -1;
+            throw e;
+        } finally {
+            metrics.stop("history.write", start);
+        }
+
+        if (headsOffset - lastSnapshotOffset >= Math.max(settings.historySnapshotMinBytes(), lastSnapshotBytes)) {
+            // Unless another session saved one meanwhile
+            Snapshot latest = latestSnapshot();
+            if (latest == null || headsOffset - latest.offset() >= Math.max(settings.historySnapshotMinBytes(), latest.file().length())) {
+                writeSnapshot(headsOffset, time, tasks.tasks());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the tasks as they were at a given time.
+     *
+     * @param time milliseconds since 01/01/1970 UTC
+     * @return the tasks in creation order, or null if the history starts later
+     * @throws IOException if the history can't be read
+     */
+    public synchronized List<Task> tasksAt(long time) throws IOException {
+        List<Snapshot> snapshots = snapshots();
+        Snapshot base = null;
+        for (Snapshot snapshot : snapshots) {
+            if (snapshot.time() <= time) {
+                base = snapshot;
+            }
+        }
+        if (base == null && !snapshots.isEmpty() && snapshots.get(0).offset() == 0) {
+            return null;
+        }
+
+        Map<UUID, Task> tasks = new LinkedHashMap<>();
+        if (base != null) {
+            long start = metrics.start();
+            for (Task task : readSnapshot(base)) {
+                tasks.put(task.getId(), task);
+            }
+            metrics.stop("history.snapshot-read", start);
+        }
+        long[] replayed = new long[1];
+        readEvents(base != null ? base.offset() : 0, event -> {
+            if (event.getTime() > time) {
+                return false;
+            }
+            if (event.getOp() == TaskRecord.Operation.DELETE) {
+                tasks.remove(event.getId());
+            } else {
+                tasks.put(event.getId(), event.getTask());
+            }
+            replayed[0]++;
+            return true;
+        });
+        metrics.add("history.events-replayed", replayed[0]);
+        return new ArrayList<>(tasks.values());
+    }
+
+    /**
+     * Finds every change of a task, and of the tasks it was copied from.
+     *
+     * @param id the ID of the task
+     * @return the events, oldest first, none if the task has no history
+     * @throws IOException if the history can't be read
+     */
+    public synchronized List<TaskEvent> events(UUID id) throws IOException {
+        readHeads();
+        List<TaskEvent> events = new ArrayList<>();
+        Long offset = heads.get(id);
+        if (offset == null) {
+            return events;
+        }
+        try (FileChannel reader = FileChannel.open(eventsFile.toPath(), StandardOpenOption.READ)) {
+            while (offset >= 0) {
+                TaskEvent event = readEventAt(reader, offset);
+                events.add(event);
+                // Events only point back, anything else is a damaged history
+                if (event.getPrev() >= offset) {
+                    break;
+                }
+                offset = event.getPrev();
+            }
+        }
+        Collections.reverse(events);
+        return events;
+    }
+
+    /**
+     * @return the time of the first snapshot or event, -1 for an empty history
+     */
+    public synchronized long startTime() throws IOException {
+        List<Snapshot> snapshots = snapshots();
+        if (!snapshots.isEmpty() && snapshots.get(0).offset() == 0) {
+            return snapshots.get(0).time();
+        }
+        long[] first = {-1};
+        readEvents(0, event -> {
+            first[0] = event.getTime();
+            return false;
+        });
+        return first[0];
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (periodicSync != null) {
+            periodicSync.close();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // Private Helper Methods
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            directory.mkdirs();
+            channel = FileChannel.open(eventsFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (settings.fsyncPolicy() == FsyncPolicy.INTERVAL) {
+                periodicSync = new PeriodicSync(DIRECTORY_NAME, settings.fsyncIntervalMillis(), () -> channel.force(false));
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Brings the last event of every task up to date with the events written since it was last read,
+     * starting from the latest snapshot the first time.
+     */
+    private void readHeads() throws IOException {
+        if (headsOffset < 0) {
+            heads.clear();
+            headsOffset = 0;
+            lastSnapshotOffset = 0;
+            lastSnapshotBytes = 0;
+            Snapshot latest = latestSnapshot();
+            if (latest != null) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(latest.headsFile().toPath())))) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        heads.put(new UUID(in.readLong(), in.readLong()), in.readLong());
+                    }
+                }
+                headsOffset = latest.offset();
+            }
+        }
+        if (eventsFile.length() > headsOffset) {
+            headsOffset = readEvents(headsOffset, event -> {
+                heads.put(event.getId(), event.getOffset());
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Reads the complete events following an offset, skipping the partial lines left by interrupted writes.
+     *
+     * @return the offset following the last complete line read
+     */
+    private long readEvents(long from, EventVisitor visitor) throws IOException {
+        long offset = from;
+        try (InputStream in = Channels.newInputStream(FileChannel.open(eventsFile.toPath(), StandardOpenOption.READ).position(from))) {
+            byte[] chunk = new byte[1 << 16];
+            ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                int lineStart = 0;
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] != NEW_LINE) {
+                        continue;
+                    }
+                    line.write(chunk, lineStart, i - lineStart);
+                    lineStart = i + 1;
+                    long lineOffset = offset;
+                    offset += line.size() + 1;
+                    if (line.size() > 0) {
+                        TaskEvent event = parse(line.toByteArray(), lineOffset);
+                        line.reset();
+                        if (event != null && !visitor.visit(event)) {
+                            return lineOffset;
+                        }
+                    }
+                }
+                line.write(chunk, lineStart, read - lineStart);
+            }
+        } catch (NoSuchFileException e) {
+            return from;
+        }
+        return offset;
+    }
+
+    private TaskEvent readEventAt(FileChannel reader, long offset) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+        ByteBuffer chunk = ByteBuffer.allocate(1024);
+        long position = offset;
+        while (true) {
+            chunk.clear();
+            int read = reader.read(chunk, position);
+            if (read < 0) {
+                throw new IOException("The history ends within the event at offset " + offset);
+            }
+            for (int i = 0; i < read; i++) {
+                if (chunk.get(i) == NEW_LINE) {
+                    line.write(chunk.array(), 0, i);
+                    TaskEvent event = parse(line.toByteArray(), offset);
+                    if (event == null) {
+                        throw new IOException("The history is damaged at offset " + offset);
+                    }
+                    return event;
+                }
+            }
+            line.write(chunk.array(), 0, read);
+            position += read;
+        }
+    }
+
+    private TaskEvent parse(byte[] line, long offset) throws IOException {
+        try {
+            TaskEvent event = mapper.readValue(line, TaskEvent.class);
+            event.setOffset(offset);
+            return event;
+        } catch (JsonProcessingException e) {
+            // The end of an interrupted write
+            return null;
+        }
+    }
+
+    private List<Snapshot> snapshots() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX));
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (File file : files != null ? files : new File[0]) {
+            String[] parts = file.getName().substring(SNAPSHOT_PREFIX.length(), file.getName().length() - SNAPSHOT_SUFFIX.length()).split("-");
+            try {
+                snapshots.add(new Snapshot(file, Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                // Not one of ours
+            }
+        }
+        snapshots.sort(Comparator.comparingLong(Snapshot::offset));
+        return snapshots;
+    }
+
+    private Snapshot latestSnapshot() {
+        List<Snapshot> snapshots = snapshots();
+        Snapshot latest = snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+        if (latest != null) {
+            lastSnapshotOffset = latest.offset();
+            lastSnapshotBytes = latest.file().length();
+        }
+        return latest;
+    }
+
+    private List<Task> readSnapshot(Snapshot snapshot) throws IOException {
+        return mapper.readValue(snapshot.file(), mapper.getTypeFactory().constructCollectionType(List.class, Task.class));
+    }
+
+    /**
+     * Saves the tasks and the heads, the .json file last so that a listed snapshot is always complete.
+     */
+    private void writeSnapshot(long offset, long time, Collection<Task> tasks) throws IOException {
+        long start = metrics.start();
+        directory.mkdirs();
+        Snapshot snapshot = new Snapshot(new File(directory, SNAPSHOT_PREFIX + offset + "-" + time + SNAPSHOT_SUFFIX), offset, time);
+        Path heads = snapshot.headsFile().toPath();
+        Path headsTemporary = Path.of(heads + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(headsTemporary)))) {
+            out.writeInt(offset == 0 ? 0 : this.heads.size());
+            if (offset > 0) {
+                for (Map.Entry<UUID, Long> head : this.heads.entrySet()) {
+                    out.writeLong(head.getKey().getMostSignificantBits());
+                    out.writeLong(head.getKey().getLeastSignificantBits());
+                    out.writeLong(head.getValue());
+                }
+            }
+        }
+        Files.move(headsTemporary, heads, StandardCopyOption.REPLACE_EXISTING);
+
+        Path temporary = Path.of(snapshot.file() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+            mapper.writeValue(out, tasks);
+        }
+        Files.move(temporary, snapshot.file().toPath(), StandardCopyOption.REPLACE_EXISTING);
+        lastSnapshotOffset = offset;
+        lastSnapshotBytes = snapshot.file().length();
+        metrics.stop("history.snapshot-write", start);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.utils.DateUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Secondary indexes over the tasks held by the {@link TaskRepository}.
+ * <p>
+ * Tasks are posted by date (sorted by epoch day), status and category. Every posting list is ordered by the
+ * sequence the task got when it was first indexed, so results keep the creation order of the
+ * tasks even after they were updated. A lookup costs the size of the smallest matching posting
+ * list instead of the number of stored tasks, a date range costs the size of the dates it covers.
+ */
+class TaskIndex {
+
+    private static final NavigableMap<Long, Task> NO_POSTINGS = new TreeMap<>();
+
+    private final Map<UUID, Long> sequences = new HashMap<>();
+    private long nextSequence;
+
+    private final NavigableMap<Integer, NavigableMap<Long, Task>> byDate = new TreeMap<>();
+    // Dates that don't follow the dd/MM/yyyy format can only be matched exactly
+    private final Map<String, NavigableMap<Long, Task>> byUnparsedDate = new HashMap<>();
+    private final Map<TaskStatus, NavigableMap<Long, Task>> byStatus = new EnumMap<>(TaskStatus.class);
+    private final Map<String, NavigableMap<Long, Task>> byCategory = new HashMap<>();
+
+    void clear() {
+        sequences.clear();
+        nextSequence = 0;
+        byDate.clear();
+        byUnparsedDate.clear();
+        byStatus.clear();
+        byCategory.clear();
+    }
+
+    /**
+     * Posts a task in every index.
+     *
+     * @param task a task that isn't indexed yet, or the new state of one that was removed
+     */
+    void add(Task task) {
+        Long sequence = sequences.computeIfAbsent(task.getId(), id -> nextSequence++);
+        if (task.getEpochDay() != DateUtils.NO_EPOCH_DAY) {
+            postings(byDate, task.getEpochDay()).put(sequence, task);
+        } else if (task.getDate() != null) {
+            postings(byUnparsedDate, task.getDate()).put(sequence, task);
+        }
+        if (task.getStatus() != null) {
+            postings(byStatus, task.getStatus()).put(sequence, task);
+        }
+        if (task.getCategory() != null) {
+            postings(byCategory, task.getCategory()).put(sequence, task);
+        }
+    }
+
+    /**
+     * Removes the postings of a task.
+     *
+     * @param task       the indexed state of the task
+     * @param forgetTask whether the task is deleted, an updated task keeps its sequence
+     */
+    void remove(Task task, boolean forgetTask) {
+        Long sequence = sequences.get(task.getId());
+        if (sequence == null) {
+            return;
+        }
+        if (task.getEpochDay() != DateUtils.NO_EPOCH_DAY) {
+            removePosting(byDate, task.getEpochDay(), sequence);
+        } else if (task.getDate() != null) {
+            removePosting(byUnparsedDate, task.getDate(), sequence);
+        }
+        if (task.getStatus() != null) {
+            removePosting(byStatus, task.getStatus(), sequence);
+        }
+        if (task.getCategory() != null) {
+            removePosting(byCategory, task.getCategory(), sequence);
+        }
+        if (forgetTask) {
+            sequences.remove(task.getId());
+        }
+    }
+
+    /**
+     * Finds the tasks matching every given criterion.
+     * Only the smallest posting list is walked, the other criteria are checked on its tasks.
+     *
+     * @param date     the due date, null for any date
+     * @param status   the status, null for any status
+     * @param category the category, null for any category
+     * @return the matching tasks in creation order, or null if no criterion was given
+     */
+    List<Task> find(String date, TaskStatus status, String category) {
+        int epochDay = DateUtils.toEpochDay(date);
+        NavigableMap<Long, Task> datePostings = null;
+        NavigableMap<Long, Task> statusPostings = null;
+        NavigableMap<Long, Task> categoryPostings = null;
+        if (date != null) {
+            datePostings = epochDay != DateUtils.NO_EPOCH_DAY
+                    ? byDate.getOrDefault(epochDay, NO_POSTINGS)
+                    : byUnparsedDate.getOrDefault(date, NO_POSTINGS);
+        }
+        if (status != null) {
+            statusPostings = byStatus.getOrDefault(status, NO_POSTINGS);
+        }
+        if (category != null) {
+            categoryPostings = byCategory.getOrDefault(category, NO_POSTINGS);
+        }
+
+        NavigableMap<Long, Task> smallest = Stream.of(datePostings, statusPostings, categoryPostings)
+                .filter(Objects::nonNull)
+                .min(Comparator.comparingInt(Map::size))
+                .orElse(null);
+        if (smallest == null) {
+            return null;
+        }
+
+        // The criterion that produced the walked posting list is already satisfied
+        boolean checkDate = datePostings != null && datePostings != smallest;
+        boolean checkStatus = statusPostings != null && statusPostings != smallest;
+        boolean checkCategory = categoryPostings != null && categoryPostings != smallest;
+        List<Task> result = new ArrayList<>(smallest.size());
+        for (Task task : smallest.values()) {
+            if (checkDate && !sameDate(task, date, epochDay)) {
+                continue;
+            }
+            if (checkStatus && task.getStatus() != status) {
+                continue;
+            }
+            if (checkCategory && !Objects.equals(task.getCategory(), category)) {
+                continue;
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the tasks due between two dates and matching the other given criteria.
+     * Only the postings of the dates in the range are walked.
+     *
+     * @param fromEpochDay the first day of the range, included
+     * @param toEpochDay   the last day of the range, included
+     * @param status       the status, null for any status
+     * @param category     the category, null for any category
+     * @return the matching tasks by date, then in creation order
+     */
+    List<Task> findBetween(int fromEpochDay, int toEpochDay, TaskStatus status, String category) {
+        List<Task> result = new ArrayList<>();
+        if (fromEpochDay > toEpochDay) {
+            return result;
+        }
+        for (NavigableMap<Long, Task> postings : byDate.subMap(fromEpochDay, true, toEpochDay, true).values()) {
+            for (Task task : postings.values()) {
+                if ((status == null || task.getStatus() == status)
+                        && (category == null || Objects.equals(task.getCategory(), category))) {
+                    result.add(task);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Private Helper Methods
+
+    private static boolean sameDate(Task task, String date, int epochDay) {
+        if (epochDay == DateUtils.NO_EPOCH_DAY) {
+            return Objects.equals(task.getDate(), date);
+        }
+        return task.getEpochDay() == epochDay;
+    }
+
+    private static <K> NavigableMap<Long, Task> postings(Map<K, NavigableMap<Long, Task>> index, K key) {
+        return index.computeIfAbsent(key, k -> new TreeMap<>());
+    }
+
+    private static <K> void removePosting(Map<K, NavigableMap<Long, Task>> index, K key, Long sequence) {
+        NavigableMap<Long, Task> postings = index.get(key);
+        if (postings != null) {
+            postings.remove(sequence);
+            if (postings.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
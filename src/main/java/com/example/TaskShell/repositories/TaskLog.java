@@ -0,0 +1,414 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.utils.FileUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Append-only task store.
+ * <p>
+ * Every mutation is written as one JSON line at the end of the file, so the cost of a write
+ * does not depend on how many tasks are stored. The current state is rebuilt by replaying
+ * the records in order, the last record for a given ID wins.
+ * Appends go through a {@link LogWriter}, which forces them to the disk as the {@link FsyncPolicy} says.
+ * <p>
+ * Superseded and deleted records pile up until the log is compacted: the live tasks are written
+ * to a fresh file while appends go on, then the records appended in the meantime are copied after
+ * them and the fresh file is renamed over the log. Appends only wait during that last step.
+ * <p>
+ * Processes sharing the log must append holding the {@link StoreLock} of its directory, as the
+ * {@link TaskRepository} does. The compaction takes it to read the size of the log and to replace it.
+ */
+public class TaskLog implements TaskStore {
+
+    public static final String FILE_NAME = "tasks.log";
+
+    private static final byte NEW_LINE = '\n';
+    private static final String COMPACTION_SUFFIX = ".compact";
+
+    private final File file;
+    private final ObjectMapper mapper;
+    private final StoreSettings settings;
+    private final TaskLogScanner scanner;
+    private final StoreLock lock;
+    private final Object compactionLock = new Object();
+    private LogWriter writer;
+
+    // Known once the log was replayed, used to estimate the garbage ratio
+    private final Object statsLock = new Object();
+    private final Set<UUID> liveIds = new HashSet<>();
+    private long recordCount = -1;
+
+    public TaskLog(File file, ObjectMapper mapper, StoreSettings settings) {
+        this(file, mapper, settings, new StoreLock(file.getAbsoluteFile().getParentFile()));
+    }
+
+    /**
+     * @param lock the lock its writers hold, when the log isn't the only file of the store
+     */
+    TaskLog(File file, ObjectMapper mapper, StoreSettings settings, StoreLock lock) {
+        this.file = file;
+        this.mapper = mapper;
+        this.settings = settings;
+        this.scanner = new TaskLogScanner(mapper);
+        this.lock = lock;
+    }
+
+    public TaskLog(File file, ObjectMapper mapper) {
+        this(file, mapper, StoreSettings.DEFAULT);
+    }
+
+    @Override
+    public StoreFormat getFormat() {
+        return StoreFormat.JSON;
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public List<File> getFiles() {
+        return List.of(file);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return file.length() == 0;
+    }
+
+    @Override
+    public StoreStamp stamp() {
+        return new StoreStamp(file.lastModified(), file.length(), 0);
+    }
+
+    /**
+     * Appends the new state of a task to the log.
+     *
+     * @param task the created or updated task
+     * @throws IOException if an error occurs during file writing
+     */
+    public void put(Task task) throws IOException {
+        append(List.of(TaskRecord.put(task)));
+    }
+
+    /**
+     * Appends a deletion record to the log.
+     *
+     * @param id the ID of the deleted task
+     * @throws IOException if an error occurs during file writing
+     */
+    public void delete(UUID id) throws IOException {
+        append(List.of(TaskRecord.delete(id)));
+    }
+
+    /**
+     * Appends several records with a single write.
+     *
+     * @param records the records to append, in order
+     * @throws IOException if an error occurs during file writing
+     */
+    @Override
+    public void append(List<TaskRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * records.size());
+        for (TaskRecord record : records) {
+            buffer.write(mapper.writeValueAsBytes(record));
+            buffer.write(NEW_LINE);
+        }
+        writer().append(buffer.toByteArray());
+        count(records);
+    }
+
+    /**
+     * @return the share of superseded and deleted records, 0 until the log was replayed once
+     */
+    @Override
+    public double garbageRatio() {
+        synchronized (statsLock) {
+            return recordCount > 0 ? 1 - (double) liveIds.size() / recordCount : 0;
+        }
+    }
+
+    /**
+     * Rewrites the live tasks into a fresh log, see the class comment.
+     *
+     * @return the sizes of the log before and after
+     * @throws IOException if the log can't be read or the fresh log can't be written
+     */
+    @Override
+    public CompactionResult compact() throws IOException {
+        synchronized (compactionLock) {
+            long start = System.nanoTime();
+            LogWriter writer = writer();
+            long copiedLength = lock.locked(() -> writer.exclusive(() -> {
+                if (writer.replaced()) {
+                    writer.reopen();
+                }
+                return writer.size();
+            }));
+            long appendedBefore;
+            synchronized (statsLock) {
+                appendedBefore = recordCount;
+            }
+
+            Map<UUID, Task> tasks = new LinkedHashMap<>();
+            try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                InputStream in = new ByteBufferBackedInputStream(source.map(FileChannel.MapMode.READ_ONLY, 0, copiedLength));
+                replay(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), tasks);
+            }
+
+            Path compacted = file.toPath().resolveSibling(file.getName() + COMPACTION_SUFFIX);
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(target));
+                for (Task task : tasks.values()) {
+                    out.write(mapper.writeValueAsBytes(TaskRecord.put(task)));
+                    out.write(NEW_LINE);
+                }
+                out.flush();
+
+                CompactionResult result = lock.locked(() -> writer.exclusive(() -> {
+                    if (writer.replaced()) {
+                        // Another process compacted the log meanwhile, this copy is stale
+                        return null;
+                    }
+                    StoreStamp replacedStamp = stamp();
+                    long bytesBefore = writer.size();
+                    try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                        long position = copiedLength;
+                        while (position < bytesBefore) {
+                            position += source.transferTo(position, bytesBefore - position, target);
+                        }
+                    }
+                    target.force(false);
+                    Files.move(compacted, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    FileUtils.syncDirectory(file.toPath().toAbsolutePath().getParent());
+                    writer.reopen();
+                    return new CompactionResult(bytesBefore, file.length(), (System.nanoTime() - start) / 1_000_000,
+                            replacedStamp, stamp());
+                }));
+                if (result == null) {
+                    StoreStamp stamp = stamp();
+                    return new CompactionResult(stamp.length(), stamp.length(), (System.nanoTime() - start) / 1_000_000,
+                            stamp, stamp);
+                }
+
+                synchronized (statsLock) {
+                    if (appendedBefore >= 0) {
+                        recordCount = tasks.size() + recordCount - appendedBefore;
+                    }
+                }
+                return result;
+            } finally {
+                Files.deleteIfExists(compacted);
+            }
+        }
+    }
+
+    /**
+     * Forces the appended records to the disk, whatever the fsync policy.
+     */
+    public synchronized void sync() throws IOException {
+        if (writer != null) {
+            writer.sync();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Waits for a running compaction, it must not rename a file over a closed log
+        synchronized (compactionLock) {
+            synchronized (this) {
+                if (writer != null) {
+                    writer.close();
+                    writer = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the current list of tasks by replaying every record of the log.
+     *
+     * @return the live tasks, in creation order
+     * @throws IOException if an error occurs during file reading
+     */
+    @Override
+    public List<Task> loadAll() throws IOException {
+        Map<UUID, Task> tasks = new LinkedHashMap<>();
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+
+        long records;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            records = replay(reader, tasks);
+        }
+        synchronized (statsLock) {
+            recordCount = records;
+            liveIds.clear();
+            liveIds.addAll(tasks.keySet());
+        }
+        return new ArrayList<>(tasks.values());
+    }
+
+    /**
+     * Streams the live tasks in the order of their last change: a first pass finds the last record of
+     * every task, a second one visits the tasks as their last record is read. Only the IDs are held in
+     * memory. Both passes read the log as it was when the first one started, a compaction meanwhile
+     * replaces the file but not the open one.
+     */
+    @Override
+    public long forEach(TaskVisitor visitor) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            // Line of the last record of every task, negative once deleted
+            Map<UUID, Long> lastLines = new HashMap<>();
+            long lines = 0;
+            try (BufferedReader reader = reader(channel, length)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    TaskRecord record = parse(line);
+                    if (record != null) {
+                        lastLines.put(record.taskId(), record.getOp() == TaskRecord.Operation.DELETE ? -1 : lines);
+                    }
+                    lines++;
+                }
+            }
+
+            long visited = 0;
+            long lineNumber = 0;
+            try (BufferedReader reader = reader(channel, length)) {
+                for (String line = reader.readLine(); line != null && lineNumber < lines; line = reader.readLine()) {
+                    TaskRecord record = parse(line);
+                    if (record != null && record.getOp() == TaskRecord.Operation.PUT
+                            && lastLines.get(record.taskId()) == lineNumber) {
+                        visitor.visit(record.getTask());
+                        visited++;
+                    }
+                    lineNumber++;
+                }
+            }
+            return visited;
+        }
+    }
+
+    /**
+     * Streams the log, binding only the tasks that match, see {@link TaskLogScanner}.
+     */
+    @Override
+    public List<Task> scan(String date, TaskStatus status, String category) throws IOException {
+        return scanner.scan(file, date, status, category);
+    }
+
+    // Private Helper Methods
+
+    /**
+     * Opens the writer on the first append, a session that only reads never creates the log.
+     */
+    private synchronized LogWriter writer() throws IOException {
+        if (writer == null) {
+            writer = new LogWriter(file.toPath(), settings);
+        }
+        return writer;
+    }
+
+    /**
+     * Reads the first bytes of an open log from its start, leaving the channel open.
+     */
+    private static BufferedReader reader(FileChannel channel, long length) throws IOException {
+        InputStream in = new ByteBufferBackedInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Applies every record read from the reader to the tasks.
+     *
+     * @return the number of records
+     */
+    private long replay(BufferedReader reader, Map<UUID, Task> tasks) throws IOException {
+        long records = 0;
+        String line = reader.readLine();
+        while (line != null) {
+            TaskRecord record = parse(line);
+            if (record != null) {
+                apply(tasks, record);
+                records++;
+            }
+            line = reader.readLine();
+        }
+        return records;
+    }
+
+    private void count(List<TaskRecord> records) {
+        synchronized (statsLock) {
+            if (recordCount < 0) {
+                return;
+            }
+            recordCount += records.size();
+            for (TaskRecord record : records) {
+                switch (record.getOp()) {
+                    case PUT -> liveIds.add(record.taskId());
+                    case DELETE -> liveIds.remove(record.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses one line of the log.
+     * A line that can't be parsed is the trace of an interrupted write, it never held a
+     * committed change and is skipped.
+     */
+    private TaskRecord parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return mapper.readValue(line, TaskRecord.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static void apply(Map<UUID, Task> tasks, TaskRecord record) {
+        switch (record.getOp()) {
+            case PUT -> tasks.put(record.getTask().getId(), record.getTask());
+            case DELETE -> tasks.remove(record.getId());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Streaming, projection-aware reader of the task log.
+ * <p>
+ * Records are cut out of a reusable byte buffer and walked with Jackson's token API. Only the
+ * ID, date, status and category of a task are looked at; the other fields are skipped without
+ * being decoded. A {@link Task} is bound only for records that match the filter, so memory
+ * follows the number of matching tasks instead of the size of the log.
+ */
+class TaskLogScanner {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper mapper;
+    private final JsonFactory factory;
+
+    TaskLogScanner(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.factory = mapper.getFactory();
+    }
+
+    /**
+     * Replays the log keeping only the tasks whose last state matches every given criterion.
+     *
+     * @param file     the task log
+     * @param date     the due date, null for any date
+     * @param status   the status, null for any status
+     * @param category the category, null for any category
+     * @return the matching tasks
+     * @throws IOException if an error occurs during file reading
+     */
+    List<Task> scan(File file, String date, TaskStatus status, String category) throws IOException {
+        Map<UUID, Task> matches = new LinkedHashMap<>();
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int start = 0;
+            int end = 0;
+            int searchFrom = 0;
+            while (true) {
+                int newLine = indexOfNewLine(buffer, searchFrom, end);
+                if (newLine >= 0) {
+                    scanRecord(buffer, start, newLine - start, date, status, category, matches);
+                    start = newLine + 1;
+                    searchFrom = start;
+                    continue;
+                }
+
+                // No complete record left in the buffer, keep the partial one and read more
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                }
+                if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                searchFrom = end;
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    if (end > start) {
+                        scanRecord(buffer, start, end - start, date, status, category, matches);
+                    }
+                    break;
+                }
+                end += read;
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    // Private Helper Methods
+
+    private void scanRecord(byte[] buffer, int offset, int length, String date, TaskStatus status, String category,
+                            Map<UUID, Task> matches) throws IOException {
+        TaskRecord.Operation op = null;
+        UUID recordId = null;
+        Projection projection = null;
+
+        try (JsonParser parser = factory.createParser(buffer, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "op" -> op = TaskRecord.Operation.valueOf(parser.getText());
+                    case "id" -> recordId = UUID.fromString(parser.getText());
+                    case "task" -> projection = readProjection(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // Trace of an interrupted write, see TaskLog
+            return;
+        }
+
+        if (op == TaskRecord.Operation.DELETE && recordId != null) {
+            matches.remove(recordId);
+        } else if (op == TaskRecord.Operation.PUT && projection != null && projection.id != null) {
+            if (projection.matches(date, status, category)) {
+                Task task = mapper.readValue(buffer, offset, length, TaskRecord.class).getTask();
+                matches.put(projection.id, task);
+            } else {
+                matches.remove(projection.id);
+            }
+        }
+    }
+
+    private static Projection readProjection(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        Projection projection = new Projection();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id" -> projection.id = UUID.fromString(parser.getText());
+                case "status" -> projection.status = parser.getText();
+                case "date" -> projection.date = parser.getText();
+                case "category" -> projection.category = parser.getText();
+                // The description is never decoded
+                default -> parser.skipChildren();
+            }
+        }
+        return projection;
+    }
+
+    private static int indexOfNewLine(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The fields of a task that filters look at.
+     */
+    private static class Projection {
+        UUID id;
+        String status;
+        String date;
+        String category;
+
+        boolean matches(String date, TaskStatus status, String category) {
+            return (date == null || Objects.equals(this.date, date))
+                    && (status == null || Objects.equals(this.status, status.name()))
+                    && (category == null || Objects.equals(this.category, category));
+        }
+    }
+}
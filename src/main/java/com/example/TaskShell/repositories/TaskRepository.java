@@ -0,0 +1,796 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskEvent;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Shared in-memory view of the task store.
+ * <p>
+ * The store is read once and kept in memory for the whole session. It is read again only
+ * when it was changed by someone else, which is detected from its {@link StoreStamp}.
+ * Tasks are keyed by ID, so ID-based commands look up and replace a single task in constant time.
+ * Date, status and category lookups are answered from a {@link TaskIndex} maintained on every change,
+ * text lookups from a {@link SearchIndex} saved beside the store when the repository is closed.
+ * Until something needs the whole store, lookups use {@link TaskStore#scan} instead, so a session
+ * that only lists tasks never holds them all in memory.
+ * <p>
+ * Once enough of the store is garbage, it is compacted on a background thread by a {@link StoreCompactor}.
+ * <p>
+ * Writes can be deferred, e.g. while running a batch of commands: changes are then applied in memory
+ * only, and only the last record of each task is written on {@link #flush()}.
+ * <p>
+ * Several sessions, in this process or others, can share the store: writes hold the {@link StoreLock}
+ * of the directory and advance its sequence number. A session whose tasks were read at an older
+ * sequence reads the store again under the lock and replays its changes on top, field by field,
+ * instead of overwriting the changes of the others with its stale copy of the tasks. The tasks found by a
+ * scan are kept as the base of their changes, which are always replayed on the tasks as they are when written.
+ * <p>
+ * The format of the store only changes while no other session has it open, see {@link #convertTo}. A session
+ * that finds the store converted anyway, by a version that doesn't wait for the others, refuses to write.
+ * <p>
+ * A session that hasn't read the tasks of a {@link PartitionedTaskStore} yet, such as a one-shot add or move-todo,
+ * writes without reading them: it has no stale copy to rebase, and the store only opens the partitions of the
+ * changed days.
+ * <p>
+ * Unless taskshell.history.enabled is false, the committed changes are also kept in a {@link TaskHistory},
+ * which rebuilds the tasks as they were at a given time and lists the changes of a task.
+ */
+@Repository
+public class TaskRepository {
+
+    // Defaults of the taskshell.store.* and taskshell.history.* properties, also read without Spring
+    public static final String DEFAULT_FORMAT = "json";
+    public static final String DEFAULT_FSYNC = "interval";
+    public static final String DEFAULT_FSYNC_INTERVAL_MS = "1000";
+    public static final String DEFAULT_COMPACTION_RATIO = "0.5";
+    public static final String DEFAULT_COMPACTION_MIN_BYTES = "1048576";
+    public static final String DEFAULT_PARTITION_BY = "month";
+    public static final String DEFAULT_HISTORY_ENABLED = "true";
+    public static final String DEFAULT_HISTORY_SNAPSHOT_MIN_BYTES = "1048576";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final File directory;
+    private final StoreSettings settings;
+    private final File legacyTasksFile;
+    private final TaskIndex taskIndex = new TaskIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final File searchIndexFile;
+    private final StoreCompactor compactor;
+    private final TaskMetrics metrics;
+    private final StoreLock lock;
+    // Null when the history is disabled
+    private final TaskHistory history;
+
+    private TaskStore store;
+    // Keeps the creation order, replacing a task doesn't move it
+    private Map<UUID, Task> tasks;
+    private StoreStamp loadedStamp;
+    // Sequence number of the store when it was last read or written by this session
+    private long loadedSequence;
+    // State of the store the saved search index matches
+    private StoreStamp searchIndexStamp;
+    // Last pending record by task while writes are deferred, null otherwise
+    private Map<UUID, TaskRecord> deferredRecords;
+    // State of each task before its first deferred change, null for the tasks created meanwhile
+    private Map<UUID, Task> deferredBases;
+    // Whether a deferred change was made to a scanned task
+    private boolean deferredRebase;
+    private int deferDepth;
+    // The tasks as returned by the scans, the base of the changes made to them. Once the tasks are
+    // loaded, only those changed or deleted since their scan are kept, the others have the loaded state as base
+    private final Map<UUID, Task> scannedTasks = new HashMap<>();
+
+    @Autowired
+    public TaskRepository(@Value("${taskshell.home:${user.home}/TaskShell}") File directory,
+                          @Value("${taskshell.store.default-format:" + DEFAULT_FORMAT + "}") String defaultFormat,
+                          @Value("${taskshell.store.fsync:" + DEFAULT_FSYNC + "}") String fsyncPolicy,
+                          @Value("${taskshell.store.fsync-interval-ms:" + DEFAULT_FSYNC_INTERVAL_MS + "}") long fsyncIntervalMillis,
+                          @Value("${taskshell.store.compaction-ratio:" + DEFAULT_COMPACTION_RATIO + "}") double compactionRatio,
+                          @Value("${taskshell.store.compaction-min-bytes:" + DEFAULT_COMPACTION_MIN_BYTES + "}") long compactionMinBytes,
+                          @Value("${taskshell.store.partition-by:" + DEFAULT_PARTITION_BY + "}") String partitionGranularity,
+                          @Value("${taskshell.history.enabled:" + DEFAULT_HISTORY_ENABLED + "}") boolean history,
+                          @Value("${taskshell.history.snapshot-min-bytes:" + DEFAULT_HISTORY_SNAPSHOT_MIN_BYTES + "}") long historySnapshotMinBytes,
+                          TaskMetrics metrics) throws IOException {
+        this(directory, StoreFormat.of(defaultFormat), new StoreSettings(FsyncPolicy.of(fsyncPolicy), fsyncIntervalMillis,
+                compactionRatio, compactionMinBytes, history, historySnapshotMinBytes,
+                PartitionGranularity.of(partitionGranularity)), metrics);
+    }
+
+    public TaskRepository(File directory, StoreFormat defaultFormat, StoreSettings settings) throws IOException {
+        this(directory, defaultFormat, settings, new TaskMetrics());
+    }
+
+    public TaskRepository(File directory, StoreFormat defaultFormat, StoreSettings settings, TaskMetrics metrics) throws IOException {
+        this.directory = directory;
+        this.metrics = metrics;
+        this.settings = settings;
+        this.legacyTasksFile = new File(directory, "tasks.json");
+        this.searchIndexFile = new File(directory, SearchIndex.FILE_NAME);
+        this.lock = new StoreLock(directory);
+        // Before detecting the format, a conversion in progress is waited for
+        lock.openSession();
+        this.store = StoreFormat.detect(directory, defaultFormat).open(directory, mapper, settings);
+        this.compactor = new StoreCompactor(settings, this::compact);
+        this.history = settings.history() ? new TaskHistory(directory, mapper, settings, metrics) : null;
+        metrics.gauge("store.bytes", this::storeBytes);
+        metrics.gauge("store.tasks-loaded", this::loadedTasks);
+        metrics.gauge("store.tasks-scanned", this::scannedTasks);
+    }
+
+    public TaskRepository(File directory) throws IOException {
+        this(directory, StoreFormat.JSON, StoreSettings.DEFAULT);
+    }
+
+    public File getFile() {
+        return store.getFile();
+    }
+
+    public synchronized TaskStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return true if no task was ever stored
+     */
+    public synchronized boolean isEmpty() throws IOException {
+        if (tasks == null && store.isEmpty() && legacyTasksFile.length() > 0) {
+            load();
+        }
+        return store.isEmpty() && (deferredRecords == null || deferredRecords.isEmpty());
+    }
+
+    /**
+     * The returned tasks are the ones kept in memory, unlike {@link #findById}: change a copy of a task,
+     * never the task itself.
+     *
+     * @return the live tasks, in creation order
+     * @throws IOException if the log can't be read
+     */
+    public synchronized List<Task> findAll() throws IOException {
+        return List.copyOf(tasks().values());
+    }
+
+    /**
+     * Passes every live task to a visitor, one at a time. Once the tasks are in memory they are visited
+     * in creation order, as copies. Until then, they are streamed from the store and never all held in
+     * memory, see {@link TaskStore#forEach}.
+     *
+     * @param visitor gets each task
+     * @return the number of visited tasks
+     * @throws IOException if the store can't be read or the visitor failed
+     */
+    public synchronized long forEach(TaskStore.TaskVisitor visitor) throws IOException {
+        if (tasks == null && !(store.isEmpty() && legacyTasksFile.length() > 0)) {
+            return store.forEach(visitor);
+        }
+        Map<UUID, Task> current = tasks();
+        for (Task task : current.values()) {
+            visitor.visit(task.clone());
+        }
+        return current.size();
+    }
+
+    /**
+     * Finds the tasks matching every given criterion, using the secondary indexes once the
+     * tasks are loaded and a streaming scan of the log before that.
+     *
+     * @param date     the due date, null for any date
+     * @param status   the status, null for any status
+     * @param category the category, null for any category
+     * @return the matching tasks, in creation order
+     * @throws IOException if the log can't be read
+     */
+    public synchronized List<Task> find(String date, TaskStatus status, String category) throws IOException {
+        if (tasks == null && (date != null || status != null || category != null)) {
+            long start = metrics.start();
+            List<Task> matching = store.scan(date, status, category);
+            matching.forEach(task -> scannedTasks.put(task.getId(), task.clone()));
+            metrics.stop("store.scan", start);
+            metrics.add("store.bytes-read", store.scanLength(date));
+            return Collections.unmodifiableList(matching);
+        }
+        Map<UUID, Task> current = tasks();
+        List<Task> result = taskIndex.find(date, status, category);
+        return result != null ? Collections.unmodifiableList(result) : List.copyOf(current.values());
+    }
+
+    /**
+     * Finds the tasks due between two dates, from the sorted date index.
+     *
+     * @param fromEpochDay the first day of the range, included
+     * @param toEpochDay   the last day of the range, included
+     * @param status       the status, null for any status
+     * @param category     the category, null for any category
+     * @return the matching tasks by date, then in creation order
+     * @throws IOException if the log can't be read
+     */
+    public synchronized List<Task> findBetween(int fromEpochDay, int toEpochDay, TaskStatus status, String category) throws IOException {
+        tasks();
+        return Collections.unmodifiableList(taskIndex.findBetween(fromEpochDay, toEpochDay, status, category));
+    }
+
+    /**
+     * Finds the tasks whose description matches every term of a query, best first, see {@link SearchIndex#search}.
+     *
+     * @param query the terms to look for
+     * @param limit the maximum number of results
+     * @return the matching tasks, best first
+     * @throws IOException if the log can't be read
+     */
+    public synchronized List<Task> search(String query, int limit) throws IOException {
+        return Collections.unmodifiableList(searchIndex.search(query, tasks(), limit));
+    }
+
+    /**
+     * Finds a task by its ID.
+     * The returned task is a copy, changes are only visible to others once it is saved.
+     *
+     * @param taskID the ID of the task
+     * @return the task or null if it doesn't exist
+     * @throws IOException if the log can't be read
+     */
+    public synchronized Task findById(String taskID) throws IOException {
+        UUID id;
+        try {
+            id = UUID.fromString(taskID);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Task task = tasks().get(id);
+        return task != null ? task.clone() : null;
+    }
+
+    /**
+     * Stores a new task or the new state of an existing one.
+     *
+     * @param task the task to store
+     * @throws IOException if the log can't be written
+     */
+    public synchronized void save(Task task) throws IOException {
+        saveAll(List.of(task));
+    }
+
+    /**
+     * Stores several tasks with a single write to the log.
+     *
+     * @param updatedTasks the tasks to store
+     * @throws IOException if the log can't be written
+     */
+    public synchronized void saveAll(List<Task> updatedTasks) throws IOException {
+        write(updatedTasks.stream().map(TaskRecord::put).toList());
+    }
+
+    /**
+     * Stores the copies of tasks with a single write to the log, keeping in the history which task each
+     * one was copied from.
+     *
+     * @param copies    the new tasks
+     * @param originals the tasks they were copied from, in the same order
+     * @throws IOException if the log can't be written
+     */
+    public synchronized void saveCopies(List<Task> copies, List<Task> originals) throws IOException {
+        List<TaskRecord> records = new ArrayList<>(copies.size());
+        for (int i = 0; i < copies.size(); i++) {
+            records.add(TaskRecord.copy(copies.get(i), originals.get(i).getId()));
+        }
+        write(records);
+    }
+
+    /**
+     * Deletes a task.
+     *
+     * @param task the task to delete
+     * @throws IOException if the log can't be written
+     */
+    public synchronized void delete(Task task) throws IOException {
+        write(List.of(TaskRecord.delete(task.getId())));
+    }
+
+    /**
+     * Deletes several tasks with a single write to the log.
+     *
+     * @param deletedTasks the tasks to delete
+     * @throws IOException if the log can't be written
+     */
+    public synchronized void deleteAll(List<Task> deletedTasks) throws IOException {
+        write(deletedTasks.stream().map(task -> TaskRecord.delete(task.getId())).toList());
+    }
+
+    /**
+     * @return whether the changes are kept in a history
+     */
+    public boolean hasHistory() {
+        return history != null;
+    }
+
+    /**
+     * Rebuilds the tasks as they were at a given time, from the history.
+     *
+     * @param time milliseconds since 01/01/1970 UTC
+     * @return the tasks in creation order, or null if the history starts later
+     * @throws IOException if the history can't be read
+     */
+    public List<Task> findAsOf(long time) throws IOException {
+        return requireHistory().tasksAt(time);
+    }
+
+    /**
+     * Finds every change of a task, including the ones of the tasks it was copied from.
+     *
+     * @param taskID the ID of the task
+     * @return the changes, oldest first, none if the task has no history
+     * @throws IOException if the history can't be read
+     */
+    public List<TaskEvent> findHistory(String taskID) throws IOException {
+        UUID id;
+        try {
+            id = UUID.fromString(taskID);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+        return requireHistory().events(id);
+    }
+
+    /**
+     * @return when the history starts in milliseconds since 01/01/1970 UTC, -1 if it is empty
+     * @throws IOException if the history can't be read
+     */
+    public long historyStart() throws IOException {
+        return requireHistory().startTime();
+    }
+
+    /**
+     * Keeps the following changes in memory until {@link #flush()} or the matching {@link #endDeferredWrites()}.
+     * Calls can be nested.
+     */
+    public synchronized void deferWrites() {
+        if (deferDepth++ == 0) {
+            deferredRecords = new LinkedHashMap<>();
+            deferredBases = new HashMap<>();
+        }
+    }
+
+    /**
+     * Writes the pending changes and, once every {@link #deferWrites()} call is matched, writes the following
+     * changes right away again.
+     *
+     * @throws IOException if the store can't be written, the changes are then still pending and written
+     *                     with the next change
+     */
+    public synchronized void endDeferredWrites() throws IOException {
+        if (deferDepth == 0) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            deferDepth--;
+            endDeferredWritesIfFlushed();
+        }
+    }
+
+    /**
+     * Writes the changes deferred so far with a single append.
+     *
+     * @return the number of written records
+     * @throws IOException if the store can't be written, the changes are then still pending
+     */
+    public synchronized int flush() throws IOException {
+        if (deferredRecords == null || deferredRecords.isEmpty()) {
+            return 0;
+        }
+        List<TaskRecord> records = List.copyOf(deferredRecords.values());
+        int written = commit(records, deferredBases, true, deferredRebase);
+        deferredRecords.clear();
+        deferredBases.clear();
+        deferredRebase = false;
+        compactor.maybeCompact(store);
+        return written;
+    }
+
+    /**
+     * Compacts the store without holding the repository, so other commands go on meanwhile.
+     * The loaded tasks stay valid: a compacted store holds the same tasks.
+     *
+     * @return the sizes of the store before and after
+     * @throws IOException if the store can't be compacted
+     */
+    public CompactionResult compact() throws IOException {
+        TaskStore compacted = getStore();
+        CompactionResult result = compacted.compact();
+        synchronized (this) {
+            // Unless someone else changed the store in between, don't read it again
+            if (store == compacted && result.replacedStamp().equals(loadedStamp) && store.stamp().equals(result.compactedStamp())) {
+                loadedStamp = result.compactedStamp();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies every task into a new store of the given format and switches to it.
+     * The files of the previous store are kept with a .bak suffix.
+     * Other sessions would go on writing to the previous store, so they must all be closed first.
+     *
+     * @param format the format to convert to
+     * @return the number of converted tasks
+     * @throws IOException if another session has the store open, or a store can't be read or written
+     */
+    public synchronized int convertTo(StoreFormat format) throws IOException {
+        return lock.exclusive(() -> convert(format));
+    }
+
+    /**
+     * Closes the store, forcing the pending writes to the disk.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        // Outside of the lock, a running compaction needs it to finish
+        compactor.close();
+        synchronized (this) {
+            try {
+                flush();
+                saveSearchIndex();
+            } finally {
+                try {
+                    store.close();
+                    if (history != null) {
+                        history.close();
+                    }
+                } finally {
+                    lock.closeSession();
+                }
+            }
+        }
+    }
+
+    // Private Helper Methods
+
+    /**
+     * Returns the cached tasks, reading the store again if it changed since it was last read.
+     * Pending deferred changes are never dropped, the store is then read again after the flush.
+     */
+    private Map<UUID, Task> tasks() throws IOException {
+        boolean pending = deferredRecords != null && !deferredRecords.isEmpty();
+        if (tasks == null || !pending && !store.stamp().equals(loadedStamp)) {
+            load();
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes the pending records and the new state of the loaded tasks, replaying them on top of the
+     * changes of the other sessions if the store was written since it was read, see the class comment.
+     *
+     * @param records the records to write
+     * @param bases   the state of their tasks before the change, null for new tasks
+     * @param applied whether the records are already applied to the loaded tasks
+     * @param rebase  whether some bases were scanned, the records are then replayed even if the store didn't change
+     * @return the number of written records
+     */
+    private int commit(List<TaskRecord> records, Map<UUID, Task> bases, boolean applied, boolean rebase) throws IOException {
+        return lock.locked(() -> {
+            List<TaskRecord> written = records;
+            boolean stale = lock.sequence() != loadedSequence;
+            if (stale) {
+                checkFormat();
+            }
+            boolean replayed = stale || rebase;
+            if (replayed) {
+                if (stale || applied) {
+                    load();
+                }
+                written = replay(records, bases);
+                metrics.add("store.replayed-records", written.size());
+            }
+            long time = System.currentTimeMillis();
+            if (history != null) {
+                history.prepare(store);
+            }
+            append(written);
+            if (replayed || !applied) {
+                apply(written);
+            }
+            loadedSequence = lock.advance();
+            markLoaded();
+            appendHistory(written, time, tasks::values);
+            return written.size();
+        });
+    }
+
+    /**
+     * Writes records without reading the tasks, for a session that never read them, see the class comment.
+     */
+    private int commitUnloaded(List<TaskRecord> records) throws IOException {
+        return lock.locked(() -> {
+            checkFormat();
+            long time = System.currentTimeMillis();
+            if (history != null) {
+                history.prepare(store);
+            }
+            append(records);
+            lock.advance();
+            appendHistory(records, time, store::loadAll);
+            return records.size();
+        });
+    }
+
+    /**
+     * Refuses to write to a store that was converted by another session, which writes to the new one.
+     */
+    private void checkFormat() throws IOException {
+        StoreFormat format = StoreFormat.detect(directory, store.getFormat());
+        if (format != store.getFormat()) {
+            throw new IOException("The task store was converted to " + format.name().toLowerCase()
+                    + " by another session, restart TaskShell");
+        }
+    }
+
+    /**
+     * Writes the following changes right away once no deferral is left and the pending changes are written.
+     */
+    private void endDeferredWritesIfFlushed() {
+        if (deferDepth == 0 && deferredRecords.isEmpty()) {
+            deferredRecords = null;
+            deferredBases = null;
+        }
+    }
+
+    private void appendHistory(List<TaskRecord> records, long time, TaskHistory.TaskSource tasks) throws IOException {
+        if (history == null) {
+            return;
+        }
+        try {
+            history.append(records, time, tasks);
+        } catch (IOException e) {
+            throw new IOException("The changes were saved but not their history: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Appends records to the store, or keeps them for the next flush while writes are deferred.
+     * The loaded tasks are updated either way.
+     */
+    private void write(List<TaskRecord> records) throws IOException {
+        Map<UUID, Task> bases = deferredBases != null ? deferredBases : new HashMap<>();
+        boolean rebase = false;
+        for (TaskRecord record : records) {
+            Task scanned = scannedTasks.remove(record.taskId());
+            if (scanned != null && !bases.containsKey(record.taskId())) {
+                bases.put(record.taskId(), scanned);
+                rebase = true;
+            }
+        }
+        if (!rebase && tasks == null && deferredRecords == null && store.isPartitioned()
+                && !(store.isEmpty() && legacyTasksFile.length() > 0)) {
+            commitUnloaded(records);
+            compactor.maybeCompact(store);
+            return;
+        }
+        // The tasks as last read, not read again: a change must be rebased from the state it was made on
+        Map<UUID, Task> current = tasks != null ? tasks : tasks();
+        for (TaskRecord record : records) {
+            if (!bases.containsKey(record.taskId())) {
+                bases.put(record.taskId(), current.get(record.taskId()));
+            }
+        }
+        if (deferredRecords != null) {
+            deferredRebase |= rebase;
+            records.forEach(record -> deferredRecords.put(record.taskId(), record));
+            apply(records);
+            if (deferDepth == 0) {
+                // Changes left by a failed flush, written with this one
+                flush();
+                endDeferredWritesIfFlushed();
+            }
+            return;
+        }
+        commit(records, bases, false, rebase);
+        compactor.maybeCompact(store);
+    }
+
+    /**
+     * Rebases changes made to stale tasks on the tasks just read: the fields a change set are set on
+     * the current state of its task, the others keep their current value. Changes to tasks deleted
+     * meanwhile are dropped, the deletion wins.
+     */
+    private List<TaskRecord> replay(List<TaskRecord> records, Map<UUID, Task> bases) {
+        List<TaskRecord> replayed = new ArrayList<>(records.size());
+        for (TaskRecord record : records) {
+            Task base = bases.get(record.taskId());
+            if (record.getOp() == TaskRecord.Operation.DELETE || base == null) {
+                replayed.add(record);
+                continue;
+            }
+            Task current = tasks.get(record.taskId());
+            if (current == null) {
+                continue;
+            }
+            Task changed = record.getTask();
+            Task merged = current.clone();
+            if (!Objects.equals(changed.getDescription(), base.getDescription())) {
+                merged.setDescription(changed.getDescription());
+            }
+            if (!Objects.equals(changed.getDate(), base.getDate())) {
+                merged.setDate(changed.getDate());
+            }
+            if (changed.getStatus() != base.getStatus()) {
+                merged.setStatus(changed.getStatus());
+            }
+            if (!Objects.equals(changed.getCategory(), base.getCategory())) {
+                merged.setCategory(changed.getCategory());
+            }
+            replayed.add(TaskRecord.put(merged));
+        }
+        return replayed;
+    }
+
+    /**
+     * Applies records to the loaded tasks and to their indexes.
+     */
+    private void apply(List<TaskRecord> records) {
+        for (TaskRecord record : records) {
+            boolean deleted = record.getOp() == TaskRecord.Operation.DELETE;
+            Task previous = deleted ? tasks.remove(record.getId()) : tasks.put(record.taskId(), record.getTask());
+            if (previous != null) {
+                taskIndex.remove(previous, deleted);
+                searchIndex.remove(previous);
+            }
+            if (!deleted) {
+                taskIndex.add(record.getTask());
+                searchIndex.add(record.getTask());
+            }
+        }
+    }
+
+    private int convert(StoreFormat format) throws IOException {
+        flush();
+        List<Task> current = List.copyOf(tasks().values());
+        for (File file : format.getFiles(directory)) {
+            Files.deleteIfExists(file.toPath());
+        }
+
+        TaskStore converted = format.open(directory, mapper, settings);
+        try {
+            converted.append(current.stream().map(TaskRecord::put).toList());
+        } catch (IOException | RuntimeException e) {
+            converted.close();
+            for (File file : converted.getFiles()) {
+                Files.deleteIfExists(file.toPath());
+            }
+            throw e;
+        }
+
+        store.close();
+        for (File file : store.getFiles()) {
+            if (file.exists()) {
+                Files.move(file.toPath(), new File(file.getPath() + ".bak").toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        store = converted;
+        markLoaded();
+        loadedSequence = lock.advance();
+        return current.size();
+    }
+
+    /**
+     * Appends records to the store, measuring the time and the bytes it takes.
+     */
+    private void append(List<TaskRecord> records) throws IOException {
+        long start = metrics.start();
+        long lengthBefore = store.stamp().length();
+        store.append(records);
+        metrics.stop("store.write", start);
+        metrics.add("store.records-written", records.size());
+        metrics.add("store.bytes-written", Math.max(store.stamp().length() - lengthBefore, 0));
+    }
+
+    private void load() throws IOException {
+        directory.mkdirs();
+        if (store.isEmpty() && legacyTasksFile.length() > 0) {
+            lock.locked(() -> {
+                // Unless another session imported them first
+                if (store.isEmpty()) {
+                    importLegacyTasks();
+                    lock.advance();
+                }
+                return null;
+            });
+        }
+        // Read first, a write landing while the store is read makes it look stale, never up to date
+        long sequence = lock.sequence();
+        long start = metrics.start();
+        tasks = new LinkedHashMap<>();
+        taskIndex.clear();
+        for (Task task : store.loadAll()) {
+            tasks.put(task.getId(), task);
+            taskIndex.add(task);
+        }
+        markLoaded();
+        loadedSequence = sequence;
+        scannedTasks.entrySet().removeIf(entry -> sameState(entry.getValue(), tasks.get(entry.getKey())));
+        metrics.stop("store.parse", start);
+        metrics.add("store.bytes-read", loadedStamp.length());
+        metrics.add("store.tasks-parsed", tasks.size());
+
+        if (searchIndex.load(searchIndexFile, loadedStamp)) {
+            searchIndexStamp = loadedStamp;
+        } else {
+            searchIndex.clear();
+            tasks.values().forEach(searchIndex::add);
+        }
+    }
+
+    /**
+     * Saves the search index unless the saved one is up to date, or the store changed since it was read.
+     */
+    private void saveSearchIndex() throws IOException {
+        if (tasks == null || loadedStamp.equals(searchIndexStamp) || !store.stamp().equals(loadedStamp)) {
+            return;
+        }
+        searchIndex.save(searchIndexFile, loadedStamp);
+        searchIndexStamp = loadedStamp;
+    }
+
+    /**
+     * Copies the tasks of the tasks.json array written by previous versions into the store.
+     */
+    private void importLegacyTasks() throws IOException {
+        List<Task> legacyTasks = mapper.readValue(legacyTasksFile, mapper.getTypeFactory().constructCollectionType(List.class, Task.class));
+        store.append(legacyTasks.stream().map(TaskRecord::put).toList());
+    }
+
+    private TaskHistory requireHistory() {
+        if (history == null) {
+            throw new IllegalStateException("The history is disabled, see taskshell.history.enabled");
+        }
+        return history;
+    }
+
+    private void markLoaded() throws IOException {
+        loadedStamp = store.stamp();
+    }
+
+    private synchronized long storeBytes() {
+        return store.getFiles().stream().mapToLong(File::length).sum();
+    }
+
+    private synchronized long loadedTasks() {
+        return tasks != null ? tasks.size() : 0;
+    }
+
+    private synchronized long scannedTasks() {
+        return scannedTasks.size();
+    }
+
+    /**
+     * Whether a scanned task is unchanged in the store, false if it was deleted.
+     */
+    private static boolean sameState(Task scanned, Task current) {
+        return current != null && Objects.equals(scanned.getDescription(), current.getDescription())
+                && Objects.equals(scanned.getDate(), current.getDate()) && scanned.getStatus() == current.getStatus()
+                && Objects.equals(scanned.getCategory(), current.getCategory());
+    }
+
+}
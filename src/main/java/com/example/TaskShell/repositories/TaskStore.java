@@ -0,0 +1,114 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Storage engine behind the {@link TaskRepository}.
+ * Mutations are handed over as {@link TaskRecord}s, the engine decides how to persist them.
+ */
+public interface TaskStore extends Closeable {
+
+    interface TaskVisitor {
+        void visit(Task task) throws IOException;
+    }
+
+    StoreFormat getFormat();
+
+    /**
+     * @return the main file of the store
+     */
+    File getFile();
+
+    /**
+     * @return every file owned by the store
+     */
+    List<File> getFiles();
+
+    /**
+     * @return true if nothing was ever written to the store
+     */
+    boolean isEmpty() throws IOException;
+
+    /**
+     * Identifies the state of the store on disk, a different stamp means the store was changed.
+     */
+    StoreStamp stamp() throws IOException;
+
+    /**
+     * @return the live tasks, in creation order, by partition first for a {@link PartitionedTaskStore}
+     */
+    List<Task> loadAll() throws IOException;
+
+    /**
+     * Passes the live tasks to a visitor one at a time. By default they are all read first, stores that can
+     * stream them hold only a few at once.
+     *
+     * @return the number of visited tasks
+     */
+    default long forEach(TaskVisitor visitor) throws IOException {
+        List<Task> tasks = loadAll();
+        for (Task task : tasks) {
+            visitor.visit(task);
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Reads only the tasks matching every given criterion, without materializing the others.
+     *
+     * @param date     the due date, null for any date
+     * @param status   the status, null for any status
+     * @param category the category, null for any category
+     * @return the matching tasks
+     */
+    List<Task> scan(String date, TaskStatus status, String category) throws IOException;
+
+    /**
+     * @param date the due date of a {@link #scan}, null for any date
+     * @return the number of bytes the scan reads
+     */
+    default long scanLength(String date) throws IOException {
+        return stamp().length();
+    }
+
+    /**
+     * @return whether the store is split so that a write only reads the part it changes, the
+     * {@link TaskRepository} then writes without reading every task first
+     */
+    default boolean isPartitioned() {
+        return false;
+    }
+
+    /**
+     * Persists a batch of mutations, in order.
+     */
+    void append(List<TaskRecord> records) throws IOException;
+
+    /**
+     * @return the share of the records that were superseded or deleted, from 0 to 1
+     */
+    default double garbageRatio() throws IOException {
+        return 0;
+    }
+
+    /**
+     * Rewrites the live records into a fresh copy of the store, dropping superseded and deleted ones.
+     * Stores that update their records in place have nothing to reclaim.
+     */
+    default CompactionResult compact() throws IOException {
+        long size = getFiles().stream().mapToLong(File::length).sum();
+        StoreStamp stamp = stamp();
+        return new CompactionResult(size, size, 0, stamp, stamp);
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -1,55 +1,72 @@
 package com.example.TaskShell.services;
 
+import com.example.TaskShell.metrics.TaskMetrics;
 import com.example.TaskShell.models.ANSIColors;
-import com.example.TaskShell.utils.FileUtils;
+import com.example.TaskShell.repositories.CategoryRegistry;
 import org.jline.reader.LineReader;
 import org.jline.reader.LineReaderBuilder;
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 
 @Service
 public class CategoryService {
+
+    private final CategoryRegistry categoryRegistry;
+    private final TaskMetrics metrics;
+
+    public CategoryService(CategoryRegistry categoryRegistry) {
+        this(categoryRegistry, new TaskMetrics());
+    }
+
+    @Autowired
+    public CategoryService(CategoryRegistry categoryRegistry, TaskMetrics metrics) {
+        this.categoryRegistry = categoryRegistry;
+        this.metrics = metrics;
+    }
+
     public String createAndInsertCategory(
-            File categoriesFile,
             String name
     ) throws IOException {
-
-            BufferedWriter writer = new BufferedWriter(new FileWriter(categoriesFile, true));
-            if(categoriesFile.length() == 0) {
-                writer.write(name);
-            }
-            else {
-                writer.newLine();
-                writer.append(name);
-
+        long start = metrics.start();
+        try {
+            if(!categoryRegistry.add(name)) {
+                return ANSIColors.redText(String.format("Category '%s' already exists", name));
             }
-            writer.close();
             return ANSIColors.greenText("[√] Category created successfully");
+        } finally {
+            metrics.stop("category.create", start);
+        }
+    }
 
+    /**
+     * @param category the name of a category
+     * @return true if the category exists, without offering to create it
+     */
+    public boolean exists(String category) throws IOException {
+        return categoryRegistry.contains(category);
     }
 
-    public List<String> displayCategories(File file) throws IOException {
-        List<String> categoryList = new ArrayList<>();
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        String line = reader.readLine();
-        while(line != null) {
-            categoryList.add(line);
-            line = reader.readLine();
+    public List<String> displayCategories() throws IOException {
+        long start = metrics.start();
+        try {
+            return categoryRegistry.findAll();
+        } finally {
+            metrics.stop("category.list", start);
         }
-        reader.close();
-        return categoryList;
     }
 
 
-    public boolean verifyCategory(File file, String category) throws IOException {
-        List<String> categoryList = this.displayCategories(file);
-        if(!categoryList.contains(category)) {
+    public boolean verifyCategory(String category) throws IOException {
+        long start = metrics.start();
+        boolean exists = categoryRegistry.contains(category);
+        metrics.stop("category.lookup", start);
+        if(!exists) {
             Terminal terminal = TerminalBuilder.terminal();
             LineReader lineReader = LineReaderBuilder.builder().terminal(terminal).build();
             System.out.println(ANSIColors.greenText(String.format("Category '%s' does not exist !", category)));
@@ -57,7 +74,7 @@ public class CategoryService {
                 String input = lineReader.readLine("Do you want to create it (y/n) ").toLowerCase().trim();
 
                 if(Arrays.asList("yes", "y").contains(input)) {
-                    this.createAndInsertCategory(file, category);
+                    this.createAndInsertCategory(category);
                     break;
                 }
                 if(Arrays.asList("no", "n").contains(input)) {
@@ -74,21 +91,17 @@ public class CategoryService {
         } else return true;
     }
 
-    public boolean deleteCategory(File file, String category) throws IOException {
-        List<String> categoryList = this.displayCategories(file);
-        if(!categoryList.contains(category)) {
-            System.out.println(ANSIColors.redText("Category '%s' doesn't exist"));
-            return false;
-        }
-        categoryList.remove(category);
-        FileUtils.emptyFile(file);
-        BufferedWriter writer = new BufferedWriter(new FileWriter(file));
-        for(String cat : categoryList) {
-            System.out.println(cat);
-            writer.write(cat + System.getProperty("line.separator"));
-        }
-        writer.close();
+    public boolean deleteCategory(String category) throws IOException {
+        long start = metrics.start();
+        try {
+            if(!categoryRegistry.remove(category)) {
+                System.out.println(ANSIColors.redText(String.format("Category '%s' doesn't exist", category)));
+                return false;
+            }
 
-        return true;
+            return true;
+        } finally {
+            metrics.stop("category.delete", start);
+        }
     }
 }
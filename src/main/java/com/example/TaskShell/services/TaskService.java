@@ -1,174 +1,348 @@
 package com.example.TaskShell.services;
 
 import com.example.TaskShell.exceptions.EmptyTaskListException;
+import com.example.TaskShell.metrics.TaskMetrics;
 import com.example.TaskShell.models.ANSIColors;
 import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskEvent;
+import com.example.TaskShell.models.TaskFilter;
+import com.example.TaskShell.models.TaskRecord;
 import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.TaskRepository;
 import com.example.TaskShell.utils.DateUtils;
+import com.example.TaskShell.utils.TaskListRenderer;
 import com.example.TaskShell.utils.TaskUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 
-import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 @Service
 public class TaskService {
 
-    private final ObjectMapper mapper = new ObjectMapper();
-    private final CategoryService categoryService = new CategoryService();
+    private final TaskRepository taskRepository;
+    private final CategoryService categoryService;
+    private final TaskMetrics metrics;
+    // Held from reading a task to saving it, by every client of the service
+    private final Lock writeLock = new ReentrantLock();
+
+    public TaskService(TaskRepository taskRepository, CategoryService categoryService) {
+        this(taskRepository, categoryService, new TaskMetrics());
+    }
+
+    @Autowired
+    public TaskService(TaskRepository taskRepository, CategoryService categoryService, TaskMetrics metrics) {
+        this.taskRepository = taskRepository;
+        this.categoryService = categoryService;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the lock taken by every change to the tasks, from reading a task to saving it, so that
+     * the shell, the daemon and the HTTP API never save over each other's changes
+     */
+    public Lock getWriteLock() {
+        return writeLock;
+    }
 
     /**
-     * Lists tasks based on the given parameters and file contents.
+     * Lists tasks based on the given parameters and the stored tasks.
      *
      * @param displayAll whether to display all tasks
      * @param isDetailed whether to display tasks in detailed format
      * @param isTable    whether to display tasks in tabular format
      * @param date       the date to filter tasks
-     * @param file       the file containing tasks
-     * @return a formatted string representation of tasks
+     * @param category   the category to filter tasks, null for every category
+     * @param from       the first date of a range of dates, null for no lower bound
+     * @param to         the last date of a range of dates, null for no upper bound
+     * @param asOf       lists the tasks as they were at the end of this day/month/year [hours:minutes], null for now
+     * @param renderer   writes the tasks as they are formatted
+     * @param offset     the number of matching tasks to skip
+     * @param limit      the maximum number of tasks to write, 0 for no limit
+     * @return an error message, a note on the tasks left out, or null once every task is written
      */
-    public String listTasks(boolean displayAll, boolean isDetailed, boolean isTable, boolean tomorrow, String date, File file) {
+    public String listTasks(boolean displayAll, boolean isDetailed, boolean isTable, boolean tomorrow, String date, String category,
+                            String from, String to, String asOf, TaskListRenderer renderer, int offset, int limit) {
+        long start = metrics.start();
         try {
 
-            if(file.length() == 0) {
+            if(taskRepository.isEmpty()) {
                 return ANSIColors.redText("There are no tasks registered yet ! \n" +
                         "Add new tasks using add command");
             }
 
-            List<Task> tasks = readTasksFromFile(file);
-
+            boolean isRange = from != null || to != null;
 
-
-            // Filter tasks based on date conditions
-            tasks = filterTasks(tasks, displayAll, date, tomorrow);
+            // Filter tasks based on date and category conditions
+            long filterStart = metrics.start();
+            List<Task> tasks;
+            if (asOf != null) {
+                tasks = filterTasksAsOf(asOf, displayAll, date, tomorrow, category, from, to);
+            } else {
+                tasks = isRange ? filterTasksBetween(from, to, category) : filterTasks(displayAll, date, tomorrow, category);
+            }
+            metrics.stop("list.filter", filterStart);
+            metrics.add("list.tasks-matched", tasks.size());
 
             // Format tasks based on the desired output style
+            long renderStart = metrics.start();
+            String asOfTitle = asOf != null ? " as of " + asOf : "";
+            int written;
             if (isDetailed) {
-                return TaskUtils.displayDetailedList(tasks).toString();
+                written = renderer.render(tasks, TaskListRenderer.Layout.DETAILED, null, offset, limit);
             } else if (isTable) {
-                return TaskUtils.displayTabularList(tasks).toString();
+                written = renderer.render(tasks, TaskListRenderer.Layout.TABLE, null, offset, limit);
+            } else if (isRange) {
+                String title = "Tasks Due " + (from != null ? from : "...") + " -> " + (to != null ? to : "...");
+                written = renderer.render(tasks, TaskListRenderer.Layout.DATED, title + asOfTitle, offset, limit);
             } else {
                 String dueDate = tomorrow ? DateUtils.getTomorrowDate() :
                         (Objects.equals(date, "no date") ? DateUtils.getTodayDate() : date);
-                return TaskUtils.displaySimpleList(tasks, dueDate).toString();
+                written = renderer.render(tasks, TaskListRenderer.Layout.SIMPLE, "Tasks Due " + dueDate + asOfTitle, offset, limit);
             }
+            metrics.stop("list.render", renderStart);
+            metrics.add("list.tasks-shown", written);
+
+            int first = Math.min(offset, tasks.size());
+            if (first == 0 && written == tasks.size()) {
+                return null;
+            }
+            String shown = String.format("Tasks %d -> %d of %d", first + (written > 0 ? 1 : 0), first + written, tasks.size());
+            return ANSIColors.greenText(first + written < tasks.size()
+                    ? shown + ", use --offset " + (first + written) + " for the next ones"
+                    : shown);
         } catch (EmptyTaskListException e) {
             return ANSIColors.redText(e.getMessage());
+        } catch (DateTimeParseException e) {
+            return ANSIColors.redText("Please specify a valid date with format day/month/year");
         } catch (IOException e) {
             e.printStackTrace();
             return ANSIColors.redText("An error occurred while reading tasks. Try again later.");
+        } finally {
+            metrics.stop("command.list", start);
         }
     }
 
     /**
-     * Adds a new task to the specified file.
+     * Adds a new task to the task store.
      *
-     * @param file        the file containing tasks
      * @param description the description of the new task
      * @param date        the due date of the new task
      * @param status      the status of the new task
      */
-    public void addNewTask(File file, File categoriesFile, String description, String date, String status, boolean tomorrow, String category) {
-        try (FileWriter fileWriter = new FileWriter(file, true)) {
+    public void addNewTask(String description, String date, String status, boolean tomorrow, String category) {
+        long start = metrics.start();
+        try {
 
             Task newTask = createTask(description, date, status, tomorrow);
 
-            if (category != null && categoryService.verifyCategory(categoriesFile, category)) {
+            if (category != null && categoryService.verifyCategory(category)) {
                 newTask.setCategory(category);
             }
 
+            appendTaskToFile(newTask);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while adding the task: " + e.getMessage(), e);
+        } finally {
+            metrics.stop("command.add", start);
+        }
+    }
 
-
-            if (file.length() == 0) {
-                // File is empty, start a new JSON array
-                try (SequenceWriter sequenceWriter = mapper.writer().withDefaultPrettyPrinter().writeValuesAsArray(fileWriter)) {
-                    sequenceWriter.write(newTask);
+    /**
+     * Adds a new task without asking anything, e.g. for a client that has no terminal.
+     *
+     * @param description the description of the new task
+     * @param date        the due date, "tomorrow", or "no date" for today
+     * @param status      the status, TODO if null
+     * @param category    the category, "Other" if null
+     * @return the added task
+     * @throws IllegalArgumentException if the status or the category doesn't exist
+     * @throws IOException              if the task can't be saved
+     */
+    public Task addTask(String description, String date, String status, String category) throws IOException {
+        long start = metrics.start();
+        writeLock.lock();
+        try {
+            Task newTask = createTask(description, date, status != null ? status : "", false);
+            if (category != null) {
+                if (!categoryService.exists(category)) {
+                    throw new IllegalArgumentException(String.format("Category '%s' does not exist", category));
                 }
-            } else {
-                // Append to an existing JSON array
-                appendTaskToFile(file, newTask);
+                newTask.setCategory(category);
             }
-        } catch (IOException e) {
-            throw new RuntimeException("An error occurred while adding the task: " + e.getMessage(), e);
+            appendTaskToFile(newTask);
+            return newTask;
+        } finally {
+            writeLock.unlock();
+            metrics.stop("command.add", start);
+        }
+    }
+
+    /**
+     * Finds the tasks matching every given criterion.
+     *
+     * @param date     the due date, null for any date
+     * @param from     the first date of a range of dates, null for no lower bound
+     * @param to       the last date of a range of dates, null for no upper bound
+     * @param status   the status, null for any status
+     * @param category the category, null for every category
+     * @return the matching tasks, by date when a range is given, in creation order otherwise
+     * @throws DateTimeParseException if a date of the range isn't valid
+     * @throws IOException            if the tasks can't be read
+     */
+    public List<Task> findTasks(String date, String from, String to, TaskStatus status, String category) throws IOException {
+        if (from != null || to != null) {
+            int fromEpochDay = from != null ? DateUtils.parseEpochDay(from) : Integer.MIN_VALUE;
+            int toEpochDay = to != null ? DateUtils.parseEpochDay(to) : Integer.MAX_VALUE;
+            List<Task> tasks = taskRepository.findBetween(fromEpochDay, toEpochDay, status, category);
+            return date == null ? tasks : tasks.stream().filter(task -> date.equals(task.getDate())).toList();
         }
+        return taskRepository.find(date, status, category);
     }
 
     // Private Helper Methods
 
     /**
-     * Reads tasks from the specified file.
+     * Finds the tasks matching a filter, from the date index when the dates are bounded.
+     */
+    private List<Task> findWhere(TaskFilter filter) throws IOException {
+        List<Task> candidates = filter.hasDateRange()
+                ? taskRepository.findBetween(filter.fromEpochDay(), filter.toEpochDay(), filter.status(), filter.category())
+                : taskRepository.find(null, filter.status(), filter.category());
+        List<Task> matching = candidates.stream().filter(filter::matches).toList();
+        metrics.add("bulk.tasks-matched", matching.size());
+        return matching;
+    }
+
+    private static String bulkSummary(int changed, String change, int unchanged, String state, long start) {
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        String summary = String.format("[√] %d %s %s in %d ms", changed, changed == 1 ? "task" : "tasks", change, elapsedMillis);
+        if (unchanged > 0) {
+            summary += String.format(", %d %s", unchanged, state);
+        }
+        return ANSIColors.greenText(summary);
+    }
+
+    /**
+     * Reads tasks from the shared task repository.
+     * The store is only parsed again when it changed since the last command.
      *
-     * @param file the file containing tasks
      * @return a list of tasks
      * @throws IOException if an error occurs during file reading
      */
-    private List<Task> readTasksFromFile(File file) throws IOException {
-        return mapper.readValue(file, mapper.getTypeFactory().constructCollectionType(List.class, Task.class));
+    private List<Task> readTasksFromFile() throws IOException {
+        return taskRepository.findAll();
     }
 
     /**
-     * Filters tasks based on display options and date.
+     * Filters tasks based on display options, date and category.
+     * The matching tasks are looked up in the repository indexes, the store is not scanned.
      *
-     * @param tasks      the list of tasks to filter
      * @param displayAll whether to display all tasks
      * @param date       the date to filter tasks
+     * @param category   the category to filter tasks, null for every category
      * @return a filtered list of tasks
      * @throws EmptyTaskListException if no tasks match the filter conditions
+     * @throws IOException            if an error occurs during file reading
      */
-    private List<Task> filterTasks(List<Task> tasks, boolean displayAll, String date, boolean tomorrow) throws EmptyTaskListException {
-        if (!displayAll) {
+    private List<Task> filterTasks(boolean displayAll, String date, boolean tomorrow, String category) throws EmptyTaskListException, IOException {
+        if (displayAll) {
+            return category == null ? readTasksFromFile() : taskRepository.find(null, null, category);
+        }
 
-            if(tomorrow) {
-                tasks = tasks.stream()
-                        .filter(task -> Objects.equals(task.getDate(), DateUtils.getTomorrowDate()))
-                        .toList();
-            }
-            else {
-                switch (date) {
-                    case "no date" -> {
-                        {
-                            tasks = tasks.stream()
-                                    .filter(task -> Objects.equals(task.getDate(), DateUtils.getTodayDate()))
-                                    .toList();
-                        }
-
-                    }
-                    case "tomorrow" -> {
-                        {
-                            tasks = tasks.stream()
-                                    .filter(task -> Objects.equals(task.getDate(), DateUtils.getTomorrowDate()))
-                                    .toList();
-                        }
-
-                    }
-                    default -> {
-                        {
-                            tasks = tasks.stream()
-                                    .filter(task -> Objects.equals(task.getDate(), date))
-                                    .toList();
-                        }
-
-                    }
-                }
-            }
+        String dueDate;
+        if (tomorrow || Objects.equals(date, "tomorrow")) {
+            dueDate = DateUtils.getTomorrowDate();
+        } else if (Objects.equals(date, "no date")) {
+            dueDate = DateUtils.getTodayDate();
+        } else {
+            dueDate = date;
+        }
 
-            if (tasks.isEmpty()) {
-                throw new EmptyTaskListException("No tasks found for the specified date.");
-            }
+        List<Task> tasks = taskRepository.find(dueDate, null, category);
+        if (tasks.isEmpty()) {
+            throw new EmptyTaskListException("No tasks found for the specified date.");
         }
         return tasks;
     }
 
+    /**
+     * Filters the tasks due between two dates and of a category, from the sorted date index.
+     *
+     * @param from     the first date, null for no lower bound
+     * @param to       the last date, null for no upper bound
+     * @param category the category to filter tasks, null for every category
+     * @return the tasks by date
+     * @throws EmptyTaskListException if no tasks match the filter conditions
+     * @throws IOException            if an error occurs during file reading
+     */
+    private List<Task> filterTasksBetween(String from, String to, String category) throws EmptyTaskListException, IOException {
+        int fromEpochDay = from != null ? DateUtils.parseEpochDay(from) : Integer.MIN_VALUE;
+        int toEpochDay = to != null ? DateUtils.parseEpochDay(to) : Integer.MAX_VALUE;
+
+        List<Task> tasks = taskRepository.findBetween(fromEpochDay, toEpochDay, null, category);
+        if (tasks.isEmpty()) {
+            throw new EmptyTaskListException("No tasks found for the specified dates.");
+        }
+        return tasks;
+    }
+
+    /**
+     * Filters the tasks as they were at a given time, rebuilt from the history, like the other filters do.
+     *
+     * @param asOf the day/month/year [hours:minutes] the tasks are listed as of, up to its end
+     * @return the matching tasks, by date for a range of dates, in creation order otherwise
+     * @throws EmptyTaskListException if no tasks match or the history doesn't go back that far
+     * @throws IOException            if an error occurs while reading the history
+     */
+    private List<Task> filterTasksAsOf(String asOf, boolean displayAll, String date, boolean tomorrow, String category,
+                                       String from, String to) throws EmptyTaskListException, IOException {
+        if (!taskRepository.hasHistory()) {
+            throw new EmptyTaskListException("The history is disabled, see taskshell.history.enabled");
+        }
+        long time = DateUtils.parseEndMillis(asOf);
+        List<Task> tasks = taskRepository.findAsOf(time);
+        if (tasks == null) {
+            throw new EmptyTaskListException("The history starts on " + DateUtils.formatMillis(taskRepository.historyStart()));
+        }
+
+        Stream<Task> matching = tasks.stream().filter(task -> category == null || category.equals(task.getCategory()));
+        if (from != null || to != null) {
+            int fromEpochDay = from != null ? DateUtils.parseEpochDay(from) : Integer.MIN_VALUE;
+            int toEpochDay = to != null ? DateUtils.parseEpochDay(to) : Integer.MAX_VALUE;
+            matching = matching
+                    .filter(task -> task.getEpochDay() != DateUtils.NO_EPOCH_DAY
+                            && task.getEpochDay() >= fromEpochDay && task.getEpochDay() <= toEpochDay)
+                    .sorted(Comparator.comparingInt(Task::getEpochDay));
+        } else if (!displayAll) {
+            String dueDate;
+            if (tomorrow || Objects.equals(date, "tomorrow")) {
+                dueDate = DateUtils.getTomorrowDate();
+            } else if (Objects.equals(date, "no date")) {
+                dueDate = DateUtils.getTodayDate();
+            } else {
+                dueDate = date;
+            }
+            matching = matching.filter(task -> dueDate.equals(task.getDate()));
+        }
+
+        List<Task> result = matching.toList();
+        if (result.isEmpty()) {
+            throw new EmptyTaskListException("No tasks found as of " + asOf + ".");
+        }
+        return result;
+    }
+
     /**
      * Creates a new task based on the given parameters.
      *
@@ -199,29 +373,40 @@ public class TaskService {
     }
 
     /**
-     * Appends a task to the existing JSON array in the file.
+     * Appends a task to the task log.
+     * Only the new record is written, whatever the number of tasks already stored.
      *
-     * @param file    the file containing tasks
      * @param newTask the new task to append
      * @throws IOException if an error occurs during file writing
      */
-    private void appendTaskToFile(File file, Task newTask) throws IOException {
-        String content = new Scanner(file).useDelimiter("\\Z").next();
-        String updatedContent = content.substring(0, content.length() - 1) + ",";
+    private void appendTaskToFile(Task newTask) throws IOException {
+        taskRepository.save(newTask);
+    }
+
 
-        try (FileWriter tempWriter = new FileWriter(file)) {
-            tempWriter.write(updatedContent);
-        }
 
-        try (FileWriter fileWriter = new FileWriter(file, true);
-             SequenceWriter sequenceWriter = mapper.writer().withDefaultPrettyPrinter().writeValues(fileWriter)) {
-            sequenceWriter.write(newTask);
-            fileWriter.write(']');
+    /**
+     * Searches the descriptions of the tasks.
+     *
+     * @param query the terms to look for, a term ending with '*' matches the start of words only
+     * @param limit the maximum number of results
+     * @return the matching tasks, best first, or a message if none matches
+     */
+    public String searchTasks(String query, int limit) {
+        long start = metrics.start();
+        try {
+            List<Task> tasks = taskRepository.search(query, limit);
+            if (tasks.isEmpty()) {
+                return ANSIColors.redText("No tasks match '" + query + "'");
+            }
+            return TaskUtils.listHeader("Tasks matching '" + query + "'") + TaskUtils.displayDetailedList(tasks);
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while searching tasks");
+        } finally {
+            metrics.stop("command.search", start);
         }
     }
 
-
-
     /**
      * Updates the status of a task.
      *
@@ -229,44 +414,67 @@ public class TaskService {
      * @param status The new status.
      * @return A success message or an error message if the task is not found.
      */
-    public String updateTaskStatus(File file, String taskID, TaskStatus status) {
+    public String updateTaskStatus(String taskID, TaskStatus status) {
+        long start = metrics.start();
         try {
-            List<Task> tasks = mapper.readValue(file, mapper.getTypeFactory().constructCollectionType(List.class, Task.class));
-            Task taskToUpdate = this.getTaskByID(tasks, taskID);
-
-            if (taskToUpdate == null) {
+            if (setTaskStatus(taskID, status) == null) {
                 return "Task with ID " + taskID + " doesn't exist";
             }
-
-            taskToUpdate.setStatus(status);
-            mapper.writerWithDefaultPrettyPrinter().writeValue(file, tasks);
             return "Task status updated successfully";
         } catch (IOException e) {
             return "An error occurred while updating the task status";
+        } finally {
+            metrics.stop("command.update-status", start);
+        }
+    }
+
+    /**
+     * Updates the status of a task.
+     *
+     * @param taskID the ID of the task
+     * @param status the new status
+     * @return the updated task, or null if it doesn't exist
+     * @throws IOException if the task can't be saved
+     */
+    public Task setTaskStatus(String taskID, TaskStatus status) throws IOException {
+        writeLock.lock();
+        try {
+            Task taskToUpdate = this.getTaskByID(taskID);
+            if (taskToUpdate == null) {
+                return null;
+            }
+            taskToUpdate.setStatus(status);
+            taskRepository.save(taskToUpdate);
+            return taskToUpdate;
+        } finally {
+            writeLock.unlock();
         }
     }
 
 
 
-    public String updateTaskCategory(File file, String taskID, String category) {
+    public String updateTaskCategory(String taskID, String category) {
+        long start = metrics.start();
+        writeLock.lock();
         try {
-            List<Task> tasks = mapper.readValue(file, mapper.getTypeFactory().constructCollectionType(List.class, Task.class));
-            Task taskToUpdate = this.getTaskByID(tasks, taskID);
+            Task taskToUpdate = this.getTaskByID(taskID);
 
             if (taskToUpdate == null) {
                 return "Task with ID " + taskID + " doesn't exist";
             }
 
             taskToUpdate.setCategory(category);
-            mapper.writerWithDefaultPrettyPrinter().writeValue(file, tasks);
+            taskRepository.save(taskToUpdate);
             return ANSIColors.greenText("Task category updated successfully");
         } catch (IOException e) {
             return ANSIColors.redText("An error occurred while updating the task status");
+        } finally {
+            writeLock.unlock();
+            metrics.stop("command.update-category", start);
         }
     }
 
-    public String moveTodo(File file, String from, String to) throws IOException, DateTimeParseException {
-
+    public String moveTodo(String from, String to) throws IOException, DateTimeParseException {
         Scanner scanner = new Scanner(System.in);
         System.out.printf("Do you want to move undone tasks from %s to %s? (y/n): ", from, to);
         String response = scanner.nextLine().toLowerCase().trim();
@@ -274,34 +482,251 @@ public class TaskService {
             return "Aborted";
         }
 
-         if (LocalDate.parse(from, DateUtils.dateTimeFormatter).isAfter(LocalDate.parse(to, DateUtils.dateTimeFormatter))) {
-                return "'From' date should be earlier than 'To' date";
-            }
+        // Timed once answered
+        long start = metrics.start();
+        try {
+            moveTodoTasks(from, to);
+            return "Tasks moved successfully";
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        } finally {
+            metrics.stop("command.move-todo", start);
+        }
+    }
 
-            ObjectMapper mapper = new ObjectMapper();
-            List<Task> tasks = mapper.readValue(file, mapper.getTypeFactory().constructCollectionType(List.class, Task.class));
-            List<Task> fromTasks = tasks.stream()
-                    .filter(task -> Objects.equals(task.getDate(), from) && task.getStatus() == TaskStatus.TODO)
+    /**
+     * Copies the undone tasks of a day to a later day, without asking for confirmation.
+     *
+     * @param from the date of the tasks to move
+     * @param to   the date to move them to
+     * @return the copies, with their new ID
+     * @throws IllegalArgumentException if 'to' is earlier than 'from'
+     * @throws IOException              if the tasks can't be saved
+     */
+    public List<Task> moveTodoTasks(String from, String to) throws IOException {
+        if (DateUtils.parseEpochDay(from) > DateUtils.parseEpochDay(to)) {
+            throw new IllegalArgumentException("'From' date should be earlier than 'To' date");
+        }
+
+        writeLock.lock();
+        try {
+            List<Task> undoneTasks = taskRepository.find(from, TaskStatus.TODO, null);
+            List<Task> movedTasks = undoneTasks.stream()
+                    .map(task -> {
+                        Task clonedTask = task.clone();
+                        clonedTask.setDate(to);
+                        clonedTask.setNewId();
+                        return clonedTask;
+                    })
                     .toList();
 
-            for (Task task : fromTasks) {
-                Task clonedTask = task.clone();
-                clonedTask.setDate(to);
-                clonedTask.setNewId();
-                tasks.add(clonedTask);
+            // The history links each copy to its original
+            taskRepository.saveCopies(movedTasks, undoneTasks);
+            return movedTasks;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+
+    /**
+     * Updates the description and/or the date of a task.
+     *
+     * @param taskID         The ID of the task.
+     * @param newDescription The new description, ignored if null.
+     * @param date           The new date, ignored if "no date".
+     * @return A success message or an error message if the task is not found or the date isn't valid.
+     */
+    public String updateTask(String taskID, String newDescription, String date) {
+        long start = metrics.start();
+        writeLock.lock();
+        try {
+            if (!Objects.equals(date, "no date")) {
+                DateUtils.parseEpochDay(date);
             }
+            Task taskToUpdate = this.getTaskByID(taskID);
 
-            mapper.writerWithDefaultPrettyPrinter().writeValue(file, tasks);
-            return "Tasks moved successfully";
+            if (taskToUpdate == null) {
+                return "Task with ID " + taskID + " doesn't exist";
+            }
+
+            if (newDescription != null) {
+                taskToUpdate.setDescription(newDescription);
+            }
+            if (!Objects.equals(date, "no date")) {
+                taskToUpdate.setDate(date);
+            }
 
+            taskRepository.save(taskToUpdate);
+            return "Task modified successfully";
+        } catch (DateTimeParseException e) {
+            return ANSIColors.redText("Please specify a valid date with format day/month/year");
+        } catch (IOException e) {
+            return "An error occurred while updating the task";
+        } finally {
+            writeLock.unlock();
+            metrics.stop("command.update", start);
+        }
     }
 
+    /**
+     * Deletes a task by appending a deletion record to the task log.
+     *
+     * @param taskID The ID of the task to delete.
+     * @return A success message or an error message if the task is not found.
+     */
+    public String deleteTask(String taskID) {
+        long start = metrics.start();
+        writeLock.lock();
+        try {
+            Task taskToDelete = this.getTaskByID(taskID);
+
+            if (taskToDelete == null) {
+                return "Task with ID " + taskID + " doesn't exist";
+            }
+
+            taskRepository.delete(taskToDelete);
+            return "Task deleted successfully";
+        } catch (IOException e) {
+            return "An error occurred while deleting the task";
+        } finally {
+            writeLock.unlock();
+            metrics.stop("command.delete", start);
+        }
+    }
+
+    /**
+     * Sets the status of every task matching a filter, with a single write to the store.
+     *
+     * @param filter the tasks to update
+     * @param status the new status
+     * @return the number of updated tasks and the time it took
+     */
+    public String setStatusWhere(TaskFilter filter, TaskStatus status) {
+        long start = metrics.start();
+        writeLock.lock();
+        try {
+            List<Task> matching = findWhere(filter);
+            List<Task> updated = matching.stream()
+                    .filter(task -> task.getStatus() != status)
+                    .map(task -> {
+                        Task updatedTask = task.clone();
+                        updatedTask.setStatus(status);
+                        return updatedTask;
+                    })
+                    .toList();
+            if (!updated.isEmpty()) {
+                taskRepository.saveAll(updated);
+            }
+            return bulkSummary(updated.size(), "marked as " + status, matching.size() - updated.size(), "already " + status, start);
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while updating the tasks");
+        } finally {
+            writeLock.unlock();
+            metrics.stop("command.bulk-update-status", start);
+        }
+    }
+
+    /**
+     * Moves every task matching a filter to a category, with a single write to the store.
+     *
+     * @param filter   the tasks to update
+     * @param category the new category, which must exist
+     * @return the number of updated tasks and the time it took
+     */
+    public String setCategoryWhere(TaskFilter filter, String category) {
+        long start = metrics.start();
+        writeLock.lock();
+        try {
+            List<Task> matching = findWhere(filter);
+            List<Task> updated = matching.stream()
+                    .filter(task -> !category.equals(task.getCategory()))
+                    .map(task -> {
+                        Task updatedTask = task.clone();
+                        updatedTask.setCategory(category);
+                        return updatedTask;
+                    })
+                    .toList();
+            if (!updated.isEmpty()) {
+                taskRepository.saveAll(updated);
+            }
+            return bulkSummary(updated.size(), "moved to " + category, matching.size() - updated.size(), "already in " + category, start);
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while updating the tasks");
+        } finally {
+            writeLock.unlock();
+            metrics.stop("command.bulk-update-category", start);
+        }
+    }
+
+    /**
+     * Deletes every task matching a filter, with a single write to the store.
+     *
+     * @param filter the tasks to delete, it can't match every task
+     * @return the number of deleted tasks and the time it took
+     */
+    public String deleteWhere(TaskFilter filter) {
+        long start = metrics.start();
+        writeLock.lock();
+        try {
+            if (filter.isEmpty()) {
+                return ANSIColors.redText("Please specify a task ID or the tasks to delete");
+            }
+            List<Task> matching = findWhere(filter);
+            if (!matching.isEmpty()) {
+                taskRepository.deleteAll(matching);
+            }
+            return bulkSummary(matching.size(), "deleted", 0, null, start);
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while deleting the tasks");
+        } finally {
+            writeLock.unlock();
+            metrics.stop("command.bulk-delete", start);
+        }
+    }
+
+    /**
+     * Lists every change of a task, from the history. The changes of the task it was moved from by
+     * move-todo come first.
+     *
+     * @param taskID the ID of the task
+     * @return the changes, oldest first, or an error message
+     */
+    public String taskHistory(String taskID) {
+        long start = metrics.start();
+        try {
+            if (!taskRepository.hasHistory()) {
+                return ANSIColors.redText("The history is disabled, see taskshell.history.enabled");
+            }
+            List<TaskEvent> events = taskRepository.findHistory(taskID);
+            if (events.isEmpty()) {
+                return ANSIColors.redText("Task with ID " + taskID + " has no history");
+            }
+            StringBuilder history = new StringBuilder(TaskUtils.listHeader("History of " + taskID));
+            for (TaskEvent event : events) {
+                history.append(' ').append(DateUtils.formatMillis(event.getTime())).append("  ");
+                if (event.getOp() == TaskRecord.Operation.DELETE) {
+                    history.append(ANSIColors.redText("deleted")).append(System.lineSeparator());
+                    continue;
+                }
+                String change = event.getOrigin() != null ? "moved from " + event.getOrigin()
+                        : event.getPrev() < 0 ? "created" : "updated";
+                Task task = event.getTask();
+                history.append(ANSIColors.greenText(change)).append(System.lineSeparator())
+                        .append("    ").append(task.getStatus() == TaskStatus.DONE ? ANSIColors.greenText("[x]") : ANSIColors.redText("[ ]"))
+                        .append(' ').append(task.getDate()).append(' ').append(task.getCategory())
+                        .append(": ").append(task.getDescription()).append(System.lineSeparator());
+            }
+            return history.toString();
+        } catch (IOException e) {
+            return ANSIColors.redText("An error occurred while reading the history");
+        } finally {
+            metrics.stop("command.task-history", start);
+        }
+    }
 
-    public Task getTaskByID(List<Task> tasks, String taskID) throws IOException {
-        return  tasks.stream()
-                .filter(task -> Objects.equals(task.getId().toString(), taskID))
-                .findFirst()
-                .orElse(null);
+    public Task getTaskByID(String taskID) throws IOException {
+        return taskRepository.findById(taskID);
     }
 
 }
@@ -0,0 +1,213 @@
+package com.example.TaskShell.services;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.CategoryRegistry;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.utils.DateUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Moves tasks in and out of TaskShell as a stream of records.
+ * <p>
+ * Exports write one task at a time, streamed from the store unless the session already read every task,
+ * see {@link TaskRepository#forEach}. The json and partitioned stores stream their tasks, the others read
+ * them all first. Imports read the lines by chunks: the lines of a chunk are
+ * parsed in parallel on a {@link ForkJoinPool}, their categories are checked against the
+ * {@link CategoryRegistry} at once and the valid tasks are saved with a single write.
+ * Only one chunk is held in memory besides the tasks of the repository.
+ */
+@Service
+public class TransferService {
+
+    /**
+     * Outcome of an import.
+     *
+     * @param imported      the number of saved tasks
+     * @param skipped       the number of skipped lines
+     * @param errors        the reasons of the first skipped lines
+     * @param elapsedMillis the duration of the import
+     */
+    public record ImportReport(long imported, long skipped, List<String> errors, long elapsedMillis) {
+
+        public long recordsPerSecond() {
+            return (imported + skipped) * 1000 / Math.max(elapsedMillis, 1);
+        }
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectReader taskReader = mapper.readerFor(Task.class);
+    private final ObjectWriter taskWriter = mapper.writerFor(Task.class);
+    private final TaskRepository taskRepository;
+    private final CategoryRegistry categoryRegistry;
+
+    public TransferService(TaskRepository taskRepository, CategoryRegistry categoryRegistry) {
+        this.taskRepository = taskRepository;
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    /**
+     * Writes every task as one JSON object per line.
+     *
+     * @param out the stream to write to, left open
+     * @return the number of exported tasks
+     * @throws IOException if the tasks can't be read or written
+     */
+    public long exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            return taskRepository.forEach(task -> {
+                taskWriter.writeValue(generator, task);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    /**
+     * Writes every task as the elements of a JSON array, the format of the former tasks.json.
+     *
+     * @param out the stream to write to, left open
+     * @return the number of exported tasks
+     * @throws IOException if the tasks can't be read or written
+     */
+    public long exportJson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.writeStartArray();
+            long exported = taskRepository.forEach(task -> taskWriter.writeValue(generator, task));
+            generator.writeEndArray();
+            return exported;
+        }
+    }
+
+    /**
+     * Imports the tasks of a stream holding one JSON task per line.
+     * A task without ID gets a new one, a task without status is TODO. Lines that can't be parsed,
+     * have an invalid date or, unless createCategories is set, an unknown category are skipped.
+     *
+     * @param reader           the lines to import
+     * @param chunkSize        the number of lines parsed in parallel and saved with a single write
+     * @param createCategories whether unknown categories are created instead of skipping their tasks
+     * @return the numbers of imported and skipped lines
+     * @throws IOException if the lines can't be read or the tasks can't be saved
+     */
+    public ImportReport importNdjson(BufferedReader reader, int chunkSize, boolean createCategories) throws IOException {
+        long start = System.nanoTime();
+        long imported = 0;
+        long skipped = 0;
+        List<String> errors = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            long firstLine = 1;
+            List<String> chunk = readChunk(reader, chunkSize);
+            while (!chunk.isEmpty()) {
+                List<String> lines = chunk;
+                List<Object> parsed = pool.submit(() -> lines.parallelStream().map(this::parse).toList()).get();
+
+                Set<String> categories = new LinkedHashSet<>();
+                for (Object result : parsed) {
+                    if (result instanceof Task task && task.getCategory() != null) {
+                        categories.add(task.getCategory());
+                    }
+                }
+                Set<String> missing = createCategories ? Set.of() : categoryRegistry.findMissing(categories);
+                if (createCategories) {
+                    categoryRegistry.addAll(categories);
+                }
+
+                List<Task> tasks = new ArrayList<>(parsed.size());
+                for (int i = 0; i < parsed.size(); i++) {
+                    String error;
+                    if (parsed.get(i) instanceof Task task) {
+                        if (!missing.contains(task.getCategory())) {
+                            tasks.add(task);
+                            continue;
+                        }
+                        error = "unknown category '" + task.getCategory() + "'";
+                    } else {
+                        error = (String) parsed.get(i);
+                    }
+                    if (error == null) {
+                        // Blank line
+                        continue;
+                    }
+                    skipped++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("line " + (firstLine + i) + ": " + error);
+                    }
+                }
+                taskRepository.saveAll(tasks);
+                imported += tasks.size();
+
+                firstLine += chunk.size();
+                chunk = readChunk(reader, chunkSize);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("The import failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return new ImportReport(imported, skipped, errors, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Private Helper Methods
+
+    private static List<String> readChunk(BufferedReader reader, int chunkSize) throws IOException {
+        List<String> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while (chunk.size() < chunkSize && (line = reader.readLine()) != null) {
+            chunk.add(line);
+        }
+        return chunk;
+    }
+
+    /**
+     * Parses one line.
+     *
+     * @return the task, the reason why the line is invalid, or null for a blank line
+     */
+    private Object parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        Task task;
+        try {
+            task = taskReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return "invalid JSON, " + e.getOriginalMessage();
+        }
+        if (task == null) {
+            return "not a task";
+        }
+        if (task.getDate() != null && task.getEpochDay() == DateUtils.NO_EPOCH_DAY) {
+            return "invalid date '" + task.getDate() + "', expected day/month/year";
+        }
+        if (task.getId() == null) {
+            task.setId(UUID.randomUUID());
+        }
+        task.setStatus(Objects.requireNonNullElse(task.getStatus(), TaskStatus.TODO));
+        return task;
+    }
+}
@@ -1,11 +1,21 @@
 package com.example.TaskShell.utils;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 public final class DateUtils {
 
     public static DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter MINUTE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    /**
+     * Epoch day of a missing or unparsable date.
+     */
+    public static final int NO_EPOCH_DAY = Integer.MIN_VALUE;
+
     public DateUtils() {
         throw new UnsupportedOperationException("Utility class cannot be instantiated");
     }
@@ -17,4 +27,61 @@ public final class DateUtils {
     public static String getTomorrowDate() {
         return LocalDate.now().plusDays(1).format(dateTimeFormatter);
     }
+
+    /**
+     * Parses a day/month/year date into a number of days since 01/01/1970.
+     *
+     * @param date the date to parse
+     * @return the epoch day
+     * @throws DateTimeParseException if the date is not a valid day/month/year date
+     */
+    public static int parseEpochDay(String date) {
+        return (int) LocalDate.parse(date, dateTimeFormatter).toEpochDay();
+    }
+
+    /**
+     * @param date a day/month/year date or null
+     * @return the epoch day, or {@link #NO_EPOCH_DAY} if the date is missing or invalid
+     */
+    public static int toEpochDay(String date) {
+        if (date == null) {
+            return NO_EPOCH_DAY;
+        }
+        try {
+            return parseEpochDay(date);
+        } catch (DateTimeParseException e) {
+            return NO_EPOCH_DAY;
+        }
+    }
+
+    /**
+     * Parses a day/month/year date, optionally followed by hours:minutes, in the local time zone.
+     *
+     * @param dateTime the date and time to parse
+     * @return the last millisecond of the given day or minute, since 01/01/1970 UTC
+     * @throws DateTimeParseException if it isn't a day/month/year [hours:minutes] date
+     */
+    public static long parseEndMillis(String dateTime) {
+        String trimmed = dateTime.trim();
+        LocalDateTime end = trimmed.length() > 10
+                ? LocalDateTime.parse(trimmed, MINUTE_FORMATTER).plusMinutes(1)
+                : LocalDate.parse(trimmed, dateTimeFormatter).plusDays(1).atStartOfDay();
+        return end.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - 1;
+    }
+
+    /**
+     * @param millis milliseconds since 01/01/1970 UTC
+     * @return the day/month/year hours:minutes in the local time zone
+     */
+    public static String formatMillis(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).format(MINUTE_FORMATTER);
+    }
+
+    /**
+     * @param epochDay a number of days since 01/01/1970
+     * @return the day/month/year date, or null for {@link #NO_EPOCH_DAY}
+     */
+    public static String formatEpochDay(int epochDay) {
+        return epochDay != NO_EPOCH_DAY ? LocalDate.ofEpochDay(epochDay).format(dateTimeFormatter) : null;
+    }
 }
@@ -1,12 +1,27 @@
 package com.example.TaskShell.utils;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 public final class FileUtils {
 
+    /**
+     * Writes the content of a file.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
     public static void emptyFile(File file) throws IOException {
 
         FileWriter fwOb = new FileWriter(file, false);
@@ -15,4 +30,40 @@ public final class FileUtils {
         pwOb.close();
         fwOb.close();
     }
+
+    /**
+     * Replaces the content of a file atomically.
+     * The content is written to a temporary file next to the target, forced to the disk and renamed
+     * over the target, so a crash or a concurrent reader sees either the old or the new content.
+     *
+     * @param file    the file to replace
+     * @param content writes the new content
+     * @throws IOException if the content can't be written
+     */
+    public static void writeAtomically(File file, ContentWriter content) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temporary.toFile())) {
+                content.write(out);
+                out.flush();
+                out.getFD().sync();
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(target.getParent());
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Forces a directory entry change, such as a rename, to the disk where the platform allows it.
+     */
+    public static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform, the rename itself is still atomic
+        }
+    }
 }
@@ -0,0 +1,160 @@
+package com.example.TaskShell.utils;
+
+import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.models.Task;
+import org.jline.terminal.Attributes;
+import org.jline.terminal.Terminal;
+import org.jline.utils.InfoCmp;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Writes lists of tasks one row at a time.
+ * <p>
+ * Rows are formatted by a {@link TaskRowFormatter} and written to the output one by one instead of
+ * being gathered in a single string, so the first rows show up as soon as they are ready whatever
+ * the number of tasks.
+ * A window of the list can be selected with an offset and a limit, and a {@link Pager} can stop
+ * the output after every page.
+ */
+public class TaskListRenderer {
+
+    /**
+     * How the tasks are laid out.
+     */
+    public enum Layout {
+        /** One line per task with its status, category and description. */
+        SIMPLE,
+        /** Like SIMPLE, with the due date of every task. */
+        DATED,
+        /** A table of IDs, descriptions, statuses and due dates. */
+        TABLE,
+        /** Every field of a task on its own line. */
+        DETAILED
+    }
+
+    /**
+     * Asked after every full page whether the next one should be written.
+     */
+    @FunctionalInterface
+    public interface Pager {
+
+        /**
+         * @param shown the number of tasks written so far
+         * @param total the number of tasks to write
+         * @return false to stop writing
+         */
+        boolean more(int shown, int total);
+    }
+
+    private final PrintWriter out;
+    private final int pageLines;
+    private final Pager pager;
+    private final TaskRowFormatter formatter = new TaskRowFormatter();
+
+    /**
+     * Creates a renderer writing every row without stopping.
+     *
+     * @param out the output, flushed once the list is written
+     */
+    public TaskListRenderer(PrintWriter out) {
+        this(out, 0, null);
+    }
+
+    /**
+     * @param out       the output
+     * @param pageLines the number of lines of a page, 0 to never ask the pager
+     * @param pager     asked after every page whether to go on
+     */
+    public TaskListRenderer(PrintWriter out, int pageLines, Pager pager) {
+        this.out = out;
+        this.pageLines = pageLines;
+        this.pager = pager;
+    }
+
+    /**
+     * Creates a renderer writing to a terminal.
+     * When paged and the terminal has a height, the user is asked after every screen to press a key
+     * for the next one or 'q' to stop.
+     *
+     * @param terminal the terminal
+     * @param paged    whether to stop after every screen
+     */
+    public static TaskListRenderer forTerminal(Terminal terminal, boolean paged) {
+        int height = terminal.getHeight();
+        if (!paged || height <= 1 || Terminal.TYPE_DUMB.equals(terminal.getType())) {
+            return new TaskListRenderer(terminal.writer());
+        }
+        return new TaskListRenderer(terminal.writer(), height - 1, (shown, total) -> askForMore(terminal, shown, total));
+    }
+
+    /**
+     * Writes a window of a list of tasks.
+     *
+     * @param tasks  the tasks of the list
+     * @param layout how to lay out the tasks
+     * @param title  the title of the list, null for none
+     * @param offset the number of tasks to skip
+     * @param limit  the maximum number of tasks to write, 0 for no limit
+     * @return the number of written tasks
+     */
+    public int render(List<Task> tasks, Layout layout, String title, int offset, int limit) {
+        int from = Math.min(offset, tasks.size());
+        int to = limit > 0 ? (int) Math.min((long) from + limit, tasks.size()) : tasks.size();
+        int total = to - from;
+
+        int lines = 0;
+        if (title != null) {
+            out.print(TaskUtils.listHeader(title));
+            lines += TaskUtils.LIST_HEADER_LINES;
+        }
+        if (layout == Layout.TABLE) {
+            out.print(TaskRowFormatter.TABLE_HEADER);
+            lines += 3;
+        }
+        out.flush();
+
+        int rowLines = layout == Layout.DETAILED ? 5 : 1;
+        for (int i = from; i < to; i++) {
+            if (pageLines > 0 && lines + rowLines > pageLines) {
+                out.flush();
+                if (!pager.more(i - from, total)) {
+                    return i - from;
+                }
+                lines = 0;
+            }
+            formatter.format(tasks.get(i), layout).writeTo(out);
+            lines += rowLines;
+            if (i == from) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return total;
+    }
+
+    // Private Helper Methods
+
+    /**
+     * Waits for a key, in raw mode so that the user doesn't have to press enter.
+     */
+    private static boolean askForMore(Terminal terminal, int shown, int total) {
+        PrintWriter writer = terminal.writer();
+        writer.print(ANSIColors.greenText(String.format("-- %d/%d, any key for more, q to quit --", shown, total)));
+        writer.flush();
+        Attributes attributes = terminal.enterRawMode();
+        try {
+            int key = terminal.reader().read();
+            return key != 'q' && key != 'Q' && key >= 0;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            terminal.setAttributes(attributes);
+            terminal.puts(InfoCmp.Capability.carriage_return);
+            terminal.puts(InfoCmp.Capability.clr_eol);
+            terminal.flush();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.TaskShell.utils;
+
+import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+
+import java.io.PrintWriter;
+import java.util.UUID;
+
+/**
+ * Formats the rows of a list of tasks into a reusable buffer.
+ * <p>
+ * Rows are appended field by field with the ANSI sequences, padding and separators computed once,
+ * instead of parsing a format string and concatenating colored strings for every row. IDs are
+ * written digit by digit rather than through {@link UUID#toString()}. Once the buffer has grown to
+ * the longest row, formatting and writing a row allocates nothing.
+ * <p>
+ * A formatter isn't thread-safe, every renderer has its own.
+ */
+public class TaskRowFormatter {
+
+    static final int ID_WIDTH = 36;
+    static final int DESCRIPTION_WIDTH = 26;
+    static final int STATUS_WIDTH = 6;
+    static final int DATE_WIDTH = 10;
+
+    /**
+     * The lines written before the rows of a table.
+     */
+    static final String TABLE_HEADER = tableBorder()
+            + "| " + pad("ID", ID_WIDTH) + " | " + pad("Task Description", DESCRIPTION_WIDTH)
+            + " | " + pad("Status", STATUS_WIDTH) + " | " + pad("Due Date", DATE_WIDTH) + " |" + System.lineSeparator()
+            + tableBorder();
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String TRUNCATION = "...";
+    private static final String TODO_CHECK = ANSIColors.redText("[ ]");
+    private static final String DONE_CHECK = ANSIColors.greenText("[x]");
+    private static final String DEFAULT_CATEGORY = "Other";
+    private static final String DETAILED_SEPARATOR = "-".repeat(49);
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder buffer = new StringBuilder(256);
+    private char[] chars = new char[256];
+
+    /**
+     * Formats a task, replacing the previous row.
+     *
+     * @param task   the task
+     * @param layout how to lay out the task
+     * @return this formatter, to write the row
+     */
+    public TaskRowFormatter format(Task task, TaskListRenderer.Layout layout) {
+        buffer.setLength(0);
+        switch (layout) {
+            case SIMPLE -> {
+                buffer.append(' ').append(checkString(task)).append(' ');
+                appendCategory(task);
+                buffer.append(": ").append(task.getDescription()).append(LINE_SEPARATOR);
+            }
+            case DATED -> {
+                buffer.append(' ').append(checkString(task)).append(' ').append(task.getDate()).append(' ');
+                appendCategory(task);
+                buffer.append(": ").append(task.getDescription()).append(LINE_SEPARATOR);
+            }
+            case TABLE -> {
+                buffer.append("| ");
+                appendId(task.getId());
+                buffer.append(" | ");
+                appendFixed(task.getDescription(), DESCRIPTION_WIDTH);
+                buffer.append(" | ");
+                appendFixed(task.getStatus() != null ? task.getStatus().name() : null, STATUS_WIDTH);
+                buffer.append(" | ");
+                appendFixed(task.getDate(), DATE_WIDTH);
+                buffer.append(" |").append(LINE_SEPARATOR);
+            }
+            case DETAILED -> {
+                buffer.append("Task ID: ");
+                appendId(task.getId());
+                buffer.append(LINE_SEPARATOR).append("Description: ").append(task.getDescription())
+                        .append(LINE_SEPARATOR).append("Status: ").append(task.getStatus() != null ? task.getStatus().name() : null)
+                        .append(LINE_SEPARATOR).append("Date: ").append(task.getDate())
+                        .append(LINE_SEPARATOR).append(DETAILED_SEPARATOR).append(LINE_SEPARATOR);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the last formatted row
+     */
+    public CharSequence row() {
+        return buffer;
+    }
+
+    /**
+     * Writes the last formatted row.
+     *
+     * @param out the output
+     */
+    public void writeTo(PrintWriter out) {
+        int length = buffer.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+    }
+
+    // Private Helper Methods
+
+    private static String checkString(Task task) {
+        return task.getStatus() == TaskStatus.TODO ? TODO_CHECK : DONE_CHECK;
+    }
+
+    private void appendCategory(Task task) {
+        buffer.append(ANSIColors.ANSI_BLUE)
+                .append(task.getCategory() != null ? task.getCategory() : DEFAULT_CATEGORY)
+                .append(ANSIColors.ANSI_RESET);
+    }
+
+    /**
+     * Appends a text padded with spaces or cut to a width, a cut text ending with {@link #TRUNCATION}.
+     */
+    private void appendFixed(String text, int width) {
+        if (text == null) {
+            text = "null";
+        }
+        if (text.length() > width) {
+            buffer.append(text, 0, width - TRUNCATION.length()).append(TRUNCATION);
+        } else {
+            buffer.append(text);
+            for (int i = text.length(); i < width; i++) {
+                buffer.append(' ');
+            }
+        }
+    }
+
+    /**
+     * Appends an ID as {@link UUID#toString()} would.
+     */
+    private void appendId(UUID id) {
+        if (id == null) {
+            appendFixed(null, ID_WIDTH);
+            return;
+        }
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        appendHex(msb >>> 32, 8);
+        buffer.append('-');
+        appendHex(msb >>> 16, 4);
+        buffer.append('-');
+        appendHex(msb, 4);
+        buffer.append('-');
+        appendHex(lsb >>> 48, 4);
+        buffer.append('-');
+        appendHex(lsb, 12);
+    }
+
+    private void appendHex(long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            buffer.append(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+        }
+    }
+
+    private static String tableBorder() {
+        return "+" + "-".repeat(ID_WIDTH + 2) + "+" + "-".repeat(DESCRIPTION_WIDTH + 2) + "+"
+                + "-".repeat(STATUS_WIDTH + 2) + "+" + "-".repeat(DATE_WIDTH + 2) + "+" + System.lineSeparator();
+    }
+
+    private static String pad(String text, int width) {
+        return text + " ".repeat(width - text.length());
+    }
+}
@@ -2,31 +2,47 @@ package com.example.TaskShell.utils;
 
 import com.example.TaskShell.models.ANSIColors;
 import com.example.TaskShell.models.Task;
-import com.example.TaskShell.models.TaskStatus;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.List;
 
 public class TaskUtils {
 
     private static final int BOX_WIDTH = 57;
 
+    /**
+     * The number of lines of a list header.
+     */
+    static final int LIST_HEADER_LINES = 5;
+
     /**
      * Prints a styled list header with the given title.
      *
      * @param title the title to display in the header
      */
     public static void printListHeader(String title) {
+        System.out.print(listHeader(title));
+    }
+
+    /**
+     * Creates a styled list header with the given title.
+     *
+     * @param title the title to display in the header
+     * @return the header, ending with a new line
+     */
+    public static String listHeader(String title) {
         String topBorder = createBoxBorder("┌", "─", "┐");
         String emptyLine = createBoxLine("");
         String textLine = createBoxLine(centerText(title));
         String bottomBorder = createBoxBorder("└", "─", "┘");
 
-        // Print the header box
-        System.out.println(topBorder);
-        System.out.println(emptyLine);
-        System.out.println(textLine);
-        System.out.println(emptyLine);
-        System.out.println(bottomBorder);
+        String lineSeparator = System.lineSeparator();
+        return topBorder + lineSeparator
+                + emptyLine + lineSeparator
+                + textLine + lineSeparator
+                + emptyLine + lineSeparator
+                + bottomBorder + lineSeparator;
     }
 
     /**
@@ -37,18 +53,18 @@ public class TaskUtils {
      * @return a StringBuilder containing the formatted list
      */
     public static StringBuilder displaySimpleList(List<Task> tasks, String date) {
-        StringBuilder output = new StringBuilder();
-        printListHeader("Tasks Due " + date);
-
-        for (Task task : tasks) {
-            String taskCategory = task.getCategory() != null ? task.getCategory() : "Other";
-            String checkString = task.getStatus() == TaskStatus.TODO
-                    ? ANSIColors.redText("[ ]")
-                    : ANSIColors.greenText("[x]");
-            output.append(String.format(" %s %s: %s%n", checkString, ANSIColors.blueText(taskCategory), task.getDescription()));
-        }
-
-        return output;
+        return render(tasks, TaskListRenderer.Layout.SIMPLE, "Tasks Due " + date);
+    }
+
+    /**
+     * Creates a formatted string builder for a list of tasks due on different dates.
+     *
+     * @param tasks the list of tasks to display, by date
+     * @param title the dates for which tasks are displayed
+     * @return a StringBuilder containing the formatted list
+     */
+    public static StringBuilder displayDatedList(List<Task> tasks, String title) {
+        return render(tasks, TaskListRenderer.Layout.DATED, "Tasks Due " + title);
     }
 
     /**
@@ -58,22 +74,7 @@ public class TaskUtils {
      * @return a StringBuilder containing the formatted table
      */
     public static StringBuilder displayTabularList(List<Task> tasks) {
-        StringBuilder output = new StringBuilder();
-        String header = """
-                ----------------------------------------------------
-                |  ID  |      Task Description       | Status | Due Date  |
-                ----------------------------------------------------
-                """;
-        output.append(header);
-
-        for (Task task : tasks) {
-            output.append(String.format(
-                    "| %-4d | %-26s | %-6s | %-10s |%n",
-                    task.getId(), task.getDescription(), task.getStatus(), task.getDate()
-            ));
-        }
-
-        return output;
+        return render(tasks, TaskListRenderer.Layout.TABLE, null);
     }
 
     /**
@@ -83,23 +84,20 @@ public class TaskUtils {
      * @return a StringBuilder containing the detailed task information
      */
     public static StringBuilder displayDetailedList(List<Task> tasks) {
-        StringBuilder output = new StringBuilder();
-
-        for (Task task : tasks) {
-            output.append(String.format("""
-                    Task ID: %s
-                    Description: %s
-                    Status: %s
-                    Date: %s
-                    -------------------------------------------------
-                    """, task.getId(), task.getDescription(), task.getStatus(), task.getDate()));
-        }
-
-        return output;
+        return render(tasks, TaskListRenderer.Layout.DETAILED, null);
     }
 
     // Private utility methods
 
+    /**
+     * Renders a whole list in memory, for the callers that need it as a string.
+     */
+    private static StringBuilder render(List<Task> tasks, TaskListRenderer.Layout layout, String title) {
+        StringWriter output = new StringWriter();
+        new TaskListRenderer(new PrintWriter(output)).render(tasks, layout, title, 0, 0);
+        return new StringBuilder(output.getBuffer());
+    }
+
     /**
      * Creates a border for the header box.
      *
@@ -0,0 +1,127 @@
+package com.example.TaskShell;
+
+import com.example.TaskShell.commands.TaskCommands;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OneShotLauncherTest {
+
+    // Options of the forwarded commands that only the shell handles
+    private static final Set<String> SHELL_ONLY_OPTIONS = Set.of("--p", "--page");
+
+    @TempDir
+    File home;
+
+    private final PrintStream standardOutput = System.out;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void redirect() {
+        System.setProperty("taskshell.home", home.getPath());
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void restore() {
+        System.setOut(standardOutput);
+        System.clearProperty("taskshell.home");
+    }
+
+    @Test
+    void knownCommandsRunWithoutTheShell() throws IOException {
+        assertEquals(0, OneShotLauncher.run(new String[]{"add", "write report", "--d", "01/01/2025"}, new StartupReport()));
+        assertEquals(0, OneShotLauncher.run(new String[]{"list", "01/01/2025", "--limit", "5"}, new StartupReport()));
+
+        assertTrue(output.toString(StandardCharsets.UTF_8).contains("write report"));
+        assertEquals(0, OneShotLauncher.run(new String[]{"mark-done", "--date", "01/01/2025", "--match", "REPORT"}, new StartupReport()));
+        assertTrue(output.toString(StandardCharsets.UTF_8).contains("1 task marked as DONE"));
+        TaskRepository repository = new TaskRepository(home);
+        Task task = repository.findAll().get(0);
+        assertEquals("01/01/2025", task.getDate());
+        assertEquals(TaskStatus.DONE, task.getStatus());
+        repository.close();
+    }
+
+    @Test
+    void anythingElseIsLeftToTheShell() {
+        StartupReport report = new StartupReport();
+        assertEquals(-1, OneShotLauncher.run(new String[]{}, report));
+        assertEquals(-1, OneShotLauncher.run(new String[]{"store", "info"}, report));
+        assertEquals(-1, OneShotLauncher.run(new String[]{"list", "--unknown"}, report));
+        assertEquals(-1, OneShotLauncher.run(new String[]{"list", "--page"}, report));
+        assertEquals(-1, OneShotLauncher.run(new String[]{"list", "--limit", "many"}, report));
+        assertEquals(-1, OneShotLauncher.run(new String[]{"add"}, report));
+        assertEquals(-1, OneShotLauncher.run(new String[]{"list", "--taskshell.home=/tmp"}, report));
+        assertEquals("", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void commandsHaveTheOptionsOfTheShell() {
+        for (Map.Entry<String, OneShotLauncher.CommandSpec> command : OneShotLauncher.COMMANDS.entrySet()) {
+            OneShotLauncher.CommandSpec spec = command.getValue();
+            Set<String> shellNames = new HashSet<>();
+            for (Parameter parameter : shellMethod(command.getKey()).getParameters()) {
+                ShellOption option = parameter.getAnnotation(ShellOption.class);
+                List<String> names = option != null && option.value().length > 0 ? Arrays.asList(option.value())
+                        : List.of("--" + parameter.getName());
+                String defaultValue = option != null ? option.defaultValue() : ShellOption.NONE;
+                String description = command.getKey() + " " + names;
+                shellNames.addAll(names);
+                if (names.stream().anyMatch(SHELL_ONLY_OPTIONS::contains)) {
+                    assertTrue(names.stream().noneMatch(name -> spec.flags().contains(name) || spec.options().containsKey(name)),
+                            description);
+                } else if (parameter.getType() == boolean.class || parameter.getType() == Boolean.class) {
+                    assertTrue(spec.flags().containsAll(names), description);
+                    assertEquals("false", defaultValue, description);
+                } else {
+                    String name = spec.options().get(names.get(0));
+                    assertNotNull(name, description);
+                    assertTrue(names.contains(name), description);
+                    names.forEach(alias -> assertEquals(name, spec.options().get(alias), description));
+                    boolean hasDefault = !defaultValue.equals(ShellOption.NONE) && !defaultValue.equals(ShellOption.NULL);
+                    assertEquals(hasDefault ? defaultValue : null, spec.defaults().get(name), description);
+                    if (spec.mandatory().contains(name)) {
+                        assertEquals(ShellOption.NONE, defaultValue, description);
+                    }
+                }
+            }
+            assertTrue(shellNames.containsAll(spec.flags()), command.getKey());
+            assertTrue(shellNames.containsAll(spec.options().keySet()), command.getKey());
+            assertTrue(shellNames.containsAll(spec.positionals()), command.getKey());
+        }
+    }
+
+    private static Method shellMethod(String command) {
+        for (Method method : TaskCommands.class.getMethods()) {
+            ShellMethod shellMethod = method.getAnnotation(ShellMethod.class);
+            if (shellMethod != null && Arrays.asList(shellMethod.key()).contains(command)) {
+                return method;
+            }
+        }
+        throw new AssertionError("No shell method for " + command);
+    }
+}
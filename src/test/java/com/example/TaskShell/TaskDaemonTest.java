@@ -0,0 +1,91 @@
+package com.example.TaskShell;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.repositories.TaskRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskDaemonTest {
+
+    private static final int CLIENTS = 8;
+    private static final int TASKS_PER_CLIENT = 25;
+
+    @TempDir
+    File home;
+
+    @Test
+    void runsTheCommandsOfConcurrentClients() throws Exception {
+        TaskDaemon daemon = TaskDaemon.start(home, new TaskMetrics());
+        Thread server = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        server.start();
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            assertEquals(0, DaemonClient.forward(home, new String[]{"add", "resident", "--d", "01/01/2025"}, output, null));
+            assertEquals(0, DaemonClient.forward(home, new String[]{"list", "01/01/2025"}, output, null));
+            assertTrue(output.toString(StandardCharsets.UTF_8).contains("resident"));
+
+            // Left to the client: asks on its terminal, or not a one-shot command
+            assertEquals(TaskDaemon.RUN_LOCALLY, DaemonClient.forward(home, new String[]{"add", "x", "--c", "missing"}, output, null));
+            assertEquals(TaskDaemon.RUN_LOCALLY, DaemonClient.forward(home, new String[]{"store", "info"}, output, null));
+
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int client = 0; client < CLIENTS; client++) {
+                int id = client;
+                results.add(clients.submit(() -> {
+                    int failures = 0;
+                    for (int task = 0; task < TASKS_PER_CLIENT; task++) {
+                        String[] add = {"add", "client " + id + " #" + task, "--d", "02/01/2025"};
+                        failures += DaemonClient.forward(home, add, new ByteArrayOutputStream(), null);
+                        failures += DaemonClient.forward(home, new String[]{"list", "--a"}, new ByteArrayOutputStream(), null);
+                    }
+                    return failures;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(0, result.get());
+            }
+            clients.shutdown();
+
+            assertEquals(0, DaemonClient.forward(home, new String[]{"daemon", "stop"}, output, null));
+            server.join(10_000);
+            assertFalse(server.isAlive());
+        } finally {
+            daemon.close();
+        }
+
+        assertFalse(Files.exists(TaskDaemon.socketPath(home)));
+        assertEquals(-1, DaemonClient.forward(home, new String[]{"list"}, new ByteArrayOutputStream(), null));
+        TaskRepository repository = new TaskRepository(home);
+        assertEquals(1 + CLIENTS * TASKS_PER_CLIENT, repository.findAll().size());
+        repository.close();
+    }
+
+    @Test
+    void staleSocketFilesAreIgnored() throws IOException {
+        Files.createFile(TaskDaemon.socketPath(home));
+        assertEquals(-1, DaemonClient.forward(home, new String[]{"list"}, new ByteArrayOutputStream(), null));
+    }
+}
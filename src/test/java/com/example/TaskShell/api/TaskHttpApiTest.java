@@ -0,0 +1,160 @@
+package com.example.TaskShell.api;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.repositories.CategoryRegistry;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.services.CategoryService;
+import com.example.TaskShell.services.TaskService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskHttpApiTest {
+
+    @TempDir
+    File home;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TaskRepository repository;
+    private TaskService taskService;
+    private TaskHttpApi api;
+
+    @BeforeEach
+    void start() throws IOException {
+        repository = new TaskRepository(home);
+        CategoryRegistry categories = new CategoryRegistry(home);
+        categories.add("Work");
+        TaskMetrics metrics = new TaskMetrics();
+        taskService = new TaskService(repository, new CategoryService(categories, metrics), metrics);
+        api = new TaskHttpApi(taskService, metrics, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        api.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        api.close();
+        repository.close();
+    }
+
+    @Test
+    void servesTheTaskCommands() throws Exception {
+        HttpResponse<String> added = post("/tasks", "{\"description\":\"write report\",\"date\":\"01/01/2025\",\"category\":\"Work\"}");
+        assertEquals(201, added.statusCode());
+        String id = json(added).get("id").asText();
+        assertEquals("/tasks/" + id, added.headers().firstValue("Location").orElseThrow());
+        assertEquals(201, post("/tasks", "{\"description\":\"call bank\",\"date\":\"01/01/2025\"}").statusCode());
+        assertEquals(201, post("/tasks", "{\"description\":\"pay rent\",\"date\":\"01/01/2025\",\"status\":\"DONE\"}").statusCode());
+
+        assertEquals(3, json(get("/tasks?date=01/01/2025")).size());
+        assertEquals(1, json(get("/tasks?category=Work")).size());
+        assertEquals(1, json(get("/tasks?from=01/01/2025&to=31/01/2025&status=done")).size());
+        assertEquals("write report", json(get("/tasks/" + id)).get("description").asText());
+        assertEquals(404, get("/tasks/" + UUID.randomUUID()).statusCode());
+
+        assertEquals("DONE", json(post("/tasks/" + id + "/done", "")).get("status").asText());
+        assertEquals(404, post("/tasks/" + UUID.randomUUID() + "/done", "").statusCode());
+
+        JsonNode moved = json(post("/tasks/move-todo?from=01/01/2025&to=02/01/2025", ""));
+        assertEquals(1, moved.size());
+        assertEquals("call bank", moved.get(0).get("description").asText());
+        assertEquals(1, json(get("/tasks?date=02/01/2025")).size());
+    }
+
+    @Test
+    void rejectsBadRequests() throws Exception {
+        assertEquals(400, post("/tasks", "{not json").statusCode());
+        assertEquals(400, post("/tasks", "{\"date\":\"01/01/2025\"}").statusCode());
+        HttpResponse<String> unknownCategory = post("/tasks", "{\"description\":\"x\",\"category\":\"Missing\"}");
+        assertEquals(400, unknownCategory.statusCode());
+        assertTrue(json(unknownCategory).get("error").asText().contains("Missing"));
+        assertEquals(400, get("/tasks?from=2025-01-01").statusCode());
+        assertEquals(400, get("/tasks?status=SOMEDAY").statusCode());
+        assertEquals(400, post("/tasks/move-todo?from=02/01/2025&to=01/01/2025", "").statusCode());
+        assertEquals(404, get("/tasks/not-an-id").statusCode());
+        assertEquals(0, json(get("/tasks")).size());
+    }
+
+    @Test
+    void concurrentWritesAreAllKept() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int task = i;
+            statuses.add(clients.submit(() -> task % 2 == 0
+                    ? post("/tasks", "{\"description\":\"task " + task + "\",\"date\":\"03/01/2025\"}").statusCode()
+                    : get("/tasks?date=03/01/2025").statusCode()));
+        }
+        for (int i = 0; i < statuses.size(); i++) {
+            assertEquals(i % 2 == 0 ? 201 : 200, statuses.get(i).get());
+        }
+        clients.shutdown();
+        assertEquals(100, json(get("/tasks?date=03/01/2025")).size());
+        assertEquals(100, repository.findAll().size());
+    }
+
+    @Test
+    void writesWaitForTheChangesOfTheShell() throws Exception {
+        String id = json(post("/tasks", "{\"description\":\"draft\",\"date\":\"01/01/2025\"}")).get("id").asText();
+        ExecutorService clients = Executors.newSingleThreadExecutor();
+        Future<HttpResponse<String>> done;
+        // A command of the shell, between reading the task and saving it
+        taskService.getWriteLock().lock();
+        try {
+            done = clients.submit(() -> post("/tasks/" + id + "/done", ""));
+            assertThrows(TimeoutException.class, () -> done.get(200, TimeUnit.MILLISECONDS));
+            taskService.updateTask(id, "final", "no date");
+        } finally {
+            taskService.getWriteLock().unlock();
+        }
+        assertEquals(200, done.get().statusCode());
+        clients.shutdown();
+
+        JsonNode task = json(get("/tasks/" + id));
+        assertEquals("final", task.get("description").asText());
+        assertEquals("DONE", task.get("status").asText());
+    }
+
+    // Private Helper Methods
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + api.getPort() + path);
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws IOException {
+        return mapper.readTree(response.body());
+    }
+}
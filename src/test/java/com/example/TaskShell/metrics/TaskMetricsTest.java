@@ -0,0 +1,68 @@
+package com.example.TaskShell.metrics;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.repositories.FsyncPolicy;
+import com.example.TaskShell.repositories.StoreFormat;
+import com.example.TaskShell.repositories.StoreSettings;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskMetricsTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void percentilesAreWithinOneBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(0.5005, snapshot.meanMillis(), 1e-9);
+        assertEquals(0.5, snapshot.p50Millis(), 0.5 * 0.125);
+        assertEquals(0.9, snapshot.p90Millis(), 0.9 * 0.125);
+        assertEquals(0.99, snapshot.p99Millis(), 0.99 * 0.125);
+        assertEquals(1.0, snapshot.maxMillis());
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().count());
+    }
+
+    @Test
+    void bucketsCoverEveryValue() {
+        for (long value : new long[]{0, 7, 8, 9, 1023, 1024, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.lowerBound(bucket) <= value);
+            assertTrue(value - LatencyHistogram.lowerBound(bucket) <= value / 8);
+        }
+    }
+
+    @Test
+    void dumpsTheStoreMetricsOnClose() throws IOException {
+        File dump = new File(tempDir, "metrics/metrics.json");
+        TaskMetrics metrics = new TaskMetrics(dump);
+        TaskRepository repository = new TaskRepository(new File(tempDir, "store"), StoreFormat.JSON,
+                new StoreSettings(FsyncPolicy.NEVER, 0), metrics);
+        repository.save(new Task("measure me", "01/01/2025"));
+        repository.close();
+        metrics.close();
+
+        JsonNode json = new ObjectMapper().readTree(dump);
+        assertEquals(1, json.path("counters").path("store.records-written").asLong());
+        assertTrue(json.path("counters").path("store.bytes-written").asLong() > 0);
+        assertEquals(1, json.path("timers").path("store.write").path("count").asLong());
+        assertTrue(json.path("gauges").path("store.bytes").asLong() > 0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.TaskShell.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CategoryRegistryTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void appendsChangesAndReadsThemBack() throws IOException {
+        // Written by previous versions, without a trailing new line
+        Files.writeString(new File(tempDir, CategoryRegistry.FILE_NAME).toPath(), "Work\nHome");
+
+        CategoryRegistry registry = new CategoryRegistry(tempDir);
+        assertTrue(registry.contains("Home"));
+        assertTrue(registry.add("-dash"));
+        assertFalse(registry.add("Work"));
+        assertTrue(registry.remove("Work"));
+        assertFalse(registry.remove("Unknown"));
+
+        assertEquals(List.of("Home", "-dash"), new CategoryRegistry(tempDir).findAll());
+    }
+
+    @Test
+    void readsTheLinesOfPreviousVersionsAsTheyAre() throws IOException {
+        File file = new File(tempDir, CategoryRegistry.FILE_NAME);
+        Files.writeString(file.toPath(), "Work\n-x\n\\y\n");
+
+        CategoryRegistry registry = new CategoryRegistry(tempDir);
+        assertEquals(List.of("Work", "-x", "\\y"), registry.findAll());
+        assertTrue(registry.add("-z"));
+        assertEquals("Work\n-x\n\\y\n-z\n", Files.readString(file.toPath()));
+        assertEquals(List.of("Work", "-x", "\\y", "-z"), new CategoryRegistry(tempDir).findAll());
+
+        assertTrue(registry.remove("Work"));
+        assertEquals(CategoryRegistry.FORMAT_HEADER, Files.readAllLines(file.toPath()).get(0));
+        assertTrue(registry.remove("-x"));
+        assertEquals(List.of("\\y", "-z"), new CategoryRegistry(tempDir).findAll());
+    }
+
+    @Test
+    void rewritesTheFileOnceMostLinesAreDeletions() throws IOException {
+        CategoryRegistry registry = new CategoryRegistry(tempDir);
+        for (int i = 0; i < 100; i++) {
+            registry.add("project " + i);
+        }
+        for (int i = 0; i < 90; i++) {
+            registry.remove("project " + i);
+        }
+
+        List<String> lines = Files.readAllLines(registry.getFile().toPath());
+        assertTrue(lines.size() < 190);
+        assertEquals(10, new CategoryRegistry(tempDir).findAll().size());
+        assertEquals("project 90", registry.findAll().get(0));
+    }
+
+    @Test
+    void keepsTheChangesOfOtherSessionsWhenRewriting() throws IOException {
+        CategoryRegistry registry = new CategoryRegistry(tempDir);
+        registry.addAll(List.of("Work", "Home"));
+        for (int i = 0; i < 130; i++) {
+            registry.add("project " + i);
+            registry.remove("project " + i);
+        }
+        assertTrue(new CategoryRegistry(tempDir).add("Errands"));
+
+        assertTrue(registry.remove("Home"));
+        assertEquals(List.of("Work", "Errands"), new CategoryRegistry(tempDir).findAll());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarTaskStoreTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void patchesRowsInPlaceAndSurvivesGrowth() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (ColumnarTaskStore store = new ColumnarTaskStore(tempDir)) {
+            for (int i = 0; i < 3000; i++) {
+                Task task = new Task("task " + i, i % 2 == 0 ? "01/01/2025" : "02/01/2025");
+                task.setCategory(i % 3 == 0 ? "Work" : "Home");
+                tasks.add(task);
+            }
+            store.append(tasks.stream().map(TaskRecord::put).toList());
+
+            Task done = tasks.get(0).clone();
+            done.setStatus(TaskStatus.DONE);
+            done.setDescription("renamed");
+            store.append(List.of(TaskRecord.put(done), TaskRecord.delete(tasks.get(2).getId())));
+
+            assertEquals(2999, store.loadAll().size());
+            assertEquals(1499, store.scan("01/01/2025", null, null).size());
+            assertEquals(1, store.scan("01/01/2025", TaskStatus.DONE, "Work").size());
+        }
+
+        try (ColumnarTaskStore reopened = new ColumnarTaskStore(tempDir)) {
+            Task first = reopened.loadAll().get(0);
+            assertEquals(tasks.get(0).getId(), first.getId());
+            assertEquals("renamed", first.getDescription());
+            assertEquals(TaskStatus.DONE, first.getStatus());
+            assertEquals("01/01/2025", first.getDate());
+            assertEquals("Work", first.getCategory());
+            assertEquals(0, reopened.scan(null, null, "Unknown").size());
+        }
+    }
+
+    @Test
+    void convertsBetweenFormats() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir);
+        Task task = new Task("convert me", "01/01/2025");
+        repository.save(task);
+
+        assertEquals(1, repository.convertTo(StoreFormat.COLUMNAR));
+        assertEquals(StoreFormat.COLUMNAR, repository.getStore().getFormat());
+        assertTrue(new File(tempDir, TaskLog.FILE_NAME + ".bak").exists());
+        repository.close();
+
+        TaskRepository reopened = new TaskRepository(tempDir);
+        assertEquals(StoreFormat.COLUMNAR, reopened.getStore().getFormat());
+        assertEquals(task.getId(), reopened.findAll().get(0).getId());
+
+        reopened.convertTo(StoreFormat.JSON);
+        assertFalse(new File(tempDir, ColumnarTaskStore.FILE_NAME).exists());
+        assertEquals("convert me", new TaskRepository(tempDir).findAll().get(0).getDescription());
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.utils.DateUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedTaskStoreTest {
+
+    private static final StoreSettings SETTINGS = new StoreSettings(FsyncPolicy.NEVER, 0);
+    private static final int FIRST_DAY = DateUtils.parseEpochDay("01/01/2025");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void scansOnlyTheBlocksOfTheDate() throws IOException {
+        List<Task> tasks = history(0, 365, 10);
+        try (CompressedTaskStore store = new CompressedTaskStore(tempDir, mapper, SETTINGS)) {
+            store.append(tasks.stream().map(TaskRecord::put).toList());
+        }
+        long logLength = tasks.stream().mapToLong(task -> json(TaskRecord.put(task)).length() + 1).sum();
+        File blocks = new File(tempDir, CompressedTaskStore.FILE_NAME);
+        assertTrue(blocks.length() < logLength / 2);
+
+        try (CompressedTaskStore store = new CompressedTaskStore(tempDir, mapper, SETTINGS)) {
+            String day = DateUtils.formatEpochDay(FIRST_DAY + 200);
+            List<Task> found = store.scan(day, null, null);
+            assertEquals(10, found.size());
+            assertTrue(found.stream().allMatch(task -> task.getDate().equals(day)));
+            assertTrue(store.inflatedBlocks() <= 2);
+            assertTrue(store.scanLength(day) < store.scanLength(null) / 2);
+            assertEquals(List.of(), store.scan("01/01/2030", null, null));
+
+            assertEquals(descriptions(tasks), descriptions(store.loadAll()));
+        }
+    }
+
+    @Test
+    void dropsTasksMovedOrDeletedByLaterBlocks() throws IOException {
+        String day = DateUtils.formatEpochDay(FIRST_DAY);
+        List<Task> tasks = history(0, 30, 10);
+        Task moved = tasks.get(0).clone();
+        moved.setDate(DateUtils.formatEpochDay(FIRST_DAY + 1000));
+        Task done = tasks.get(1).clone();
+        done.setStatus(TaskStatus.DONE);
+        try (CompressedTaskStore store = new CompressedTaskStore(tempDir, mapper, SETTINGS)) {
+            store.append(tasks.stream().map(TaskRecord::put).toList());
+            List<TaskRecord> later = new ArrayList<>(history(100, 300, 1).stream().map(TaskRecord::put).toList());
+            later.add(TaskRecord.put(moved));
+            later.add(TaskRecord.delete(tasks.get(2).getId()));
+            later.addAll(history(400, 300, 1).stream().map(TaskRecord::put).toList());
+            store.append(later);
+            store.append(List.of(TaskRecord.put(done)));
+        }
+
+        try (CompressedTaskStore store = new CompressedTaskStore(tempDir, mapper, SETTINGS)) {
+            List<Task> found = store.scan(day, null, null);
+            assertEquals(8, found.size());
+            assertEquals(List.of(tasks.get(1).getId()), store.scan(day, TaskStatus.DONE, null).stream().map(Task::getId).toList());
+            assertEquals(List.of(moved.getId()), store.scan(moved.getDate(), null, null).stream().map(Task::getId).toList());
+            assertEquals(899, store.loadAll().size());
+
+            CompactionResult result = store.compact();
+            assertTrue(result.bytesReclaimed() > 0);
+            assertEquals(8, store.scan(day, null, null).size());
+            assertEquals(899, store.loadAll().size());
+        }
+    }
+
+    @Test
+    void rollsBackAnInterruptedWrite() throws IOException {
+        List<Task> tasks = history(0, 10, 50);
+        try (CompressedTaskStore store = new CompressedTaskStore(tempDir, mapper, SETTINGS)) {
+            store.append(tasks.stream().map(TaskRecord::put).toList());
+        }
+        // A process that died before replacing the tail, and one that died while appending to it
+        File blocks = new File(tempDir, CompressedTaskStore.FILE_NAME);
+        long committed = blocks.length();
+        write(blocks, "a block that was never committed");
+        write(new File(tempDir, CompressedTaskStore.TAIL_FILE_NAME), "{\"op\":\"PUT\",\"task\":{\"id");
+
+        Task task = new Task("after the crash", DateUtils.formatEpochDay(FIRST_DAY));
+        try (CompressedTaskStore store = new CompressedTaskStore(tempDir, mapper, SETTINGS)) {
+            assertEquals(tasks.size(), store.loadAll().size());
+            store.append(List.of(TaskRecord.put(task)));
+            assertEquals(committed, blocks.length());
+            assertEquals(51, store.scan(task.getDate(), null, null).size());
+            assertEquals(tasks.size() + 1, store.loadAll().size());
+        }
+    }
+
+    @Test
+    void convertsTheStoreOfTheRepository() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir, StoreFormat.JSON, SETTINGS, new TaskMetrics());
+        for (Task task : history(0, 5, 2)) {
+            repository.save(task);
+        }
+        assertEquals(10, repository.convertTo(StoreFormat.COMPRESSED));
+        repository.close();
+
+        repository = new TaskRepository(tempDir, StoreFormat.JSON, SETTINGS, new TaskMetrics());
+        assertEquals(StoreFormat.COMPRESSED, repository.getStore().getFormat());
+        assertEquals(2, repository.find(DateUtils.formatEpochDay(FIRST_DAY + 4), null, null).size());
+        assertEquals(10, repository.findAll().size());
+        repository.close();
+    }
+
+    /**
+     * @return tasks created day after day, as a long use of the shell leaves them
+     */
+    private static List<Task> history(int firstDay, int days, int tasksPerDay) {
+        List<Task> tasks = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            for (int i = 0; i < tasksPerDay; i++) {
+                tasks.add(new Task("task " + i + " of day " + day, DateUtils.formatEpochDay(FIRST_DAY + firstDay + day)));
+            }
+        }
+        return tasks;
+    }
+
+    private String json(TaskRecord record) {
+        try {
+            return mapper.writeValueAsString(record);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<String> descriptions(List<Task> tasks) {
+        return tasks.stream().map(Task::getDescription).toList();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
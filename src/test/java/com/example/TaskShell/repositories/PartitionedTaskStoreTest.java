@@ -0,0 +1,139 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedTaskStoreTest {
+
+    private static final StoreSettings SETTINGS = new StoreSettings(FsyncPolicy.NEVER, 0);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void scansOnlyThePartitionOfTheDate() throws IOException {
+        Task january = new Task("january", "15/01/2026");
+        Task february = new Task("february", "02/02/2026");
+        Task undated = new Task("undated", "no date");
+        try (PartitionedTaskStore store = new PartitionedTaskStore(tempDir, mapper, SETTINGS)) {
+            store.append(List.of(TaskRecord.put(undated), TaskRecord.put(february), TaskRecord.put(january)));
+
+            File partitions = new File(tempDir, PartitionedTaskStore.DIRECTORY_NAME);
+            assertTrue(new File(partitions, "2026-01.log").exists());
+            assertTrue(new File(partitions, "2026-02.log").exists());
+            assertTrue(new File(partitions, "undated.log").exists());
+            assertEquals(List.of("january"), descriptions(store.scan("15/01/2026", null, null)));
+            assertEquals(new File(partitions, "2026-01.log").length(), store.scanLength("15/01/2026"));
+            assertEquals(List.of(), store.scan("15/03/2026", null, null));
+            // By partition, the undated tasks last
+            assertEquals(List.of("january", "february", "undated"), descriptions(store.loadAll()));
+        }
+    }
+
+    @Test
+    void movesAndDeletesTasksAcrossPartitionsAfterReopening() throws IOException {
+        Task task = new Task("move me", "31/01/2026");
+        Task other = new Task("stay", "31/01/2026");
+        try (PartitionedTaskStore store = new PartitionedTaskStore(tempDir, mapper, SETTINGS)) {
+            store.append(List.of(TaskRecord.put(task), TaskRecord.put(other)));
+        }
+
+        Task moved = task.clone();
+        moved.setDate("01/02/2026");
+        try (PartitionedTaskStore store = new PartitionedTaskStore(tempDir, mapper, SETTINGS)) {
+            store.append(List.of(TaskRecord.put(moved)));
+            assertEquals(List.of("stay"), descriptions(store.scan("31/01/2026", null, null)));
+            assertEquals(List.of("move me"), descriptions(store.scan("01/02/2026", null, null)));
+        }
+
+        try (PartitionedTaskStore store = new PartitionedTaskStore(tempDir, mapper, SETTINGS)) {
+            store.append(List.of(TaskRecord.delete(task.getId())));
+            assertEquals(List.of("stay"), descriptions(store.loadAll()));
+
+            CompactionResult result = store.compact();
+            assertTrue(result.bytesReclaimed() > 0);
+            assertEquals(List.of("stay"), descriptions(store.loadAll()));
+            store.append(List.of(TaskRecord.delete(other.getId())));
+            assertEquals(List.of(), store.loadAll());
+        }
+    }
+
+    @Test
+    void rollsBackAnInterruptedWrite() throws IOException {
+        Task task = new Task("committed", "10/03/2026");
+        try (PartitionedTaskStore store = new PartitionedTaskStore(tempDir, mapper, SETTINGS)) {
+            store.append(List.of(TaskRecord.put(task)));
+        }
+        // A process that died before replacing the manifest: a moved task is in both partitions
+        Task moved = task.clone();
+        moved.setDate("10/04/2026");
+        File partitions = new File(tempDir, PartitionedTaskStore.DIRECTORY_NAME);
+        write(new File(partitions, "2026-04.log"), mapper.writeValueAsString(TaskRecord.put(moved)) + "\n");
+        write(new File(partitions, "2026-03.log"), mapper.writeValueAsString(TaskRecord.delete(task.getId())) + "\n");
+        write(new File(partitions, PartitionedTaskStore.IDS_FILE_NAME), "partial entry");
+
+        try (PartitionedTaskStore store = new PartitionedTaskStore(tempDir, mapper, SETTINGS)) {
+            assertEquals(List.of("committed"), descriptions(store.loadAll()));
+            assertEquals("10/03/2026", store.loadAll().get(0).getDate());
+
+            Task done = task.clone();
+            done.setStatus(TaskStatus.DONE);
+            store.append(List.of(TaskRecord.put(done)));
+            assertEquals(TaskStatus.DONE, store.scan("10/03/2026", null, null).get(0).getStatus());
+            assertEquals(List.of(), store.scan("10/04/2026", null, null));
+        }
+    }
+
+    @Test
+    void migratesTheLegacyTasksFileAndWritesWithoutReadingEveryPartition() throws IOException {
+        Task old = new Task("from tasks.json", "05/05/2025");
+        Task today = new Task("today", "06/06/2026");
+        mapper.writeValue(new File(tempDir, "tasks.json"), List.of(old, today));
+
+        TaskMetrics metrics = new TaskMetrics();
+        TaskRepository repository = new TaskRepository(tempDir, StoreFormat.PARTITIONED, SETTINGS, metrics);
+        assertEquals(2, repository.findAll().size());
+        repository.close();
+        assertTrue(new File(tempDir, "partitions/2025-05.log").exists());
+
+        metrics = new TaskMetrics();
+        repository = new TaskRepository(tempDir, StoreFormat.JSON, SETTINGS, metrics);
+        assertEquals(StoreFormat.PARTITIONED, repository.getStore().getFormat());
+        List<Task> undone = repository.find("06/06/2026", TaskStatus.TODO, null);
+        Task copy = undone.get(0).clone();
+        copy.setNewId();
+        copy.setDate("07/06/2026");
+        repository.saveCopies(List.of(copy), undone);
+        assertEquals(0, metrics.counters().getOrDefault("store.tasks-parsed", 0L));
+        assertFalse(repository.find("07/06/2026", null, null).isEmpty());
+        assertEquals(3, repository.findAll().size());
+        repository.close();
+    }
+
+    private static List<String> descriptions(List<Task> tasks) {
+        return tasks.stream().map(Task::getDescription).toList();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void ranksExactThenPrefixThenSubstringMatches() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir);
+        Task substring = new Task("Prepare the prereport", "01/01/2025");
+        Task prefix = new Task("Reporting dashboard", "01/01/2025");
+        Task exact = new Task("Send the report, report again", "01/01/2025");
+        Task other = new Task("Buy milk", "01/01/2025");
+        repository.saveAll(List.of(substring, prefix, exact, other));
+
+        assertEquals(List.of(exact.getId(), prefix.getId(), substring.getId()), ids(repository.search("report", 10)));
+        assertEquals(List.of(exact.getId(), prefix.getId()), ids(repository.search("rep*", 10)));
+        assertEquals(List.of(exact.getId()), ids(repository.search("send REPORT", 10)));
+
+        Task renamed = repository.findById(other.getId().toString());
+        renamed.setDescription("Report on milk prices");
+        repository.save(renamed);
+        assertTrue(repository.search("buy", 10).isEmpty());
+        assertEquals(4, repository.search("report", 10).size());
+
+        repository.delete(exact);
+        assertTrue(repository.search("send", 10).isEmpty());
+        repository.close();
+
+        File saved = new File(tempDir, SearchIndex.FILE_NAME);
+        assertTrue(saved.exists());
+        StoreStamp stamp = new TaskRepository(tempDir).getStore().stamp();
+        SearchIndex index = new SearchIndex();
+        assertTrue(index.load(saved, stamp));
+        assertFalse(index.load(saved, new StoreStamp(0, 0, 0)));
+        assertEquals(List.of(prefix.getId()), ids(new TaskRepository(tempDir).search("dashb", 10)));
+    }
+
+    private static List<UUID> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
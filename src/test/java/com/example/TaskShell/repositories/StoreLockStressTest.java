@@ -0,0 +1,122 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs sessions in separate processes against the same store and checks that no change is lost.
+ */
+class StoreLockStressTest {
+
+    private static final int WORKERS = 4;
+    private static final int ROUNDS = 40;
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void concurrentProcessesDontLoseUpdates() throws Exception {
+        TaskRepository repository = new TaskRepository(tempDir, StoreFormat.JSON, new StoreSettings(FsyncPolicy.NEVER, 0));
+        Task shared = new Task("shared", "01/01/2025");
+        repository.save(shared);
+        repository.close();
+
+        List<Process> processes = new ArrayList<>();
+        for (int worker = 0; worker < WORKERS; worker++) {
+            processes.add(new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                    "-cp", System.getProperty("java.class.path"), Worker.class.getName(),
+                    tempDir.getPath(), String.valueOf(worker), shared.getId().toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File(tempDir, "worker-" + worker + ".out"))
+                    .start());
+        }
+        for (int worker = 0; worker < WORKERS; worker++) {
+            File ready = new File(tempDir, "ready-" + worker);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (!ready.exists() && processes.get(worker).isAlive() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        Files.createFile(new File(tempDir, "start").toPath());
+        for (int worker = 0; worker < WORKERS; worker++) {
+            int index = worker;
+            assertTrue(processes.get(worker).waitFor(120, TimeUnit.SECONDS));
+            assertEquals(0, processes.get(worker).exitValue(), () -> output(index));
+        }
+
+        List<Task> tasks = new TaskRepository(tempDir).findAll();
+        assertEquals(1 + WORKERS * ROUNDS, tasks.size());
+        Set<String> descriptions = tasks.stream().map(Task::getDescription).collect(Collectors.toSet());
+        for (int worker = 0; worker < WORKERS; worker++) {
+            for (int round = 0; round < ROUNDS; round++) {
+                assertTrue(descriptions.contains("worker " + worker + " #" + round));
+            }
+        }
+
+        // Every worker owns one field of the shared task, its last value must survive the others
+        Task merged = tasks.get(0);
+        assertEquals("described " + (ROUNDS - 1), merged.getDescription());
+        assertEquals("category " + (ROUNDS - 1), merged.getCategory());
+        assertEquals(String.format("%02d/02/2025", (ROUNDS - 1) % 28 + 1), merged.getDate());
+        assertEquals(TaskStatus.DONE, merged.getStatus());
+    }
+
+    private String output(int worker) {
+        try {
+            return Files.readString(new File(tempDir, "worker-" + worker + ".out").toPath());
+        } catch (IOException e) {
+            return e.toString();
+        }
+    }
+
+    /**
+     * A session adding its own tasks and changing its own field of the shared task with a stale copy of it.
+     */
+    public static class Worker {
+
+        public static void main(String[] args) throws Exception {
+            File directory = new File(args[0]);
+            int worker = Integer.parseInt(args[1]);
+            String sharedId = args[2];
+            TaskRepository repository = new TaskRepository(directory, StoreFormat.JSON, new StoreSettings(FsyncPolicy.NEVER, 0));
+            repository.findAll();
+            Files.createFile(new File(directory, "ready-" + worker).toPath());
+            while (!new File(directory, "start").exists()) {
+                Thread.sleep(1);
+            }
+
+            for (int round = 0; round < ROUNDS; round++) {
+                repository.save(new Task("worker " + worker + " #" + round, "01/01/2025"));
+
+                // Keeps the change in memory while the others write, so that it is made on a stale task
+                repository.deferWrites();
+                Task shared = repository.findById(sharedId);
+                switch (worker) {
+                    case 0 -> shared.setDescription("described " + round);
+                    case 1 -> shared.setCategory("category " + round);
+                    case 2 -> shared.setDate(String.format("%02d/02/2025", round % 28 + 1));
+                    default -> shared.setStatus(round % 2 == 0 ? TaskStatus.TODO : TaskStatus.DONE);
+                }
+                repository.save(shared);
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+                repository.endDeferredWrites();
+            }
+            repository.close();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskEvent;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.services.CategoryService;
+import com.example.TaskShell.services.TaskService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskHistoryTest {
+
+    // Small enough for a snapshot every few commits
+    private static final StoreSettings SETTINGS = new StoreSettings(FsyncPolicy.NEVER, 0, 0.5, 1 << 20, true, 1024);
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void tasksAreRebuiltAsOfAnyTime() throws Exception {
+        TaskRepository repository = new TaskRepository(tempDir, StoreFormat.JSON, SETTINGS);
+        Random random = new Random(7);
+        List<Long> times = new ArrayList<>();
+        List<List<String>> states = new ArrayList<>();
+        for (int round = 0; round < 60; round++) {
+            List<Task> tasks = repository.findAll();
+            int change = tasks.size() < 3 ? 0 : random.nextInt(3);
+            if (change == 0) {
+                repository.saveAll(List.of(new Task("task " + round, "01/01/2025"), new Task("other " + round, "02/01/2025")));
+            } else if (change == 1) {
+                Task task = tasks.get(random.nextInt(tasks.size())).clone();
+                task.setStatus(TaskStatus.DONE);
+                task.setDescription(task.getDescription() + " done");
+                repository.save(task);
+            } else {
+                repository.delete(tasks.get(random.nextInt(tasks.size())));
+            }
+            states.add(describe(repository.findAll()));
+            Thread.sleep(2);
+            times.add(System.currentTimeMillis());
+            Thread.sleep(2);
+        }
+        repository.close();
+
+        File[] snapshots = new File(tempDir, TaskHistory.DIRECTORY_NAME).listFiles((dir, name) -> name.endsWith(".json"));
+        assertTrue(snapshots.length > 2, "snapshots: " + snapshots.length);
+        TaskRepository reopened = new TaskRepository(tempDir, StoreFormat.JSON, SETTINGS);
+        assertEquals(List.of(), reopened.findAsOf(times.get(0) - 10_000));
+        for (int round = 0; round < times.size(); round++) {
+            assertEquals(states.get(round), describe(reopened.findAsOf(times.get(round))), "round " + round);
+        }
+        reopened.close();
+    }
+
+    @Test
+    void historyFollowsMovedTasksAndOtherSessions() throws Exception {
+        TaskRepository first = new TaskRepository(tempDir, StoreFormat.JSON, SETTINGS);
+        TaskService taskService = new TaskService(first, new CategoryService(new CategoryRegistry(tempDir)));
+        Task task = taskService.addTask("write report", "01/01/2025", null, null);
+        taskService.updateTask(task.getId().toString(), "write the report", "no date");
+        Task moved = taskService.moveTodoTasks("01/01/2025", "02/01/2025").get(0);
+
+        TaskRepository second = new TaskRepository(tempDir, StoreFormat.JSON, SETTINGS);
+        Task done = second.findById(moved.getId().toString());
+        done.setStatus(TaskStatus.DONE);
+        second.save(done);
+
+        List<TaskEvent> events = first.findHistory(moved.getId().toString());
+        assertEquals(4, events.size());
+        assertEquals(List.of(task.getId(), task.getId(), moved.getId(), moved.getId()),
+                events.stream().map(TaskEvent::getId).toList());
+        assertEquals(task.getId(), events.get(2).getOrigin());
+        assertEquals("02/01/2025", events.get(2).getTask().getDate());
+        assertEquals(TaskStatus.DONE, events.get(3).getTask().getStatus());
+        assertEquals(2, first.findHistory(task.getId().toString()).size());
+
+        String history = taskService.taskHistory(moved.getId().toString());
+        assertTrue(history.contains("created") && history.contains("moved from " + task.getId()), history);
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void historyStartsWithTheTasksAlreadyStored() throws Exception {
+        TaskRepository withoutHistory = new TaskRepository(tempDir, StoreFormat.JSON,
+                new StoreSettings(FsyncPolicy.NEVER, 0, 0.5, 1 << 20, false, 1024));
+        withoutHistory.save(new Task("older", "01/01/2025"));
+        withoutHistory.close();
+        long before = System.currentTimeMillis();
+        Thread.sleep(2);
+
+        TaskRepository repository = new TaskRepository(tempDir, StoreFormat.JSON, SETTINGS);
+        repository.save(new Task("newer", "01/01/2025"));
+        assertNull(repository.findAsOf(before));
+        assertEquals(List.of("older TODO 01/01/2025 Other", "newer TODO 01/01/2025 Other"),
+                describe(repository.findAsOf(System.currentTimeMillis())));
+        assertTrue(repository.historyStart() > before);
+        repository.close();
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream()
+                .map(task -> task.getDescription() + " " + task.getStatus() + " " + task.getDate() + " " + task.getCategory())
+                .toList();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskLogScannerTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void keepsOnlyTasksWhoseLastStateMatches() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        File file = new File(tempDir, "tasks.log");
+        TaskLog log = new TaskLog(file, mapper);
+
+        Task stays = new Task("stays", "01/01/2025");
+        Task movedAway = new Task("moved away", "01/01/2025");
+        Task deleted = new Task("deleted", "01/01/2025");
+        Task other = new Task("x".repeat(100_000), "02/01/2025");
+        log.put(stays);
+        log.put(movedAway);
+        log.put(deleted);
+        log.put(other);
+
+        movedAway.setDate("02/01/2025");
+        log.put(movedAway);
+        log.delete(deleted.getId());
+        stays.setStatus(TaskStatus.DONE);
+        log.put(stays);
+        try (FileWriter writer = new FileWriter(file, true)) {
+            writer.write("{\"op\":\"PUT\",\"task\":{\"id\":\"");
+        }
+
+        TaskLogScanner scanner = new TaskLogScanner(mapper);
+        List<Task> tasks = scanner.scan(file, "01/01/2025", null, null);
+        assertEquals(1, tasks.size());
+        assertEquals(stays.getId(), tasks.get(0).getId());
+        assertEquals(TaskStatus.DONE, tasks.get(0).getStatus());
+
+        assertEquals(0, scanner.scan(file, "01/01/2025", TaskStatus.TODO, null).size());
+        assertEquals(2, scanner.scan(file, "02/01/2025", null, null).size());
+        assertEquals(3, scanner.scan(file, null, null, "Other").size());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskLogTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void replayKeepsLastStateOfEachTask() throws IOException {
+        TaskLog log = new TaskLog(new File(tempDir, "tasks.log"), new ObjectMapper());
+        Task first = new Task("first", "01/01/2025");
+        Task second = new Task("second", "01/01/2025");
+        log.put(first);
+        log.put(second);
+
+        first.setStatus(TaskStatus.DONE);
+        log.put(first);
+        log.delete(second.getId());
+
+        List<Task> tasks = log.loadAll();
+        assertEquals(1, tasks.size());
+        assertEquals(first.getId(), tasks.get(0).getId());
+        assertEquals(TaskStatus.DONE, tasks.get(0).getStatus());
+    }
+
+    @Test
+    void concurrentAppendsAreAllKept() throws Exception {
+        TaskLog log = new TaskLog(new File(tempDir, "tasks.log"), new ObjectMapper(),
+                new StoreSettings(FsyncPolicy.ALWAYS, 0));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    log.put(new Task("task " + i, "01/01/2025"));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        log.close();
+
+        assertEquals(800, log.loadAll().size());
+    }
+
+    @Test
+    void compactionKeepsLiveTasksAndConcurrentAppends() throws Exception {
+        File file = new File(tempDir, "tasks.log");
+        TaskLog log = new TaskLog(file, new ObjectMapper());
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Task task = new Task("task " + i, "01/01/2025");
+            tasks.add(task);
+            log.put(task);
+        }
+        for (Task task : tasks) {
+            task.setStatus(TaskStatus.DONE);
+            log.put(task);
+        }
+        for (int i = 0; i < 100; i++) {
+            log.delete(tasks.get(i).getId());
+        }
+        log.loadAll();
+        assertEquals(0.8, log.garbageRatio(), 0.001);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 50; i++) {
+                log.put(new Task("appended " + i, "02/01/2025"));
+            }
+            return null;
+        });
+        CompactionResult result = log.compact();
+        writer.get();
+        executor.shutdown();
+
+        assertTrue(result.bytesReclaimed() > 0);
+        List<Task> live = log.loadAll();
+        assertEquals(150, live.size());
+        assertEquals(tasks.get(100).getId(), live.get(0).getId());
+        assertEquals(TaskStatus.DONE, live.get(0).getStatus());
+        assertEquals(0, log.garbageRatio(), 0.001);
+        log.close();
+    }
+
+    @Test
+    void interruptedWriteIsSkipped() throws IOException {
+        File file = new File(tempDir, "tasks.log");
+        TaskLog log = new TaskLog(file, new ObjectMapper());
+        log.put(new Task("first", "01/01/2025"));
+        try (FileWriter writer = new FileWriter(file, true)) {
+            writer.write("{\"op\":\"PUT\",\"task\":{\"id\":\"");
+        }
+        log.put(new Task("second", "01/01/2025"));
+
+        assertEquals(2, log.loadAll().size());
+    }
+}
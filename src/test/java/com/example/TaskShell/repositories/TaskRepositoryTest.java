@@ -0,0 +1,265 @@
+package com.example.TaskShell.repositories;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskRecord;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.utils.DateUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskRepositoryTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void savedTasksAreServedFromMemory() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir);
+        Task task = new Task("write tests", "01/01/2025");
+        repository.save(task);
+
+        Task found = repository.findById(task.getId().toString());
+        assertNotSame(task, found);
+        found.setStatus(TaskStatus.DONE);
+        assertEquals(TaskStatus.TODO, repository.findAll().get(0).getStatus());
+
+        repository.save(new Task("second", "01/01/2025"));
+        repository.save(found);
+        assertEquals(TaskStatus.DONE, repository.findAll().get(0).getStatus());
+        assertNull(repository.findById("not-an-id"));
+
+        repository.delete(found);
+        assertNull(repository.findById(task.getId().toString()));
+    }
+
+    @Test
+    void findUsesDateStatusAndCategoryIndexes() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir);
+        Task first = new Task("first", "01/01/2025");
+        Task second = new Task("second", "01/01/2025");
+        second.setCategory("Work");
+        Task third = new Task("third", "02/01/2025");
+        repository.saveAll(List.of(first, second, third));
+
+        assertEquals(List.of(first, second), repository.find("01/01/2025", null, null));
+        assertEquals(List.of(second), repository.find("01/01/2025", TaskStatus.TODO, "Work"));
+        assertEquals(List.of(), repository.find("03/01/2025", null, null));
+
+        Task moved = repository.findById(first.getId().toString());
+        moved.setDate("02/01/2025");
+        moved.setStatus(TaskStatus.DONE);
+        repository.save(moved);
+
+        assertEquals(List.of(second), repository.find("01/01/2025", null, null));
+        assertEquals(List.of(moved, third), repository.find("02/01/2025", null, null));
+        assertEquals(List.of(third), repository.find("02/01/2025", TaskStatus.TODO, null));
+    }
+
+    @Test
+    void findBetweenWalksTheSortedDateIndex() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir);
+        Task late = new Task("late", "15/02/2025");
+        Task early = new Task("early", "31/12/2024");
+        Task middle = new Task("middle", "01/01/2025");
+        Task undated = new Task("undated", "someday");
+        repository.saveAll(List.of(late, early, middle, undated));
+
+        List<Task> range = repository.findBetween(DateUtils.parseEpochDay("31/12/2024"), DateUtils.parseEpochDay("01/02/2025"), null, null);
+        assertEquals(List.of(early.getId(), middle.getId()), range.stream().map(Task::getId).toList());
+        assertEquals(3, repository.findBetween(Integer.MIN_VALUE, Integer.MAX_VALUE, TaskStatus.TODO, null).size());
+
+        // The epoch day is derived from the date, it is not stored
+        Task reloaded = new TaskRepository(tempDir).findById(late.getId().toString());
+        assertEquals(late.getEpochDay(), reloaded.getEpochDay());
+        assertFalse(Files.readString(repository.getFile().toPath()).contains("epochDay"));
+    }
+
+    @Test
+    void deferredWritesAreFlushedOncePerTask() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir);
+        repository.save(new Task("before", "01/01/2025"));
+        long length = repository.getFile().length();
+
+        repository.deferWrites();
+        Task task = new Task("deferred", "01/01/2025");
+        repository.save(task);
+        Task done = repository.findById(task.getId().toString());
+        done.setStatus(TaskStatus.DONE);
+        repository.save(done);
+        assertEquals(2, repository.findAll().size());
+        assertEquals(length, repository.getFile().length());
+
+        assertEquals(1, repository.flush());
+        repository.endDeferredWrites();
+        assertEquals(TaskStatus.DONE, new TaskRepository(tempDir).findById(task.getId().toString()).getStatus());
+    }
+
+    @Test
+    void changesOfAFailedFlushAreWrittenWithTheNextOne() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir);
+        repository.deferWrites();
+        Task deferred = new Task("deferred", "01/01/2025");
+        repository.save(deferred);
+        // The log can't be opened for writing
+        File log = repository.getFile();
+        Files.createDirectory(log.toPath());
+
+        assertThrows(IOException.class, repository::endDeferredWrites);
+        Task next = new Task("next", "01/01/2025");
+        assertThrows(IOException.class, () -> repository.save(next));
+        assertEquals(2, repository.findAll().size());
+
+        Files.delete(log.toPath());
+        Task last = new Task("last", "01/01/2025");
+        repository.save(last);
+        List<String> written = new TaskRepository(tempDir).findAll().stream().map(Task::getDescription).toList();
+        assertEquals(List.of("deferred", "next", "last"), written);
+    }
+
+    @Test
+    void reloadsWhenTheLogChangesOnDisk() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir);
+        repository.save(new Task("first", "01/01/2025"));
+        assertEquals(1, repository.findAll().size());
+
+        new TaskLog(repository.getFile(), new ObjectMapper()).put(new Task("from another session", "01/01/2025"));
+
+        List<Task> tasks = repository.findAll();
+        assertEquals(2, tasks.size());
+        assertEquals("from another session", tasks.get(1).getDescription());
+    }
+
+    @Test
+    void replaysStaleChangesOnTopOfOtherSessions() throws IOException {
+        TaskRepository first = new TaskRepository(tempDir);
+        Task task = new Task("draft", "01/01/2025");
+        first.save(task);
+        TaskRepository second = new TaskRepository(tempDir);
+
+        first.deferWrites();
+        Task done = first.findById(task.getId().toString());
+        done.setStatus(TaskStatus.DONE);
+        first.save(done);
+
+        Task renamed = second.findById(task.getId().toString());
+        renamed.setDescription("final");
+        second.save(renamed);
+        first.endDeferredWrites();
+
+        for (TaskRepository repository : List.of(first, second, new TaskRepository(tempDir))) {
+            Task merged = repository.findById(task.getId().toString());
+            assertEquals("final", merged.getDescription());
+            assertEquals(TaskStatus.DONE, merged.getStatus());
+        }
+    }
+
+    @Test
+    void replaysChangesToScannedTasksOnTopOfOtherSessions() throws IOException {
+        Task task = new Task("draft", "01/01/2025");
+        task.setCategory("X");
+        new TaskRepository(tempDir).save(task);
+        TaskRepository first = new TaskRepository(tempDir);
+        TaskRepository second = new TaskRepository(tempDir);
+
+        Task scanned = first.find("01/01/2025", null, null).get(0).clone();
+        Task recategorized = second.findById(task.getId().toString());
+        recategorized.setCategory("Y");
+        second.save(recategorized);
+        scanned.setStatus(TaskStatus.DONE);
+        first.saveAll(List.of(scanned));
+
+        Task merged = new TaskRepository(tempDir).findById(task.getId().toString());
+        assertEquals(TaskStatus.DONE, merged.getStatus());
+        assertEquals("Y", merged.getCategory());
+    }
+
+    @Test
+    void keepsOnlyTheScannedTasksChangedBeforeTheLoad() throws IOException {
+        TaskRepository setup = new TaskRepository(tempDir);
+        for (int i = 0; i < 10; i++) {
+            setup.save(new Task("task " + i, "01/01/2025"));
+        }
+        setup.close();
+        TaskMetrics metrics = new TaskMetrics();
+        TaskRepository first = new TaskRepository(tempDir, StoreFormat.JSON, StoreSettings.DEFAULT, metrics);
+        TaskRepository second = new TaskRepository(tempDir);
+
+        Task scanned = first.find("01/01/2025", null, null).get(0).clone();
+        assertEquals(10L, metrics.gauges().get("store.tasks-scanned"));
+        Task renamed = second.findById(scanned.getId().toString());
+        renamed.setDescription("renamed");
+        second.save(renamed);
+        assertEquals(10, first.findAll().size());
+        assertEquals(1L, metrics.gauges().get("store.tasks-scanned"));
+
+        scanned.setStatus(TaskStatus.DONE);
+        first.save(scanned);
+        assertEquals(0L, metrics.gauges().get("store.tasks-scanned"));
+        Task merged = new TaskRepository(tempDir).findById(scanned.getId().toString());
+        assertEquals("renamed", merged.getDescription());
+        assertEquals(TaskStatus.DONE, merged.getStatus());
+    }
+
+    @Test
+    void convertsOnlyOnceTheOtherSessionsAreClosed() throws IOException {
+        TaskRepository first = new TaskRepository(tempDir);
+        first.save(new Task("convert me", "01/01/2025"));
+        TaskRepository second = new TaskRepository(tempDir);
+        assertEquals(1, second.findAll().size());
+
+        IOException refused = assertThrows(IOException.class, () -> first.convertTo(StoreFormat.COLUMNAR));
+        assertTrue(refused.getMessage().contains("session"));
+        assertEquals(StoreFormat.JSON, first.getStore().getFormat());
+        assertFalse(new File(tempDir, ColumnarTaskStore.FILE_NAME).exists());
+
+        second.close();
+        assertEquals(1, first.convertTo(StoreFormat.COLUMNAR));
+        first.close();
+        assertEquals(StoreFormat.COLUMNAR, new TaskRepository(tempDir).getStore().getFormat());
+    }
+
+    @Test
+    void refusesToWriteToAStoreConvertedMeanwhile() throws IOException {
+        TaskRepository repository = new TaskRepository(tempDir);
+        Task task = new Task("draft", "01/01/2025");
+        repository.save(task);
+
+        // Converted by a session that didn't wait for this one
+        StoreLock lock = new StoreLock(tempDir);
+        lock.locked(() -> {
+            try (TaskStore columnar = StoreFormat.COLUMNAR.open(tempDir, new ObjectMapper(), StoreSettings.DEFAULT)) {
+                columnar.append(List.of(TaskRecord.put(task)));
+            }
+            Files.move(repository.getFile().toPath(), new File(tempDir, TaskLog.FILE_NAME + ".bak").toPath());
+            return lock.advance();
+        });
+
+        Task done = task.clone();
+        done.setStatus(TaskStatus.DONE);
+        assertThrows(IOException.class, () -> repository.save(done));
+        assertFalse(new File(tempDir, TaskLog.FILE_NAME).exists());
+    }
+
+    @Test
+    void importsLegacyTasksFile() throws IOException {
+        Task legacy = new Task("legacy", "01/01/2025");
+        new ObjectMapper().writeValue(new File(tempDir, "tasks.json"), List.of(legacy));
+
+        TaskRepository repository = new TaskRepository(tempDir);
+        assertEquals(legacy.getId(), repository.findAll().get(0).getId());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.TaskShell.services;
+
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskFilter;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.CategoryRegistry;
+import com.example.TaskShell.repositories.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkUpdateTest {
+
+    @TempDir
+    File home;
+
+    private TaskRepository repository;
+    private TaskService taskService;
+
+    @BeforeEach
+    void createTasks() throws IOException {
+        repository = new TaskRepository(home);
+        taskService = new TaskService(repository, new CategoryService(new CategoryRegistry(home)));
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Task task = new Task((i % 4 == 0 ? "Call " : "write ") + i, String.format("%02d/01/2025", i % 10 + 1));
+            task.setCategory(i % 3 == 0 ? "Work" : "Home");
+            tasks.add(task);
+        }
+        tasks.add(new Task("undated", "someday"));
+        repository.saveAll(tasks);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        repository.close();
+    }
+
+    @Test
+    void matchingTasksAreChangedWithOneWrite() throws IOException {
+        String result = taskService.setStatusWhere(
+                TaskFilter.of("03/01/2025", null, null, null, null, null, "Work", null), TaskStatus.DONE);
+        assertTrue(result.contains("10 tasks marked as DONE"), result);
+        assertEquals(10, repository.find("03/01/2025", TaskStatus.DONE, "Work").size());
+        assertEquals(0, repository.find("03/01/2025", TaskStatus.DONE, "Home").size());
+
+        result = taskService.setStatusWhere(TaskFilter.of(null, "01/01/2025", "03/01/2025", null, null, null, "Work", null),
+                TaskStatus.DONE);
+        assertTrue(result.contains("20 tasks marked as DONE") && result.contains("10 already DONE"), result);
+
+        // Only the tasks that changed are appended, a record each
+        try (var lines = Files.lines(repository.getFile().toPath())) {
+            assertEquals(301 + 10 + 20, lines.count());
+        }
+    }
+
+    @Test
+    void filtersCombine() throws IOException {
+        String result = taskService.setCategoryWhere(
+                TaskFilter.of(null, null, null, null, "08/01/2025", null, "Home", "call"), "Calls");
+        assertTrue(result.contains("10 tasks moved to Calls"), result);
+        assertTrue(repository.find(null, null, "Calls").stream()
+                .allMatch(task -> task.getDate().equals("09/01/2025") && task.getDescription().startsWith("Call")));
+
+        taskService.setStatusWhere(TaskFilter.of(null, null, null, null, null, null, null, "call"), TaskStatus.DONE);
+        result = taskService.deleteWhere(TaskFilter.of(null, null, null, "05/01/2025", null, TaskStatus.DONE, null, null));
+        assertTrue(result.contains("30 tasks deleted"), result);
+        assertEquals(271, repository.findAll().size());
+        assertTrue(new TaskRepository(home).findAll().stream().anyMatch(task -> task.getDescription().equals("undated")));
+    }
+
+    @Test
+    void deletingEveryTaskNeedsAFilter() throws IOException {
+        assertTrue(taskService.deleteWhere(TaskFilter.of(null, null, null, null, null, null, null, "")).contains("Please specify"));
+        assertEquals(301, repository.findAll().size());
+    }
+}
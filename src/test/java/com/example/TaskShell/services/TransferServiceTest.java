@@ -0,0 +1,107 @@
+package com.example.TaskShell.services;
+
+import com.example.TaskShell.metrics.TaskMetrics;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import com.example.TaskShell.repositories.CategoryRegistry;
+import com.example.TaskShell.repositories.StoreFormat;
+import com.example.TaskShell.repositories.StoreSettings;
+import com.example.TaskShell.repositories.TaskRepository;
+import com.example.TaskShell.services.TransferService.ImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferServiceTest {
+
+    @TempDir
+    File source;
+
+    @TempDir
+    File target;
+
+    @Test
+    void exportedTasksAreImportedInChunks() throws IOException {
+        TaskRepository sourceRepository = new TaskRepository(source);
+        for (int i = 0; i < 250; i++) {
+            Task task = new Task("task " + i, "01/01/2025");
+            task.setCategory(i % 2 == 0 ? "Work" : "Home");
+            sourceRepository.save(task);
+        }
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        assertEquals(250, new TransferService(sourceRepository, new CategoryRegistry(source)).exportNdjson(exported));
+
+        String lines = exported.toString(StandardCharsets.UTF_8)
+                + "\n{\"description\":\"no id\",\"date\":\"02/01/2025\",\"category\":\"Work\"}"
+                + "\n{\"description\":\"bad date\",\"date\":\"2025-01-02\",\"category\":\"Work\"}"
+                + "\nnot json\n";
+        TaskRepository targetRepository = new TaskRepository(target);
+        CategoryRegistry categories = new CategoryRegistry(target);
+        categories.add("Work");
+        ImportReport report = new TransferService(targetRepository, categories)
+                .importNdjson(new BufferedReader(new StringReader(lines)), 100, false);
+
+        assertEquals(126, report.imported());
+        assertEquals(127, report.skipped());
+        assertTrue(report.errors().get(0).startsWith("line 2: unknown category 'Home'"));
+        List<Task> imported = new TaskRepository(target).findAll();
+        assertEquals(sourceRepository.findAll().get(0).getId(), imported.get(0).getId());
+        assertEquals(TaskStatus.TODO, imported.get(125).getStatus());
+        assertEquals("no id", imported.get(125).getDescription());
+    }
+
+    @Test
+    void exportStreamsTheLastStateOfEveryTask() throws IOException {
+        assertExportStreams(source, StoreFormat.JSON);
+        assertExportStreams(target, StoreFormat.PARTITIONED);
+    }
+
+    private static void assertExportStreams(File home, StoreFormat format) throws IOException {
+        TaskRepository repository = new TaskRepository(home, format, StoreSettings.DEFAULT);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Task task = new Task("task " + i, "0" + (1 + i % 3) + "/01/2025");
+            tasks.add(task);
+            repository.save(task);
+        }
+        Task done = tasks.get(3).clone();
+        done.setStatus(TaskStatus.DONE);
+        done.setDate("01/03/2025");
+        repository.save(done);
+        repository.delete(tasks.get(5));
+        repository.close();
+
+        // A new session streams the store without loading it
+        TaskMetrics metrics = new TaskMetrics();
+        TaskRepository session = new TaskRepository(home, format, StoreSettings.DEFAULT, metrics);
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        assertEquals(19, new TransferService(session, new CategoryRegistry(home)).exportNdjson(exported));
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Task> exportedTasks = new HashMap<>();
+        for (String line : exported.toString(StandardCharsets.UTF_8).split("\n")) {
+            Task task = mapper.readValue(line, Task.class);
+            exportedTasks.put(task.getDescription(), task);
+        }
+        assertEquals(19, exportedTasks.size());
+        assertEquals(TaskStatus.DONE, exportedTasks.get("task 3").getStatus());
+        assertEquals("01/03/2025", exportedTasks.get("task 3").getDate());
+        assertFalse(exportedTasks.containsKey("task 5"));
+        assertEquals(0, metrics.gauges().get("store.tasks-loaded"));
+        session.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.TaskShell.utils;
+
+import com.example.TaskShell.models.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskListRendererTest {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("task " + i, "01/01/2025"));
+        }
+        return tasks;
+    }
+
+    @Test
+    void offsetAndLimitSelectAWindow() {
+        StringWriter output = new StringWriter();
+        int written = new TaskListRenderer(new PrintWriter(output))
+                .render(tasks(10), TaskListRenderer.Layout.SIMPLE, "Tasks", 3, 4);
+
+        assertEquals(4, written);
+        String text = output.toString();
+        assertTrue(text.contains("Tasks"));
+        assertFalse(text.contains("task 2" + LINE_SEPARATOR));
+        assertTrue(text.contains("task 3" + LINE_SEPARATOR));
+        assertTrue(text.contains("task 6" + LINE_SEPARATOR));
+        assertFalse(text.contains("task 7" + LINE_SEPARATOR));
+    }
+
+    @Test
+    void pagerIsAskedAfterEveryPageAndCanStop() {
+        StringWriter output = new StringWriter();
+        List<Integer> asked = new ArrayList<>();
+        TaskListRenderer renderer = new TaskListRenderer(new PrintWriter(output), 10, (shown, total) -> {
+            asked.add(shown);
+            return asked.size() < 2;
+        });
+
+        int written = renderer.render(tasks(100), TaskListRenderer.Layout.DETAILED, null, 0, 0);
+
+        // Two tasks of five lines fit in a page of ten lines
+        assertEquals(List.of(2, 4), asked);
+        assertEquals(4, written);
+        assertTrue(output.toString().contains("task 3" + LINE_SEPARATOR));
+        assertFalse(output.toString().contains("task 4" + LINE_SEPARATOR));
+    }
+
+    @Test
+    void simpleListHoldsItsHeader() {
+        String text = TaskUtils.displaySimpleList(tasks(1), "01/01/2025").toString();
+
+        assertTrue(text.indexOf("Tasks Due 01/01/2025") < text.indexOf("task 0"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.TaskShell.utils;
+
+import com.example.TaskShell.models.ANSIColors;
+import com.example.TaskShell.models.Task;
+import com.example.TaskShell.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskRowFormatterTest {
+
+    private static final int ROWS = 20_000;
+
+    @Test
+    void tableRowsHaveFixedWidths() {
+        Task task = new Task("a description far too long for its column", "01/01/2025");
+        task.setStatus(TaskStatus.DONE);
+        String row = new TaskRowFormatter().format(task, TaskListRenderer.Layout.TABLE).row().toString();
+
+        assertEquals("| " + task.getId() + " | a description far too l... | DONE   | 01/01/2025 |" + System.lineSeparator(), row);
+        assertEquals(TaskRowFormatter.TABLE_HEADER.indexOf(System.lineSeparator()), row.indexOf(System.lineSeparator()));
+    }
+
+    @Test
+    void rowsMatchTheFormattedOnes() {
+        Task task = new Task("write report", "01/01/2025");
+        task.setCategory("Work");
+        TaskRowFormatter formatter = new TaskRowFormatter();
+
+        assertEquals(String.format(" %s %s: %s%n", ANSIColors.redText("[ ]"), ANSIColors.blueText("Work"), "write report"),
+                formatter.format(task, TaskListRenderer.Layout.SIMPLE).row().toString());
+        assertEquals(String.format("Task ID: %s%nDescription: %s%nStatus: %s%nDate: %s%n"
+                        + "-------------------------------------------------%n",
+                        task.getId(), task.getDescription(), task.getStatus(), task.getDate()),
+                formatter.format(task, TaskListRenderer.Layout.DETAILED).row().toString());
+    }
+
+    @Test
+    void formattingAllocatesLessThanStringFormat() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Task task = new Task("task number " + i, "01/01/2025");
+            task.setCategory(i % 2 == 0 ? "Work" : null);
+            tasks.add(task);
+        }
+        PrintWriter out = new PrintWriter(Writer.nullWriter());
+        TaskRowFormatter formatter = new TaskRowFormatter();
+
+        for (TaskListRenderer.Layout layout : TaskListRenderer.Layout.values()) {
+            Consumer<Task> formatted = task -> formatWithString(out, task, layout);
+            Consumer<Task> buffered = task -> formatter.format(task, layout).writeTo(out);
+            long formattedBytes = allocatedBytes(tasks, formatted);
+            long bufferedBytes = allocatedBytes(tasks, buffered);
+
+            assertTrue(bufferedBytes * 10 < formattedBytes,
+                    layout + ": " + bufferedBytes / ROWS + " bytes per row against " + formattedBytes / ROWS);
+        }
+    }
+
+    /**
+     * Measures the bytes allocated by the current thread to format every task, after a warm-up run.
+     */
+    private static long allocatedBytes(List<Task> tasks, Consumer<Task> format) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int run = 0; run < 3; run++) {
+            tasks.forEach(format);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        tasks.forEach(format);
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    /**
+     * The rows as they were written before {@link TaskRowFormatter}.
+     */
+    private static void formatWithString(PrintWriter out, Task task, TaskListRenderer.Layout layout) {
+        String category = task.getCategory() != null ? task.getCategory() : "Other";
+        String checkString = task.getStatus() == TaskStatus.TODO ? ANSIColors.redText("[ ]") : ANSIColors.greenText("[x]");
+        switch (layout) {
+            case SIMPLE -> out.printf(" %s %s: %s%n", checkString, ANSIColors.blueText(category), task.getDescription());
+            case DATED -> out.printf(" %s %s %s: %s%n", checkString, task.getDate(), ANSIColors.blueText(category),
+                    task.getDescription());
+            case TABLE -> out.printf("| %-36s | %-26s | %-6s | %-10s |%n",
+                    task.getId(), task.getDescription(), task.getStatus(), task.getDate());
+            case DETAILED -> out.printf("Task ID: %s%nDescription: %s%nStatus: %s%nDate: %s%n"
+                    + "-------------------------------------------------%n",
+                    task.getId(), task.getDescription(), task.getStatus(), task.getDate());
+        }
+    }
+}